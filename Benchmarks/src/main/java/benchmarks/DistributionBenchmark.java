@@ -0,0 +1,140 @@
+package benchmarks;
+import java.util.Arrays;
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import probability.DiscreteDistribution;
+
+/**
+ * Benchmarks building a DiscreteDistribution one outcome at a time and querying its cdf.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class DistributionBenchmark
+{
+	/**
+	 * The number of cdf queries made per call of the query benchmarks.
+	 */
+	private static final int QUERIES = 1024;
+
+	/**
+	 * The number of outcomes in the distribution.
+	 */
+	@Param({"10", "1000", "100000"})
+	public int outcomes;
+
+	/**
+	 * The outcome values, in random order.
+	 */
+	private double[] values;
+
+	/**
+	 * The outcome chances, summing to 1.
+	 */
+	private double[] chances;
+
+	/**
+	 * A distribution holding every outcome, for the query benchmarks.
+	 */
+	private DiscreteDistribution distribution;
+
+	/**
+	 * Random query points spread over the outcome values.
+	 */
+	private double[] queries;
+
+	/**
+	 * The query points in increasing order, as a sweep of thresholds would be.
+	 */
+	private double[] sortedQueries;
+
+	/**
+	 * Where the batch query results are written.
+	 */
+	private double[] results;
+
+	@Setup
+	public void setUp()
+	{
+		SplittableRandom random = new SplittableRandom(42);
+		values = new double[outcomes];
+		chances = new double[outcomes];
+		for(int i = 0; i < outcomes; i++)
+		{
+			values[i] = random.nextDouble(0, 1000);
+			chances[i] = 1.0 / outcomes;
+		}
+		distribution = DiscreteDistribution.fromArrays(values, chances);
+		queries = new double[QUERIES];
+		for(int i = 0; i < QUERIES; i++)
+		{
+			queries[i] = random.nextDouble(0, 1000);
+		}
+		sortedQueries = queries.clone();
+		Arrays.sort(sortedQueries);
+		results = new double[QUERIES];
+	}
+
+	/**
+	 * Builds a distribution by adding every outcome one at a time.
+	 * @return
+	 * 		The built distribution.
+	 */
+	@Benchmark
+	public DiscreteDistribution addOutcome()
+	{
+		DiscreteDistribution built = new DiscreteDistribution();
+		for(int i = 0; i < outcomes; i++)
+		{
+			built.addOutcome(values[i], chances[i]);
+		}
+		return built;
+	}
+
+	/**
+	 * Queries the cdf at random points, one call per point.
+	 * @return
+	 * 		The total of the results, so the work can not be optimized away.
+	 */
+	@Benchmark
+	@OperationsPerInvocation(QUERIES)
+	public double cdf()
+	{
+		double total = 0;
+		for(double query : queries)
+		{
+			total += distribution.cdf(query);
+		}
+		return total;
+	}
+
+	/**
+	 * Queries the cdf at increasing points with the batch method.
+	 * @return
+	 * 		The results.
+	 */
+	@Benchmark
+	@OperationsPerInvocation(QUERIES)
+	public double[] cdfBatch()
+	{
+		distribution.cdf(sortedQueries, results);
+		return results;
+	}
+}
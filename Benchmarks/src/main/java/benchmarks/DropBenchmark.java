@@ -0,0 +1,105 @@
+package benchmarks;
+import java.util.ArrayList;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import dropRateCalculator.Creature;
+import dropRateCalculator.Drop;
+import dropRateCalculator.Route;
+
+/**
+ * Benchmarks the per drop statistics shown for every drop in the output tree. None of them should allocate,
+ * so gc.alloc.rate.norm in the results should read 0 B/op, or within a byte or two of it from JMH's own overhead.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class DropBenchmark
+{
+	/**
+	 * The number of drops the statistics are calculated for in each operation.
+	 */
+	private static final int DROPS = 1000;
+
+	/**
+	 * The drops of a synthetic route.
+	 */
+	private Drop[] drops;
+
+	/**
+	 * The number of each drop's creature in the route, in the same order as the drops.
+	 */
+	private int[] creatPerRoute;
+
+	@Setup
+	public void setUp()
+	{
+		Route route = SyntheticRoutes.create(DROPS, 42);
+		ArrayList<Drop> gathered = new ArrayList<>();
+		ArrayList<Integer> counts = new ArrayList<>();
+		for(Creature creat : route.getCreatures())
+		{
+			for(Drop drop : creat.getDrops())
+			{
+				gathered.add(drop);
+				counts.add(creat.getNumInRoute());
+			}
+		}
+		drops = gathered.toArray(new Drop[0]);
+		creatPerRoute = new int[counts.size()];
+		for(int i = 0; i < creatPerRoute.length; i++)
+		{
+			creatPerRoute[i] = counts.get(i);
+		}
+	}
+
+	/**
+	 * The average gold per kill, average kills till the drop, and average drops per repetition of every drop.
+	 * @return
+	 * 		The total, so the work can not be optimized away.
+	 */
+	@Benchmark
+	public double averages()
+	{
+		double total = 0;
+		for(int i = 0; i < drops.length; i++)
+		{
+			Drop drop = drops[i];
+			total += drop.avgGldPerKill();
+			total += drop.avgKillsTillDrop();
+			total += drop.avgDropsInNTrials(creatPerRoute[i]);
+		}
+		return total;
+	}
+
+	/**
+	 * The spread of the number of kills till every drop, through the distribution each drop keeps for its chance.
+	 * The drops have about as many different chances as there are drops, so any call that missed the drop's own copy
+	 * would show up as allocation.
+	 * @return
+	 * 		The total of the standard deviations, so the work can not be optimized away.
+	 */
+	@Benchmark
+	public double killDistribution()
+	{
+		double total = 0;
+		for(int i = 0; i < drops.length; i++)
+		{
+			total += drops[i].killDistribution().standardDeviation();
+		}
+		return total;
+	}
+}
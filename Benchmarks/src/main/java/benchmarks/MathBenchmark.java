@@ -0,0 +1,127 @@
+package benchmarks;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import probability.Binomial;
+import supplementalMath.SupplementalMath;
+
+/**
+ * Benchmarks n Choose k and the Binomial pdf and cdf for small to large numbers of trials.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class MathBenchmark
+{
+	/**
+	 * The number of values queried per call of the query benchmarks.
+	 */
+	private static final int QUERIES = 256;
+
+	/**
+	 * The number of trials, the n of n Choose k.
+	 */
+	@Param({"10", "1000", "100000"})
+	public int trials;
+
+	/**
+	 * A Binomial whose table has already been built, for the query benchmarks.
+	 */
+	private Binomial binomial;
+
+	/**
+	 * Numbers of successes spread across the likely range.
+	 */
+	private int[] successes;
+
+	@Setup
+	public void setUp()
+	{
+		binomial = new Binomial(trials, 0.1);
+		binomial.cdf(0);
+		successes = new int[QUERIES];
+		double deviation = Math.sqrt(binomial.variance());
+		for(int i = 0; i < QUERIES; i++)
+		{
+			double offset = (2.0 * i / (QUERIES - 1) - 1) * 4 * deviation;
+			successes[i] = (int) Math.max(0, Math.min(trials, Math.round(binomial.expectedValue() + offset)));
+		}
+	}
+
+	/**
+	 * n Choose k for each of the query points as k.
+	 * @return
+	 * 		The total of the results, so the work can not be optimized away.
+	 */
+	@Benchmark
+	@OperationsPerInvocation(QUERIES)
+	public long nChooseK()
+	{
+		long total = 0;
+		for(int k : successes)
+		{
+			total += SupplementalMath.nChooseK(trials, k);
+		}
+		return total;
+	}
+
+	/**
+	 * The Binomial pdf at each of the query points.
+	 * @return
+	 * 		The total of the results.
+	 */
+	@Benchmark
+	@OperationsPerInvocation(QUERIES)
+	public double binomialPdf()
+	{
+		double total = 0;
+		for(int k : successes)
+		{
+			total += binomial.pdf(k);
+		}
+		return total;
+	}
+
+	/**
+	 * The Binomial cdf at each of the query points.
+	 * @return
+	 * 		The total of the results.
+	 */
+	@Benchmark
+	@OperationsPerInvocation(QUERIES)
+	public double binomialCdf()
+	{
+		double total = 0;
+		for(int k : successes)
+		{
+			total += binomial.cdf(k);
+		}
+		return total;
+	}
+
+	/**
+	 * A single cdf on a new Binomial, which includes building its table, as happens on every recalculation.
+	 * @return
+	 * 		The cdf at the mean.
+	 */
+	@Benchmark
+	public double binomialFirstCdf()
+	{
+		return new Binomial(trials, 0.1).cdf(trials / 10);
+	}
+}
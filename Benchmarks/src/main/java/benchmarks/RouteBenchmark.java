@@ -0,0 +1,106 @@
+package benchmarks;
+import java.util.ArrayList;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import dropRateCalculator.Creature;
+import dropRateCalculator.Drop;
+import dropRateCalculator.Route;
+import dropRateCalculator.RouteColumns;
+
+/**
+ * Benchmarks the average gold calculations over synthetic routes of increasing size.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class RouteBenchmark
+{
+	/**
+	 * The total number of drops in the route.
+	 */
+	@Param({"10", "1000", "100000"})
+	public int drops;
+
+	/**
+	 * The route under test.
+	 */
+	private Route route;
+
+	/**
+	 * Every drop in the route, gathered once so the benchmark only measures the drops themselves.
+	 */
+	private Drop[] allDrops;
+
+	/**
+	 * The same route, stored in columns.
+	 */
+	private RouteColumns columns;
+
+	@Setup
+	public void setUp()
+	{
+		route = SyntheticRoutes.create(drops, 42);
+		ArrayList<Drop> gathered = new ArrayList<>();
+		for(Creature creat : route.getCreatures())
+		{
+			gathered.addAll(creat.getDrops());
+		}
+		allDrops = gathered.toArray(new Drop[0]);
+		columns = new RouteColumns(1, drops);
+		columns.add(route);
+		columns.trim();
+	}
+
+	/**
+	 * The average gold per kill of every drop in the route, one drop at a time.
+	 * @return
+	 * 		The total, so the work can not be optimized away.
+	 */
+	@Benchmark
+	public double dropAvgGldPerKill()
+	{
+		double total = 0;
+		for(Drop drop : allDrops)
+		{
+			total += drop.avgGldPerKill();
+		}
+		return total;
+	}
+
+	/**
+	 * The average gold per repetition of the whole route.
+	 * @return
+	 * 		The average gold per repetition.
+	 */
+	@Benchmark
+	public double routeAvgGldPerRoute()
+	{
+		return route.avgGldPerRoute();
+	}
+
+	/**
+	 * The average gold per repetition of the route, calculated over its columns.
+	 * @return
+	 * 		The average gold per repetition.
+	 */
+	@Benchmark
+	public double columnsAvgGldPerRoute()
+	{
+		return columns.avgGldPerRoute(0);
+	}
+}
@@ -0,0 +1,47 @@
+package benchmarks;
+import java.util.SplittableRandom;
+
+import dropRateCalculator.Route;
+
+/**
+ * Builds reproducible farming routes of a given size for the benchmarks.
+ */
+public class SyntheticRoutes
+{
+	/**
+	 * The number of drops given to each creature.
+	 */
+	public static final int DROPS_PER_CREATURE = 10;
+
+	/**
+	 * Builds a route with the given total number of drops, spread over creatures of DROPS_PER_CREATURE drops each.
+	 * Values are whole copper up to 500 gold, and drop chances are spread evenly in log scale from 1 in 10000 to 1 in 2,
+	 * as real loot tables mix common grays with rare items.
+	 * @param drops
+	 * 		The total number of drops in the route.
+	 * @param seed
+	 * 		The seed for the random values, so every run builds the same route.
+	 * @return
+	 * 		The generated route.
+	 */
+	public static Route create(int drops, long seed)
+	{
+		SplittableRandom random = new SplittableRandom(seed);
+		Route route = new Route();
+		int creatures = (drops + DROPS_PER_CREATURE - 1) / DROPS_PER_CREATURE;
+		int remaining = drops;
+		for(int creat = 1; creat <= creatures; creat++)
+		{
+			route.addCreature(1 + random.nextInt(50));
+			int count = Math.min(DROPS_PER_CREATURE, remaining);
+			for(int drop = 0; drop < count; drop++)
+			{
+				double value = Math.round(random.nextDouble(0.01, 500) * 10000) / 10000.0;
+				double rate = Math.pow(10, random.nextDouble(-4, Math.log10(0.5)));
+				route.addDrop(creat, value, rate);
+			}
+			remaining -= count;
+		}
+		return route;
+	}
+}
@@ -0,0 +1,65 @@
+package dropRateCalculator;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import org.junit.jupiter.api.Test;
+
+import probability.DiscreteDistribution;
+
+/**
+ * Tests that a Portfolio's average and spread are exact, whatever its distribution is rounded to.
+ */
+class PortfolioTest
+{
+	/**
+	 * A route run several times on a histogram too small for it, so the bins are coarsened well past a copper, still has
+	 * exactly the route's average and variance, and its percentiles and chances stay within a couple of bins of the
+	 * route's own distribution.
+	 */
+	@Test
+	void meanIsExact()
+	{
+		Route route = new Route();
+		route.addCreature(3, "Wolf").addDrop("Pelt", 1.0, 0.3);
+		Portfolio portfolio = new Portfolio(RouteDistribution.COPPER, 64);
+		portfolio.add(route, 5);
+		double width = portfolio.getDistribution().getBinWidth();
+		assertTrue(width > 1000 * RouteDistribution.COPPER);
+		assertEquals(4.5, portfolio.expectedValue(), 1e-12);
+		assertEquals(Math.sqrt(15 * 0.3 * 0.7), portfolio.standardDeviation(), 1e-12);
+
+		DiscreteDistribution exact = route.gldDistribution(5);
+		for(double fraction : new double[] {0.01, 0.05, 0.25, 0.5, 0.75, 0.95, 0.99})
+		{
+			assertEquals(exact.quantile(fraction), portfolio.percentile(fraction), 2 * width, "percentile " + fraction);
+		}
+		for(double gold = 0; gold <= 16; gold += 0.5)
+		{
+			double chance = portfolio.chanceOfAtLeast(gold);
+			assertTrue(chance <= exact.greaterOrEqual(gold - 2 * width) + 1e-9, "at least " + gold);
+			assertTrue(chance >= exact.greaterOrEqual(gold + 2 * width) - 1e-9, "at least " + gold);
+		}
+	}
+
+	/**
+	 * Routes added together have the sum of their averages, including routes with a loot pool.
+	 */
+	@Test
+	void routesAddUp()
+	{
+		Route first = new Route();
+		first.addCreature(3, "Wolf").addDrop("Pelt", 1.0, 0.3);
+		Route second = new Route();
+		Creature bear = second.addCreature(2, "Bear");
+		bear.addDrop("Hide", 0.4, 0.9);
+		LootPool pool = bear.addLootPool("Gear");
+		pool.addDrop("Sword", 12.5, 0.01);
+		pool.addDrop("Shield", 7.25, 0.02);
+		Portfolio portfolio = new Portfolio();
+		portfolio.add(first, 5);
+		portfolio.add(second, 7);
+		portfolio.add(second.gldDistribution(), 3);
+		assertEquals(5 * first.avgGldPerRoute() + 10 * second.avgGldPerRoute(), portfolio.expectedValue(), 1e-9);
+		assertEquals(3, portfolio.getRouteCount());
+	}
+}
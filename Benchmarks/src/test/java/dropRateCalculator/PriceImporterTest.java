@@ -0,0 +1,237 @@
+package dropRateCalculator;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+
+/**
+ * Tests the CSV and JSON parsing of PriceImporter and the counts it reports.
+ */
+class PriceImporterTest
+{
+	/**
+	 * Builds a catalog with the given items, each priced at 1 gold.
+	 * @param names
+	 * 		The names of the items.
+	 * @return
+	 * 		The catalog.
+	 */
+	private static ItemCatalog catalog(String... names)
+	{
+		ItemCatalog catalog = new ItemCatalog();
+		for(String name : names)
+		{
+			catalog.addItem(name, 1);
+		}
+		return catalog;
+	}
+
+	/**
+	 * Checks each count of an import.
+	 * @param stats
+	 * 		The statistics of the import.
+	 * @param counts
+	 * 		The rows, updated, unchanged, unknown, malformed and superseded counts, in that order.
+	 */
+	private static void assertCounts(ImportStatistics stats, long... counts)
+	{
+		assertEquals(counts[0], stats.getRowsRead(), "rows");
+		assertEquals(counts[1], stats.getItemsUpdated(), "updated");
+		assertEquals(counts[2], stats.getItemsUnchanged(), "unchanged");
+		assertEquals(counts[3], stats.getUnknownItems(), "unknown");
+		assertEquals(counts[4], stats.getMalformedRows(), "malformed");
+		assertEquals(counts[5], stats.getSupersededRows(), "superseded");
+	}
+
+	@Test
+	void csvQuotesAndLineBreaks() throws IOException
+	{
+		ItemCatalog catalog = catalog("Silk \"Fine\" Cloth", "Iron, Ore", "Line\r\nBreak");
+		String csv = "name,price\r\n\"Silk \"\"Fine\"\" Cloth\",\"1.5\"\r\n\"Iron, Ore\", 2 \r\n\"Line\r\nBreak\",3\r\n";
+		ImportStatistics stats = new PriceImporter(catalog).importCsv(new StringReader(csv));
+		assertCounts(stats, 3, 3, 0, 0, 0, 0);
+		assertEquals(1.5, catalog.getItem("Silk \"Fine\" Cloth").getPrice());
+		assertEquals(2, catalog.getItem("Iron, Ore").getPrice());
+		assertEquals(3, catalog.getItem("Line\r\nBreak").getPrice());
+	}
+
+	@Test
+	void csvHeaderChoosesColumns() throws IOException
+	{
+		ItemCatalog catalog = catalog("Silk");
+		String csv = "id, MarketValue ,Item Name,ITEM\n7,30000,ignored,Silk\n";
+		ImportStatistics stats = new PriceImporter(catalog, 0.0001, PriceImporter.DEFAULT_BATCH_SIZE)
+				.importCsv(new StringReader(csv));
+		assertCounts(stats, 1, 1, 0, 0, 0, 0);
+		assertEquals(3, catalog.getItem("Silk").getPrice(), 1e-12);
+	}
+
+	@Test
+	void csvWithoutHeaderUsesFirstTwoColumns() throws IOException
+	{
+		ItemCatalog catalog = catalog("Silk", "Iron");
+		String csv = "Silk,4,price\n\nIron,5\nname only\n";
+		ImportStatistics stats = new PriceImporter(catalog).importCsv(new StringReader(csv));
+		assertCounts(stats, 3, 2, 0, 0, 1, 0);
+		assertEquals(4, catalog.getItem("Silk").getPrice());
+		assertEquals(5, catalog.getItem("Iron").getPrice());
+	}
+
+	@Test
+	void csvCounts() throws IOException
+	{
+		ItemCatalog catalog = catalog("Silk", "Iron", "Wool");
+		String csv = "Silk,2\nSilk,3\nIron,1\nMithril,9\nWool,-1\nWool,abc\nWool,\n,4\nWool,Infinity\n";
+		ImportStatistics stats = new PriceImporter(catalog).importCsv(new StringReader(csv));
+		assertCounts(stats, 9, 1, 1, 1, 5, 1);
+		assertEquals(3, catalog.getItem("Silk").getPrice());
+		assertEquals(1, catalog.getItem("Wool").getPrice());
+		assertEquals(1, stats.getBatches());
+	}
+
+	@Test
+	void batchBoundaries() throws IOException
+	{
+		//A full batch is applied before the next row is read, so a repeat in the next batch is an update, not superseded.
+		ItemCatalog catalog = catalog("Silk", "Iron");
+		String csv = "Silk,2\nIron,2\nSilk,3\nSilk,4\n";
+		ImportStatistics stats = new PriceImporter(catalog, 1, 2).importCsv(new StringReader(csv));
+		assertCounts(stats, 4, 3, 0, 0, 0, 1);
+		assertEquals(2, stats.getBatches());
+		assertEquals(4, catalog.getItem("Silk").getPrice());
+
+		catalog = catalog("Silk");
+		stats = new PriceImporter(catalog, 1, 1).importCsv(new StringReader("Silk,2\nSilk,2\nSilk,3\n"));
+		assertCounts(stats, 3, 2, 1, 0, 0, 0);
+		assertEquals(3, stats.getBatches());
+	}
+
+	@Test
+	void jsonEscapesAndSkippedValues() throws IOException
+	{
+		ItemCatalog catalog = catalog("Silk \"Fine\"", "Thé Leaf", "Iron", "Wool");
+		String json = "{\"Silk \\u0022Fine\\\"\": 2.5e0,\n"
+				+ " \"meta\": {\"a\": [1, {\"b\": null, \"c\": [[], {}]}], \"d\": \"\\u00e9\\n\"},\n"
+				+ " \"Th\\u00E9 Leaf\": 3,\n"
+				+ " \"list\": [{\"NAME\": \"Iron\", \"note\": [true, false, {\"price\": 99}], \"Price\": 4},\n"
+				+ "   7, {}, {\"name\": \"Wool\"}, {\"name\": \"Mithril\", \"price\": 1}],\n"
+				+ " \"flag\": false}\n";
+		ImportStatistics stats = new PriceImporter(catalog).importJson(new StringReader(json));
+		assertCounts(stats, 7, 3, 0, 1, 3, 0);
+		assertEquals(2.5, catalog.getItem("Silk \"Fine\"").getPrice());
+		assertEquals(3, catalog.getItem("Thé Leaf").getPrice());
+		assertEquals(4, catalog.getItem("Iron").getPrice());
+		assertEquals(1, catalog.getItem("Wool").getPrice());
+	}
+
+	@Test
+	void jsonRejectsTrailingContent() throws IOException
+	{
+		ItemCatalog catalog = catalog("Silk");
+		assertCounts(new PriceImporter(catalog).importJson(new StringReader(" [] \r\n\t")), 0, 0, 0, 0, 0, 0);
+		assertThrows(IOException.class, () -> new PriceImporter(catalog).importJson(new StringReader("[] x")));
+		assertThrows(IOException.class, () -> new PriceImporter(catalog).importJson(new StringReader("{}{}")));
+		assertThrows(IOException.class, () -> new PriceImporter(catalog).importJson(
+				new StringReader("[{\"name\": \"Silk\", \"price\": 2}],")));
+		assertThrows(IOException.class, () -> new PriceImporter(catalog).importJson(new StringReader("[1, 2")));
+		assertThrows(IOException.class, () -> new PriceImporter(catalog).importJson(new StringReader("\"Silk\"")));
+	}
+
+	@Test
+	void jsonRejectsDeepNesting() throws IOException
+	{
+		ItemCatalog catalog = catalog("Silk");
+		String deep = "{\"meta\": " + "[".repeat(100000) + "]".repeat(100000) + ", \"Silk\": 2}";
+		assertThrows(IOException.class, () -> new PriceImporter(catalog).importJson(new StringReader(deep)));
+		String shallow = "{\"meta\": " + "[".repeat(100) + "]".repeat(100) + ", \"Silk\": 2}";
+		assertCounts(new PriceImporter(catalog).importJson(new StringReader(shallow)), 2, 1, 0, 0, 1, 0);
+	}
+
+	@Test
+	void rejectsBadSettings()
+	{
+		ItemCatalog catalog = catalog();
+		for(double scale : new double[] {0, -0.0, -1, Double.NaN, Double.POSITIVE_INFINITY})
+		{
+			assertThrows(IllegalArgumentException.class, () -> new PriceImporter(catalog, scale, 10), "scale " + scale);
+		}
+		assertThrows(IllegalArgumentException.class, () -> new PriceImporter(catalog, 1, 0));
+	}
+
+	@Test
+	void updatesPlainDropsByName() throws IOException
+	{
+		ItemCatalog catalog = catalog("Iron");
+		Route route = new Route();
+		Creature creat = route.addCreature(2, "Spider");
+		Drop plain = creat.addDrop("Silk", 1, 0.5);
+		Drop linked = creat.addDrop(catalog.getItem("Iron"), 0.5);
+		Drop unrelated = creat.addDrop("Fang", 1, 0.5);
+		LootPool pool = creat.addLootPool("Pool");
+		pool.addDrop("Silk", 1, 0.25);
+		Route other = new Route();
+		other.addCreature(1, "Bat").addDrop("Iron", 1, 1);
+
+		String csv = "Silk,5\nIron,2\nFang,1\nMithril,3\n";
+		ImportStatistics stats = new PriceImporter(catalog, List.of(route, other)).importCsv(new StringReader(csv));
+		assertCounts(stats, 4, 2, 1, 1, 0, 0);
+		assertEquals(5, plain.getVal());
+		assertEquals(5, pool.getDrops().get(0).getVal());
+		assertEquals(2, linked.getVal());
+		assertEquals(1, unrelated.getVal());
+		//A plain drop sharing a catalog item's name is updated along with the item.
+		assertEquals(2, other.getCreatures().get(0).getDrops().get(0).getVal());
+		assertTrue(stats.getAffectedRoutes().contains(route));
+		assertTrue(stats.getAffectedRoutes().contains(other));
+		assertEquals(2 * (0.5 * 5 + 0.5 * 2 + 0.5 * 1 + 0.25 * 5), route.avgGldPerRoute(), 1e-12);
+
+		//Without routes only the catalog is updated, and a name with no item is unknown.
+		stats = new PriceImporter(catalog).importCsv(new StringReader("Silk,6\n"));
+		assertCounts(stats, 1, 0, 0, 1, 0, 0);
+		assertEquals(5, plain.getVal());
+	}
+
+	/**
+	 * Drops added, renamed, linked, unlinked or removed after the importer is made are found or left alone as they now are.
+	 */
+	@Test
+	void followsPlainDropChanges() throws IOException
+	{
+		ItemCatalog catalog = catalog("Iron");
+		Route route = new Route();
+		Creature creat = route.addCreature(1, "Spider");
+		PriceImporter importer = new PriceImporter(catalog, List.of(route));
+		Drop added = creat.addDrop("Silk", 1, 1);
+		Drop renamed = creat.addDrop("Web", 1, 1);
+		renamed.setName("Silk");
+		Drop unlinked = creat.addDrop(catalog.getItem("Iron"), 1);
+		unlinked.unlinkItem();
+		unlinked.setName("Silk");
+		Drop linked = creat.addDrop("Silk", 1, 1);
+		linked.linkItem(catalog.getItem("Iron"));
+		Drop removed = creat.addDrop("Silk", 1, 1);
+		creat.removeDropById(removed.getId());
+		Creature gone = route.addCreature(1, "Bat");
+		Drop goneDrop = gone.addDrop("Silk", 1, 1);
+		route.removeCreatureById(gone.getId());
+		LootPool pool = creat.addLootPool("Pool");
+		pool.addDrop("Silk", 1, 1);
+		Drop poolDrop = pool.getDrops().get(0);
+		creat.removeLootPool(1);
+
+		ImportStatistics stats = importer.importCsv(new StringReader("Silk,7\nWeb,3\n"));
+		assertCounts(stats, 2, 1, 0, 1, 0, 0);
+		assertEquals(7, added.getVal());
+		assertEquals(7, renamed.getVal());
+		assertEquals(7, unlinked.getVal());
+		assertEquals(1, linked.getVal());
+		assertEquals(1, removed.getVal());
+		assertEquals(1, goneDrop.getVal());
+		assertEquals(1, poolDrop.getVal());
+	}
+}
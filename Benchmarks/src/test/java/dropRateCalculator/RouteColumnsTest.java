@@ -0,0 +1,150 @@
+package dropRateCalculator;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+
+import org.junit.jupiter.api.Test;
+
+/**
+ * Tests that routes stored in a RouteColumns library come back unchanged and give the same gold.
+ */
+class RouteColumnsTest
+{
+	/**
+	 * Builds a random route with a few creatures, each with drops and sometimes a loot pool.
+	 * @param random
+	 * 		The source of randomness.
+	 * @return
+	 * 		The route.
+	 */
+	private static Route randomRoute(SplittableRandom random)
+	{
+		Route route = new Route();
+		int creatures = 1 + random.nextInt(6);
+		for(int c = 0; c < creatures; c++)
+		{
+			Creature creat = route.addCreature(1 + random.nextInt(20), "Creature " + random.nextInt(30));
+			int drops = random.nextInt(12);
+			for(int d = 0; d < drops; d++)
+			{
+				creat.addDrop("Item " + random.nextInt(200), random.nextDouble(0, 50), random.nextDouble(0.0001, 0.6));
+			}
+			if(random.nextInt(3) == 0)
+			{
+				LootPool pool = creat.addLootPool("Pool " + c);
+				int picks = 1 + random.nextInt(5);
+				for(int d = 0; d < picks; d++)
+				{
+					pool.addDrop("Gear " + random.nextInt(40), random.nextDouble(0, 500), random.nextDouble(0, 0.4));
+				}
+			}
+		}
+		return route;
+	}
+
+	/**
+	 * Asserts that two lists of drops have the same names, values and chances in the same order.
+	 * @param expected
+	 * 		The expected drops.
+	 * @param actual
+	 * 		The drops to check.
+	 */
+	private static void assertSameDrops(List<Drop> expected, List<Drop> actual)
+	{
+		assertEquals(expected.size(), actual.size());
+		for(int d = 0; d < expected.size(); d++)
+		{
+			assertEquals(expected.get(d).getName(), actual.get(d).getName());
+			assertEquals(expected.get(d).getVal(), actual.get(d).getVal());
+			assertEquals(expected.get(d).getRate(), actual.get(d).getRate());
+		}
+	}
+
+	/**
+	 * Every route rebuilt from the library matches the original exactly, and the gold read from the columns
+	 * agrees with the route's own running total to rounding.
+	 */
+	@Test
+	void roundTrip()
+	{
+		SplittableRandom random = new SplittableRandom(11);
+		RouteColumns library = new RouteColumns();
+		List<Route> routes = new ArrayList<>();
+		for(int r = 0; r < 2000; r++)
+		{
+			Route route = randomRoute(random);
+			routes.add(route);
+			assertEquals(r, library.add(route));
+		}
+		library.trim();
+		assertEquals(routes.size(), library.size());
+		double[] gold = library.avgGldPerRoute();
+		for(int r = 0; r < routes.size(); r++)
+		{
+			Route original = routes.get(r);
+			Route rebuilt = library.toRoute(r);
+			assertEquals(original.getCreatures().size(), rebuilt.getCreatures().size());
+			for(int c = 0; c < original.getCreatures().size(); c++)
+			{
+				Creature expected = original.getCreatures().get(c);
+				Creature actual = rebuilt.getCreatures().get(c);
+				assertEquals(expected.getName(), actual.getName());
+				assertEquals(expected.getNumInRoute(), actual.getNumInRoute());
+				assertSameDrops(expected.getDrops(), actual.getDrops());
+				assertEquals(expected.getLootPools().size(), actual.getLootPools().size());
+				for(int p = 0; p < expected.getLootPools().size(); p++)
+				{
+					assertEquals(expected.getLootPools().get(p).getName(), actual.getLootPools().get(p).getName());
+					assertSameDrops(expected.getLootPools().get(p).getDrops(), actual.getLootPools().get(p).getDrops());
+				}
+			}
+			double exact = original.avgGldPerRoute();
+			assertEquals(exact, gold[r], 1e-15 * Math.max(1, exact));
+			assertEquals(exact, library.avgGldPerRoute(r), 1e-15 * Math.max(1, exact));
+			assertEquals(exact, rebuilt.avgGldPerRoute(), 1e-15 * Math.max(1, exact));
+		}
+	}
+
+	/**
+	 * Drops of catalog items keep following their item's price in the library, and are linked to the item again
+	 * when their route is rebuilt, so a later price change reaches the rebuilt route too.
+	 */
+	@Test
+	void catalogItemsStayLinked()
+	{
+		ItemCatalog catalog = new ItemCatalog();
+		Item pelt = catalog.addItem("Pelt", 2.0);
+		Item sword = catalog.addItem("Sword", 100.0);
+		Route route = new Route();
+		Creature wolf = route.addCreature(4, "Wolf");
+		wolf.addDrop(pelt, 0.5);
+		wolf.addDrop("Fang", 1.0, 0.25);
+		Drop renamed = wolf.addDrop(pelt, 0.1);
+		renamed.setName("Prime Pelt");
+		wolf.addLootPool("Gear").addDrop(sword, 0.01);
+		RouteColumns library = new RouteColumns();
+		library.add(route);
+
+		pelt.setPrice(3.0);
+		assertEquals(route.avgGldPerRoute(), library.avgGldPerRoute(0), 1e-12);
+
+		Route rebuilt = library.toRoute(0);
+		Creature copy = rebuilt.getCreatures().get(0);
+		assertSame(pelt, copy.getDrops().get(0).getItem());
+		assertNull(copy.getDrops().get(1).getItem());
+		assertEquals("Prime Pelt", copy.getDrops().get(2).getName());
+		assertSame(pelt, copy.getDrops().get(2).getItem());
+		assertSame(sword, copy.getLootPools().get(0).getDrops().get(0).getItem());
+		assertEquals(route.avgGldPerRoute(), rebuilt.avgGldPerRoute(), 1e-12);
+
+		assertTrue(catalog.setPrice("Sword", 200.0).contains(rebuilt));
+		pelt.setPrice(5.0);
+		assertEquals(route.avgGldPerRoute(), rebuilt.avgGldPerRoute(), 1e-12);
+		assertEquals(route.avgGldPerRoute(), library.avgGldPerRoute(0), 1e-12);
+	}
+}
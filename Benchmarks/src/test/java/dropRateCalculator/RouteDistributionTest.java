@@ -0,0 +1,114 @@
+package dropRateCalculator;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import org.junit.jupiter.api.Test;
+
+import probability.Binomial;
+import probability.DiscreteDistribution;
+
+/**
+ * Tests RouteDistribution against distributions that are known exactly.
+ */
+class RouteDistributionTest
+{
+	/**
+	 * A single drop over a number of kills has exactly a Binomial number of drops, so each count lands on the nearest
+	 * grid point to its gold with the Binomial probability, and the rounding noise of the transforms left on the other
+	 * grid points adds up to next to nothing.
+	 */
+	@Test
+	void singleDropMatchesBinomial()
+	{
+		Route route = new Route();
+		route.addCreature(3, "Wolf").addDrop("Pelt", 1.0, 0.3);
+		RouteDistribution result = new RouteDistribution(route, 5);
+		DiscreteDistribution gold = result.getDistribution();
+		double half = result.getBinWidth() / 2;
+		Binomial drops = new Binomial(15, 0.3);
+		double counted = 0;
+		for(int k = 0; k <= 15; k++)
+		{
+			double chance = gold.cdf(k + half) - gold.lessThan(k - half);
+			assertEquals(drops.pdf(k), chance, 1e-12);
+			counted += chance;
+		}
+		assertEquals(1, counted, 1e-12);
+		assertEquals(1, total(gold), 1e-12);
+		assertEquals(4.5, gold.expectedValue(), half);
+	}
+
+	/**
+	 * A rare drop worth a lot spreads its counts far apart on a fine grid, so the chance of many drops is far below
+	 * the largest chance times the grid size. That tail is still there, with its exact Binomial chance, down to where
+	 * the rounding noise of the transforms takes over.
+	 */
+	@Test
+	void rareDropTailMatchesBinomial()
+	{
+		Route route = new Route();
+		route.addCreature(1000, "Dragon").addDrop("Scale", 100, 0.001);
+		RouteDistribution result = new RouteDistribution(route);
+		DiscreteDistribution gold = result.getDistribution();
+		double half = result.getBinWidth() / 2;
+		Binomial drops = new Binomial(1000, 0.001);
+		for(int k = 1; k <= 15; k++)
+		{
+			double exact = drops.greaterOrEqual(k);
+			assertEquals(exact, tail(gold, 100 * k - half), exact * 1e-2, "at least " + k);
+		}
+		assertEquals(1, total(gold), 1e-12);
+	}
+
+	/**
+	 * Sums the chances of a distribution's outcomes from the top down to the given value, so a tiny tail is not lost
+	 * in the rounding of 1 less the rest.
+	 * @param dist
+	 * 		The distribution.
+	 * @param value
+	 * 		The smallest value counted.
+	 * @return
+	 * 		The chance of at least that value.
+	 */
+	private static double tail(DiscreteDistribution dist, double value)
+	{
+		double sum = 0;
+		for(int index = dist.size() - 1; index >= 0 && dist.getValue(index) >= value; index--)
+		{
+			sum += dist.getChance(index);
+		}
+		return sum;
+	}
+
+	/**
+	 * Sums the chances of a distribution's outcomes.
+	 * @param dist
+	 * 		The distribution.
+	 * @return
+	 * 		The sum of its chances.
+	 */
+	private static double total(DiscreteDistribution dist)
+	{
+		double sum = 0;
+		for(int index = 0; index < dist.size(); index++)
+		{
+			sum += dist.getChance(index);
+		}
+		return sum;
+	}
+
+	/**
+	 * On a one copper grid the drops land exactly, so the mean is the route's average gold, give or take the
+	 * rounding noise of the transforms.
+	 */
+	@Test
+	void copperGridKeepsMean()
+	{
+		Route route = new Route();
+		Creature wolf = route.addCreature(4, "Wolf");
+		wolf.addDrop("Pelt", 0.03, 0.5);
+		wolf.addDrop("Fang", 0.27, 0.05);
+		RouteDistribution result = new RouteDistribution(route, 2);
+		assertEquals(RouteDistribution.COPPER, result.getBinWidth(), 1e-18);
+		assertEquals(2 * route.avgGldPerRoute(), result.getDistribution().expectedValue(), 1e-10);
+	}
+}
@@ -0,0 +1,233 @@
+package dropRateCalculator;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.lang.reflect.Modifier;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+
+import org.junit.jupiter.api.Test;
+
+/**
+ * Tests that the running gold totals of routes, creatures and loot pools follow every change to them, and can only
+ * change through their own methods.
+ */
+class RunningTotalsTest
+{
+	/**
+	 * The lists handed out by the getters can not be changed, so the totals and the cached distribution stay right.
+	 */
+	@Test
+	void gettersCanNotChangeTheRoute()
+	{
+		Route route = new Route();
+		Creature wolf = route.addCreature(1, "Wolf");
+		wolf.addDrop("Pelt", 5.0, 1.0);
+		LootPool pool = wolf.addLootPool("Gear");
+		pool.addDrop("Sword", 10.0, 0.5);
+		double[] before = route.gldPerTimePercentiles(1, new double[] {0.5});
+
+		assertThrows(UnsupportedOperationException.class, () -> wolf.getDrops().clear());
+		assertThrows(UnsupportedOperationException.class, () -> wolf.getLootPools().clear());
+		assertThrows(UnsupportedOperationException.class, () -> pool.getDrops().remove(0));
+		assertThrows(UnsupportedOperationException.class, () -> route.getCreatures().clear());
+		assertThrows(UnsupportedOperationException.class, () -> route.getCreatures().add(new Creature(1, "Bear")));
+
+		assertEquals(10.0, route.avgGldPerRoute(), 1e-12);
+		assertEquals(1, route.getCreatures().size());
+		assertEquals(1, wolf.getDrops().size());
+		assertEquals(before[0], route.gldPerTimePercentiles(1, new double[] {0.5})[0]);
+	}
+
+	/**
+	 * The views follow changes made through the owners, including removals that renumber the rest.
+	 */
+	@Test
+	void viewsFollowTheOwners()
+	{
+		Route route = new Route();
+		Creature wolf = route.addCreature(2, "Wolf");
+		Creature bear = route.addCreature(1, "Bear");
+		wolf.addDrop("Pelt", 1.0, 0.5);
+		Drop fang = wolf.addDrop("Fang", 2.0, 0.25);
+		route.removeCreatureById(bear.getId());
+		wolf.removeDropById(wolf.findDrop("Pelt").getId());
+		assertEquals(1, route.getCreatures().size());
+		assertEquals(fang, wolf.getDrops().get(0));
+		assertEquals(1, fang.getPosition());
+		assertEquals(1.0, route.avgGldPerRoute(), 1e-12);
+	}
+
+	/**
+	 * Only drops can report changes to their holder, so the methods they call are not public.
+	 * @throws NoSuchMethodException
+	 * 		If a method has been renamed.
+	 */
+	@Test
+	void holderCallbacksAreNotPublic() throws NoSuchMethodException
+	{
+		for(Class<?> holder : new Class<?>[] {Creature.class, LootPool.class})
+		{
+			assertFalse(Modifier.isPublic(holder.getDeclaredMethod("dropChanged", Drop.class, double.class, double.class)
+					.getModifiers()));
+			assertFalse(Modifier.isPublic(holder.getDeclaredMethod("dropRenamed", Drop.class, String.class).getModifiers()));
+			assertFalse(Modifier.isPublic(holder.getDeclaredMethod("updatePositions").getModifiers()));
+		}
+	}
+
+	/**
+	 * After each of a long run of random edits, the running totals match sums taken afresh over every drop,
+	 * including after a drop's value becomes infinite and the totals have to be recounted.
+	 */
+	@Test
+	void totalsFollowRandomEdits()
+	{
+		SplittableRandom random = new SplittableRandom(2024);
+		Route route = new Route();
+		for(int step = 0; step < 20000; step++)
+		{
+			List<Creature> creatures = route.getCreatures();
+			int action = random.nextInt(12);
+			if(creatures.isEmpty() || action == 0)
+			{
+				route.addCreature(random.nextInt(20), "Creature " + random.nextInt(10));
+			}
+			else
+			{
+				Creature creat = creatures.get(random.nextInt(creatures.size()));
+				List<Drop> drops = allDrops(creat);
+				if(action == 1 && creatures.size() > 1)
+				{
+					if(random.nextBoolean())
+					{
+						route.removeCreature(creat.getPosition());
+					}
+					else
+					{
+						route.removeCreatureById(creat.getId());
+					}
+				}
+				else if(action == 2)
+				{
+					creat.setNumInRoute(random.nextInt(20));
+				}
+				else if(action <= 4)
+				{
+					creat.addDrop("Drop " + random.nextInt(20), random.nextDouble(0, 100), random.nextDouble(0.001, 0.6));
+				}
+				else if(action == 5 && !creat.getDrops().isEmpty())
+				{
+					int posit = 1 + random.nextInt(creat.getDrops().size());
+					if(random.nextBoolean())
+					{
+						creat.removeDrop(posit);
+					}
+					else
+					{
+						creat.removeDropById(creat.getDrops().get(posit - 1).getId());
+					}
+				}
+				else if(action == 6)
+				{
+					if(creat.getLootPools().size() < 3)
+					{
+						creat.addLootPool();
+					}
+					else
+					{
+						creat.removeLootPool(1 + random.nextInt(creat.getLootPools().size()));
+					}
+				}
+				else if(action == 7 && !creat.getLootPools().isEmpty())
+				{
+					LootPool pool = creat.getLootPools().get(random.nextInt(creat.getLootPools().size()));
+					if(pool.getDrops().size() > 4)
+					{
+						pool.removeDrop(1 + random.nextInt(pool.getDrops().size()));
+					}
+					else
+					{
+						pool.addDrop("Pick " + random.nextInt(20), random.nextDouble(0, 100), random.nextDouble(0.001, 0.5));
+					}
+				}
+				else if(action <= 9 && !drops.isEmpty())
+				{
+					drops.get(random.nextInt(drops.size())).setValue(random.nextDouble(0, 100));
+				}
+				else if(action <= 11 && !drops.isEmpty())
+				{
+					drops.get(random.nextInt(drops.size())).setRate(random.nextDouble(0.001, 0.6));
+				}
+				if(!drops.isEmpty() && random.nextInt(25) == 0)
+				{
+					//An infinite value makes the totals infinite, and they must come back once it is finite again.
+					Drop drop = drops.get(random.nextInt(drops.size()));
+					if(drop.getRoute() == route)
+					{
+						drop.setValue(Double.POSITIVE_INFINITY);
+						assertEquals(Double.POSITIVE_INFINITY, creat.avgGldPerKill());
+						if(creat.getNumInRoute() > 0)
+						{
+							assertEquals(Double.POSITIVE_INFINITY, route.avgGldPerRoute());
+						}
+						drop.setValue(random.nextDouble(0, 100));
+					}
+				}
+			}
+			assertTotals(route, step);
+		}
+	}
+
+	/**
+	 * Checks the running totals of a route and each of its creatures against sums taken afresh over their drops.
+	 * @param route
+	 * 		The route.
+	 * @param step
+	 * 		The number of edits made so far, for the failure message.
+	 */
+	private static void assertTotals(Route route, int step)
+	{
+		double routeGold = 0;
+		for(Creature creat : route.getCreatures())
+		{
+			double kill = 0;
+			for(Drop drop : creat.getDrops())
+			{
+				kill += drop.getVal() * drop.getRate();
+			}
+			for(LootPool pool : creat.getLootPools())
+			{
+				double gold = 0;
+				double chance = 0;
+				for(Drop drop : pool.getDrops())
+				{
+					gold += drop.getVal() * drop.getRate();
+					chance += drop.getRate();
+				}
+				kill += gold / Math.max(1, chance);
+			}
+			assertEquals(kill, creat.avgGldPerKill(), 1e-9 * Math.max(1, kill), "creature at step " + step);
+			routeGold += kill * creat.getNumInRoute();
+		}
+		assertEquals(routeGold, route.avgGldPerRoute(), 1e-9 * Math.max(1, routeGold), "route at step " + step);
+	}
+
+	/**
+	 * Returns every drop of a creature, its own and those in its loot pools.
+	 * @param creat
+	 * 		The creature.
+	 * @return
+	 * 		The drops.
+	 */
+	private static List<Drop> allDrops(Creature creat)
+	{
+		ArrayList<Drop> drops = new ArrayList<>(creat.getDrops());
+		for(LootPool pool : creat.getLootPools())
+		{
+			drops.addAll(pool.getDrops());
+		}
+		return drops;
+	}
+}
@@ -0,0 +1,152 @@
+package dropRateCalculator;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+
+import org.junit.jupiter.api.Test;
+
+/**
+ * Tests the IDs, positions and name lookups of creatures and drops against a plain list of the same edits.
+ */
+class StableIdTest
+{
+	/**
+	 * Random adds, removals by position and by ID, and renames keep the route's order, positions, IDs and
+	 * name index in step with a list that is edited the slow way. Lookups and removals by position are checked
+	 * before the list of creatures is brought up to date, so they rely on the position index alone.
+	 */
+	@Test
+	void matchesListModel()
+	{
+		Random random = new Random(3);
+		Route route = new Route();
+		List<Creature> model = new ArrayList<>();
+		for(int step = 0; step < 20000; step++)
+		{
+			int op = random.nextInt(6);
+			if(op < 2 || model.isEmpty())
+			{
+				model.add(route.addCreature(1 + random.nextInt(5), random.nextBoolean() ? null : "n" + random.nextInt(50)));
+			}
+			else if(op == 2)
+			{
+				int posit = 1 + random.nextInt(model.size());
+				assertSame(model.get(posit - 1), route.getCreatureAt(posit));
+				route.removeCreature(posit);
+				model.remove(posit - 1);
+				assertEquals(model.size(), route.getCreatureCount());
+			}
+			else if(op == 3)
+			{
+				Creature creat = model.remove(random.nextInt(model.size()));
+				assertTrue(route.removeCreatureById(creat.getId()));
+			}
+			else if(op == 4)
+			{
+				model.get(random.nextInt(model.size())).setName("n" + random.nextInt(50));
+			}
+			else
+			{
+				Creature creat = model.get(random.nextInt(model.size()));
+				Drop drop = creat.addDrop("d" + random.nextInt(5), random.nextDouble(), 0.1);
+				if(random.nextBoolean())
+				{
+					creat.removeDropById(drop.getId());
+				}
+				else if(creat.getDropCount() > 2)
+				{
+					int count = creat.getDropCount();
+					int posit = 1 + random.nextInt(count);
+					Drop at = creat.getDropAt(posit);
+					creat.removeDrop(posit);
+					assertEquals(0, at.getId());
+					assertEquals(count - 1, creat.getDropCount());
+				}
+			}
+			if(step % 997 == 0)
+			{
+				check(route, model);
+			}
+		}
+		check(route, model);
+	}
+
+	/**
+	 * Removing every other creature of a large route by ID leaves the rest numbered in order and the total right.
+	 */
+	@Test
+	void batchRemoval()
+	{
+		Route route = new Route();
+		int[] nums = new int[1000];
+		Arrays.fill(nums, 3);
+		Creature[] added = route.addCreatures(nums, null);
+		int[] removed = new int[added.length / 2];
+		for(int i = 0; i < added.length; i++)
+		{
+			added[i].addDrop(10, 0.5);
+			if(i % 2 == 0)
+			{
+				removed[i / 2] = added[i].getId();
+			}
+		}
+		assertEquals(removed.length, route.removeCreatures(removed));
+		assertEquals(500, route.getCreatures().size());
+		assertEquals(500, added[added.length - 1].getPosition());
+		assertEquals(500 * 15.0, route.avgGldPerRoute(), 1e-9);
+	}
+
+	/**
+	 * Checks the route against the model.
+	 * @param route
+	 * 		The route.
+	 * @param model
+	 * 		The creatures the route should have, in order.
+	 */
+	private static void check(Route route, List<Creature> model)
+	{
+		assertEquals(model.size(), route.getCreatureCount());
+		for(int i = 0; i < model.size(); i++)
+		{
+			assertSame(model.get(i), route.getCreatureAt(i + 1));
+		}
+		assertEquals(model, route.getCreatures());
+		int named = 0;
+		for(int i = 0; i < model.size(); i++)
+		{
+			Creature creat = model.get(i);
+			assertEquals(i + 1, creat.getPosition());
+			assertSame(creat, route.getCreatureById(creat.getId()));
+			assertTrue(route.findCreatures(creat.getName()).contains(creat));
+			if(creat.getName().startsWith("n"))
+			{
+				named++;
+			}
+			int count = creat.getDropCount();
+			for(int j = 0; j < count; j++)
+			{
+				assertSame(creat.getDrops().get(j), creat.getDropAt(j + 1));
+			}
+			List<Drop> drops = creat.getDrops();
+			assertEquals(count, drops.size());
+			for(int j = 0; j < drops.size(); j++)
+			{
+				Drop drop = drops.get(j);
+				assertEquals(j + 1, drop.getPosition());
+				assertSame(drop, creat.getDropById(drop.getId()));
+				assertTrue(creat.findDrops(drop.getName()).contains(drop));
+			}
+		}
+		int indexed = 0;
+		for(int k = 0; k < 50; k++)
+		{
+			indexed += route.findCreatures("n" + k).size();
+		}
+		assertEquals(named, indexed);
+	}
+}
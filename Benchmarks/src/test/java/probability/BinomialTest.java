@@ -0,0 +1,33 @@
+package probability;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.util.stream.IntStream;
+
+import org.junit.jupiter.api.Test;
+
+/**
+ * Tests that a Binomial gives the same answers when its tables are first needed from many threads at once.
+ */
+class BinomialTest
+{
+	@Test
+	void concurrentFirstQueriesAgree()
+	{
+		Binomial reference = new Binomial(50000, 0.003);
+		for(int round = 0; round < 50; round++)
+		{
+			//Each round is a fresh distribution, so the threads race to build its tables.
+			Binomial shared = new Binomial(50000, 0.003);
+			IntStream.range(0, 64).parallel().forEach(task ->
+			{
+				int k = 100 + task;
+				switch(task % 3)
+				{
+					case 0: assertEquals(reference.pdf(k), shared.pdf(k)); break;
+					case 1: assertEquals(reference.cdf(k), shared.cdf(k)); break;
+					default: assertEquals(reference.greaterOrEqual(k), shared.greaterOrEqual(k)); break;
+				}
+			});
+		}
+	}
+}
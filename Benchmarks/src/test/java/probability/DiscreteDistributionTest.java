@@ -0,0 +1,46 @@
+package probability;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.util.SplittableRandom;
+import java.util.stream.IntStream;
+
+import org.junit.jupiter.api.Test;
+
+/**
+ * Tests that a frozen DiscreteDistribution gives the same answers when first queried from many threads at once.
+ */
+class DiscreteDistributionTest
+{
+	@Test
+	void concurrentFirstQueriesAgree()
+	{
+		SplittableRandom random = new SplittableRandom(5);
+		double[] values = new double[20000];
+		double[] chances = new double[values.length];
+		for(int i = 0; i < values.length; i++)
+		{
+			values[i] = random.nextDouble(0, 1000);
+			chances[i] = random.nextDouble();
+		}
+		DiscreteDistribution reference = DiscreteDistribution.fromArrays(values, chances);
+		double mean = reference.expectedValue();
+		double variance = reference.variance();
+		double skewness = reference.skewness();
+		double median = reference.quantile(0.5);
+		for(int round = 0; round < 50; round++)
+		{
+			//Each round is a fresh distribution, so the threads race to build its summary.
+			DiscreteDistribution shared = DiscreteDistribution.fromArrays(values, chances);
+			IntStream.range(0, 64).parallel().forEach(task ->
+			{
+				switch(task % 4)
+				{
+					case 0: assertEquals(median, shared.quantile(0.5)); break;
+					case 1: assertEquals(mean, shared.expectedValue()); break;
+					case 2: assertEquals(variance, shared.variance()); break;
+					default: assertEquals(skewness, shared.skewness()); break;
+				}
+			});
+		}
+	}
+}
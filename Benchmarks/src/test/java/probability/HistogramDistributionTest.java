@@ -0,0 +1,214 @@
+package probability;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.Arrays;
+import java.util.SplittableRandom;
+
+import org.junit.jupiter.api.Test;
+
+/**
+ * Tests that HistogramDistribution holds the same bins whichever order the values are added in, and that
+ * combining histograms and reading them back give the chances they should.
+ */
+class HistogramDistributionTest
+{
+	/**
+	 * Asserts that two histograms have the same width and bins.
+	 * @param expected
+	 * 		The expected histogram.
+	 * @param actual
+	 * 		The histogram to check.
+	 */
+	private static void assertSameBins(HistogramDistribution expected, HistogramDistribution actual)
+	{
+		assertEquals(expected.getBinWidth(), actual.getBinWidth());
+		assertEquals(expected.size(), actual.size());
+		for(int i = 0; i < expected.size(); i++)
+		{
+			assertEquals(expected.getValue(i), actual.getValue(i));
+			assertEquals(expected.getChance(i), actual.getChance(i), 1e-15);
+		}
+	}
+
+	/**
+	 * Values added from the top down, which extend the bins downwards every time, give the same bins as
+	 * the same values added from the bottom up.
+	 */
+	@Test
+	void descendingMatchesAscending()
+	{
+		for(int limit : new int[] {3000, 3001, 1 << 16})
+		{
+			HistogramDistribution up = new HistogramDistribution(1, limit);
+			HistogramDistribution down = new HistogramDistribution(1, limit);
+			for(int i = 0; i < 3000; i++)
+			{
+				up.add(i);
+				down.add(2999 - i);
+			}
+			assertSameBins(up, down);
+			assertEquals(1499.5, down.expectedValue(), 1e-9);
+		}
+	}
+
+	/**
+	 * Values that jump either side of the bins held give the same bins as the same values in sorted order.
+	 */
+	@Test
+	void shuffledMatchesSorted()
+	{
+		SplittableRandom random = new SplittableRandom(7);
+		double[] values = new double[5000];
+		for(int i = 0; i < values.length; i++)
+		{
+			values[i] = Math.round(random.nextDouble(-2000, 2000));
+		}
+		HistogramDistribution shuffled = new HistogramDistribution(1, 1 << 12);
+		shuffled.add(values);
+		Arrays.sort(values);
+		HistogramDistribution sorted = new HistogramDistribution(1, 1 << 12);
+		sorted.add(values);
+		assertSameBins(sorted, shuffled);
+	}
+
+	/**
+	 * Values that are not finite are rejected, and a value too large for a bin index coarsens the bins instead
+	 * of overflowing.
+	 */
+	@Test
+	void extremeValues()
+	{
+		HistogramDistribution histogram = new HistogramDistribution(1, 64);
+		assertThrows(IllegalArgumentException.class, () -> histogram.add(Double.NaN));
+		assertThrows(IllegalArgumentException.class, () -> histogram.add(Double.POSITIVE_INFINITY));
+		assertThrows(IllegalArgumentException.class, () -> histogram.add(Double.NEGATIVE_INFINITY, 2));
+		assertEquals(0, histogram.getTotalWeight());
+
+		histogram.add(5);
+		histogram.add(1e20);
+		assertTrue(histogram.size() <= 64);
+		assertEquals(2, histogram.getTotalWeight());
+		assertEquals(5e19, histogram.expectedValue(), 1e5);
+		assertEquals(0.5, histogram.cdf(0), 1e-15);
+		assertEquals(1, histogram.cdf(1e20), 1e-15);
+		assertEquals(1e20, histogram.quantile(1), 1e20 / 32);
+
+		HistogramDistribution negative = new HistogramDistribution(1, 64);
+		negative.add(-1e300);
+		negative.add(1e300);
+		assertEquals(0.5, negative.lessThan(0), 1e-15);
+		assertEquals(0, negative.expectedValue());
+	}
+
+	/**
+	 * Quantiles are the smallest bin value whose cdf reaches the chance.
+	 */
+	@Test
+	void quantile()
+	{
+		HistogramDistribution histogram = new HistogramDistribution(1, 1 << 10);
+		assertTrue(Double.isNaN(histogram.quantile(0.5)));
+		for(int i = 0; i < 100; i++)
+		{
+			histogram.add(i);
+		}
+		assertEquals(0, histogram.quantile(0));
+		assertEquals(0, histogram.quantile(0.01));
+		assertEquals(1, histogram.quantile(0.011));
+		assertEquals(49, histogram.quantile(0.5));
+		assertEquals(99, histogram.quantile(1));
+	}
+
+	/**
+	 * Merging histograms on the same grid gives the bins of one histogram of all the values, and merging one on a coarser
+	 * grid keeps the exact moments and the average of the bins.
+	 */
+	@Test
+	void merge()
+	{
+		SplittableRandom random = new SplittableRandom(11);
+		HistogramDistribution all = new HistogramDistribution(1, 1 << 12);
+		HistogramDistribution first = new HistogramDistribution(1, 1 << 12);
+		HistogramDistribution second = new HistogramDistribution(1, 1 << 12);
+		for(int i = 0; i < 2000; i++)
+		{
+			double value = Math.round(random.nextDouble(-500, 1500));
+			all.add(value);
+			(i % 3 == 0 ? first : second).add(value);
+		}
+		first.merge(second);
+		assertSameBins(all, first);
+		assertEquals(all.expectedValue(), first.expectedValue(), 1e-9);
+		assertEquals(all.variance(), first.variance(), 1e-6);
+
+		HistogramDistribution fine = new HistogramDistribution(1, 1 << 12);
+		HistogramDistribution coarse = new HistogramDistribution(4, 1 << 12);
+		fine.add(new double[] {1, 2, 3});
+		coarse.add(new double[] {8, 12, 20});
+		fine.merge(coarse);
+		assertEquals(4, fine.getBinWidth());
+		assertEquals(46.0 / 6, fine.expectedValue(), 1e-12);
+		assertEquals(46.0 / 6, binMean(fine), 1e-12);
+		assertEquals(6, fine.getTotalWeight());
+	}
+
+	/**
+	 * Convolving and raising to a power give the exact Binomial for the sum of Bernoulli values.
+	 */
+	@Test
+	void convolveAndPower()
+	{
+		HistogramDistribution coin = new HistogramDistribution(1, 1 << 10);
+		coin.add(0, 0.7);
+		coin.add(1, 0.3);
+		HistogramDistribution two = coin.convolve(coin);
+		assertEquals(3, two.size());
+		assertEquals(0.49, two.getChance(0), 1e-15);
+		assertEquals(0.42, two.getChance(1), 1e-15);
+		assertEquals(0.09, two.getChance(2), 1e-15);
+		assertEquals(0.6, two.expectedValue(), 1e-15);
+		assertEquals(0.42, two.variance(), 1e-15);
+
+		Binomial exact = new Binomial(40, 0.3);
+		HistogramDistribution sum = coin.power(40);
+		assertEquals(1, sum.getBinWidth());
+		for(int k = 0; k <= 40; k++)
+		{
+			assertEquals(exact.pdf(k), sum.pdf(k), 1e-14, "pdf " + k);
+			assertEquals(exact.cdf(k), sum.cdf(k), 1e-13, "cdf " + k);
+		}
+		assertEquals(12, sum.expectedValue(), 1e-12);
+		assertEquals(8.4, sum.variance(), 1e-12);
+		assertEquals(1, coin.power(0).getTotalWeight());
+		assertEquals(0, coin.power(0).expectedValue());
+
+		//A limit too small for the sum coarsens it, keeping the average of the bins.
+		HistogramDistribution small = new HistogramDistribution(1, 16);
+		small.add(0, 0.7);
+		small.add(1, 0.3);
+		HistogramDistribution coarse = small.power(40);
+		assertTrue(coarse.size() <= 16);
+		assertTrue(coarse.getBinWidth() > 1);
+		assertEquals(12, coarse.expectedValue(), 1e-12);
+		assertEquals(12, binMean(coarse), 1e-9);
+	}
+
+	/**
+	 * Returns the average of the bin values, weighted by their chances.
+	 * @param histogram
+	 * 		The histogram.
+	 * @return
+	 * 		The average of its bins.
+	 */
+	private static double binMean(HistogramDistribution histogram)
+	{
+		double sum = 0;
+		for(int i = 0; i < histogram.size(); i++)
+		{
+			sum += histogram.getValue(i) * histogram.getChance(i);
+		}
+		return sum;
+	}
+}
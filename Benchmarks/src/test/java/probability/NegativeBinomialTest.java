@@ -0,0 +1,59 @@
+package probability;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import org.junit.jupiter.api.Test;
+
+/**
+ * Tests that NegativeBinomial rejects parameters it has no distribution for, and that its quantiles are exact.
+ */
+class NegativeBinomialTest
+{
+	@Test
+	void rejectsBadParameters()
+	{
+		assertThrows(IllegalArgumentException.class, () -> new NegativeBinomial(0, 0.5));
+		assertThrows(IllegalArgumentException.class, () -> new NegativeBinomial(-1, 0.5));
+		assertThrows(IllegalArgumentException.class, () -> new NegativeBinomial(3, 0));
+		assertThrows(IllegalArgumentException.class, () -> new NegativeBinomial(3, -0.1));
+		assertThrows(IllegalArgumentException.class, () -> new NegativeBinomial(3, 1.5));
+		assertThrows(IllegalArgumentException.class, () -> new NegativeBinomial(3, Double.NaN));
+		assertThrows(IllegalArgumentException.class, () -> NegativeBinomial.quantile(0, 0.5, 0.5));
+		assertEquals(6, new NegativeBinomial(3, 0.5).expectedValue());
+		assertEquals(3, new NegativeBinomial(3, 1).quantile(0.99));
+	}
+
+	/**
+	 * The static quantile matches the distribution's, and is the smallest number of attempts whose cdf reaches the chance.
+	 */
+	@Test
+	void quantileIsSmallestReachingChance()
+	{
+		for(int count : new int[] {1, 2, 5, 40})
+		{
+			for(double rate : new double[] {0.9, 0.3, 0.01, 1e-5})
+			{
+				NegativeBinomial distribution = new NegativeBinomial(count, rate);
+				for(double chance : new double[] {1e-6, 0.05, 0.5, 0.95, 0.999999})
+				{
+					double attempts = NegativeBinomial.quantile(count, rate, chance);
+					assertEquals(distribution.quantile(chance), attempts);
+					assertTrue(distribution.cdf(attempts) >= chance);
+					assertTrue(attempts == count || distribution.cdf(attempts - 1) < chance);
+				}
+			}
+		}
+	}
+
+	@Test
+	void quantileEdges()
+	{
+		assertEquals(Double.POSITIVE_INFINITY, NegativeBinomial.quantile(3, 0, 0.5));
+		assertEquals(Double.POSITIVE_INFINITY, NegativeBinomial.quantile(3, 0.5, 1));
+		assertEquals(3, NegativeBinomial.quantile(3, 0.5, 0));
+		assertEquals(3, NegativeBinomial.quantile(3, 1, 0.5));
+		//A single success is the Geometric distribution.
+		assertEquals(Geometric.quantile(0.02, 0.95), NegativeBinomial.quantile(1, 0.02, 0.95));
+	}
+}
@@ -0,0 +1,123 @@
+package supplementalMath;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.math.BigDecimal;
+import java.util.Arrays;
+import java.util.SplittableRandom;
+
+import org.junit.jupiter.api.Test;
+
+import probability.DiscreteDistribution;
+
+/**
+ * Tests CompensatedSum and Summation against exact BigDecimal sums and in-order running totals.
+ */
+class SummationTest
+{
+	/**
+	 * The number of gold amounts added up, enough for Summation to split the work many times.
+	 */
+	private static final int COUNT = 3_000_000;
+
+	/**
+	 * Gold amounts of up to 500 to the copper, with a billion gold outlier every thousand, in a fixed order.
+	 * @return
+	 * 		The amounts.
+	 */
+	private static double[] amounts()
+	{
+		SplittableRandom random = new SplittableRandom(1);
+		double[] values = new double[COUNT];
+		for(int i = 0; i < COUNT; i++)
+		{
+			values[i] = (i % 1000 == 0 ? 1e9 : 0) + Math.round(random.nextDouble(0, 500) * 10000) / 10000.0;
+		}
+		return values;
+	}
+
+	/**
+	 * The compensated sum rounds the exact total correctly, where adding in order loses copper.
+	 */
+	@Test
+	void sumMatchesBigDecimal()
+	{
+		double[] values = amounts();
+		BigDecimal exact = BigDecimal.ZERO;
+		CompensatedSum running = new CompensatedSum();
+		double naive = 0;
+		for(double value : values)
+		{
+			exact = exact.add(new BigDecimal(value));
+			running.add(value);
+			naive += value;
+		}
+		assertEquals(exact.doubleValue(), running.value(), 0);
+		assertTrue(Math.abs(naive - exact.doubleValue()) > 1e-5);
+	}
+
+	/**
+	 * The products are added with their own rounding error, so a dot product is as exact as a sum.
+	 */
+	@Test
+	void dotMatchesBigDecimal()
+	{
+		double[] values = amounts();
+		double[] chances = new double[COUNT];
+		BigDecimal exact = BigDecimal.ZERO;
+		CompensatedSum dot = new CompensatedSum();
+		SplittableRandom random = new SplittableRandom(2);
+		for(int i = 0; i < COUNT; i++)
+		{
+			chances[i] = random.nextDouble();
+			exact = exact.add(new BigDecimal(values[i]).multiply(new BigDecimal(chances[i])));
+			dot.addProduct(values[i], chances[i]);
+		}
+		assertEquals(exact.doubleValue(), dot.value(), Math.ulp(exact.doubleValue()));
+	}
+
+	/**
+	 * The running totals from the split pass match a single compensated running total taken in order,
+	 * and the zeroth power sum is the last of them.
+	 */
+	@Test
+	void powerSumsKeepRunningTotals()
+	{
+		double[] values = amounts();
+		double[] weights = new double[COUNT];
+		SplittableRandom random = new SplittableRandom(3);
+		for(int i = 0; i < COUNT; i++)
+		{
+			weights[i] = random.nextDouble();
+		}
+		double[] sums = new double[5];
+		double[] cumulative = new double[COUNT + 1];
+		Summation.powerSums(values, weights, COUNT, values[COUNT / 2], sums, cumulative);
+		CompensatedSum running = new CompensatedSum();
+		assertEquals(0, cumulative[0]);
+		for(int i = 0; i < COUNT; i++)
+		{
+			running.add(weights[i]);
+			assertEquals(running.value(), cumulative[i + 1], 4 * Math.ulp(running.value()), "total " + (i + 1));
+		}
+		assertEquals(running.value(), sums[0], 0);
+	}
+
+	/**
+	 * The mean of a distribution with millions of outcomes is the exact weighted sum.
+	 */
+	@Test
+	void distributionMeanMatchesBigDecimal()
+	{
+		double[] values = amounts();
+		double[] chances = new double[COUNT];
+		Arrays.fill(chances, 1.0 / COUNT);
+		DiscreteDistribution gold = DiscreteDistribution.fromArrays(values, chances);
+		BigDecimal exact = BigDecimal.ZERO;
+		for(int i = 0; i < gold.size(); i++)
+		{
+			exact = exact.add(new BigDecimal(gold.getValue(i)).multiply(new BigDecimal(gold.getChance(i))));
+		}
+		assertEquals(exact.doubleValue(), gold.expectedValue(), Math.ulp(exact.doubleValue()));
+	}
+}
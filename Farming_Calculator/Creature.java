@@ -1,18 +1,31 @@
 package dropRateCalculator;
 import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+
+import probability.Geometric;
+import supplementalMath.CompensatedSum;
 
 /**
  * Class representing a creature, with its possible drops, that appears in a World of Warcraft gold farming route.
  * @author Tim Schommer
  *
  */
-public class Creature 
+public class Creature extends DropHolder
 {
 	/**
 	 * The position of the creature in a list of creatures in the route, indexing starts at 1.
 	 */
 	private int position;
 	
+	/**
+	 * The ID of the creature, given by its route, which stays the same as other creatures are added and removed.
+	 * 0 if it is in no route.
+	 */
+	private int id;
+	
 	/**
 	 * The name of the creature.
 	 */
@@ -29,10 +42,64 @@ public class Creature
 	private int dropNum;
 	
 	/**
-	 * The list of the creature's possible drops.
+	 * The list of the creature's possible drops, in order. After a removal it is only rebuilt when next needed,
+	 * so that removing many drops one at a time does not shift and renumber the rest each time.
 	 */
 	private ArrayList<Drop> drops;
 	
+	/**
+	 * A read-only view of the list of drops, handed out so that drops can only be added and removed 
+	 * through the creature, which keeps its running total and indexes up to date.
+	 */
+	private List<Drop> dropsView;
+	
+	/**
+	 * The creature's drops by ID, in the order they were added.
+	 */
+	private LinkedHashMap<Integer, Drop> dropsById;
+	
+	/**
+	 * The creature's drops by name. Names need not be unique, so each lists its drops in the order they were added.
+	 */
+	private HashMap<String, ArrayList<Drop>> dropsByName;
+	
+	/**
+	 * The position of each of the creature's drops by ID, so that a drop can be found or removed by position
+	 * without bringing the list of drops up to date.
+	 */
+	private PositionIndex positions;
+	
+	/**
+	 * The ID the next drop added will get.
+	 */
+	private int nextDropId;
+	
+	/**
+	 * Whether drops have been removed since the list of drops and their positions were last brought up to date.
+	 */
+	private boolean reorder;
+	
+	/**
+	 * The creature's loot pools, each giving at most one of its drops per kill.
+	 */
+	private ArrayList<LootPool> pools;
+	
+	/**
+	 * A read-only view of the list of loot pools.
+	 */
+	private List<LootPool> poolsView;
+	
+	/**
+	 * The running total of the average gold per kill from the creature's drops and pools, kept up to date 
+	 * as they are added, removed and changed.
+	 */
+	private CompensatedSum gold;
+	
+	/**
+	 * The route the creature appears in, told of every change to the creature's gold. Null if it is in none.
+	 */
+	private Route route;
+	
 	/**
 	 * Constructs a creature with the given list position, number in the route, and name.
 	 * @param pos
@@ -49,6 +116,15 @@ public class Creature
 		numInRoute = num;
 		name = givenName;
 		drops = new ArrayList<>();
+		dropsView = Collections.unmodifiableList(drops);
+		dropsById = new LinkedHashMap<>();
+		dropsByName = new HashMap<>();
+		positions = new PositionIndex();
+		nextDropId = 0;
+		reorder = false;
+		pools = new ArrayList<>();
+		poolsView = Collections.unmodifiableList(pools);
+		gold = new CompensatedSum();
 	}
 	
 	/**
@@ -65,6 +141,15 @@ public class Creature
 		numInRoute = num;
 		name = givenName;
 		drops = new ArrayList<>();
+		dropsView = Collections.unmodifiableList(drops);
+		dropsById = new LinkedHashMap<>();
+		dropsByName = new HashMap<>();
+		positions = new PositionIndex();
+		nextDropId = 0;
+		reorder = false;
+		pools = new ArrayList<>();
+		poolsView = Collections.unmodifiableList(pools);
+		gold = new CompensatedSum();
 	}
 	
 	/**
@@ -74,7 +159,12 @@ public class Creature
 	 */
 	public void setName(String givenName)
 	{
+		String oldName = name;
 		name = givenName;
+		if(route != null)
+		{
+			route.creatureRenamed(this, oldName);
+		}
 	}
 	
 	/**
@@ -98,14 +188,38 @@ public class Creature
 	}
 	
 	/**
-	 * Gets the position of the creature.
+	 * Gets the position of the creature, which changes as creatures before it are removed.
 	 * @return
 	 * 		The position of the creature.
 	 */
 	public int getPosition()
 	{
+		if(route != null)
+		{
+			route.updatePositions();
+		}
 		return position;
 	}
+	
+	/**
+	 * Gets the ID of the creature, which unlike its position stays the same as other creatures are added and removed.
+	 * @return
+	 * 		The ID of the creature, or 0 if it is in no route.
+	 */
+	public int getId()
+	{
+		return id;
+	}
+	
+	/**
+	 * Sets the ID of the creature.
+	 * @param creatId
+	 * 		The new ID, given by the creature's route.
+	 */
+	void setId(int creatId)
+	{
+		id = creatId;
+	}
         
 	/**
 	 * Gets the number of the creature that appear in the farming route.
@@ -124,22 +238,28 @@ public class Creature
      */
     public void setNumInRoute(int num)
     {
+    	double before = avgGldPerRoute();
     	numInRoute = num;
+    	changed(before);
     }
 	
     /**
      * Adds a drop to the creature with the given name, value, and drop chance.
      * @param givenName
-     * 		The name of the drop to be added.
+     * 		The name of the drop to be added, or null for a default name.
      * @param val
      * 		The value of the drop to be added.
      * @param percentage
      * 		The drop chance of the drop to be added.
+     * @return
+     * 		The new drop.
      */
-	public void addDrop(String givenName, double val, double percentage)
+	public Drop addDrop(String givenName, double val, double percentage)
 	{
-		dropNum += 1;
-		drops.add(new Drop(givenName, val, percentage, dropNum));
+		double before = avgGldPerRoute();
+		Drop drop = attach(givenName, val, percentage);
+		changed(before);
+		return drop;
 	}
 	
 	/**
@@ -150,42 +270,262 @@ public class Creature
      * 		The value of the drop to be added.
      * @param percentage
      * 		The drop chance of the drop to be added.
+     * @return
+     * 		The new drop.
      */
-	public void addDrop(double val, double percentage)
+	public Drop addDrop(double val, double percentage)
 	{
-		dropNum += 1;
-		String nm = "Drop_" + dropNum;
-		drops.add(new Drop(nm, val, percentage, dropNum));
+		return addDrop(null, val, percentage);
+	}
+	
+	/**
+	 * Adds a drop of a catalog item to the creature, with the item's name. The drop's value follows the item's price.
+	 * @param item
+	 * 		The item that drops.
+	 * @param percentage
+	 * 		The drop chance of the item.
+	 * @return
+	 * 		The new drop.
+	 */
+	public Drop addDrop(Item item, double percentage)
+	{
+		double before = avgGldPerRoute();
+		Drop drop = attach(item.getName(), item.getPrice(), percentage);
+		drop.linkItem(item);
+		changed(before);
+		return drop;
+	}
+	
+	/**
+	 * Adds drops of many catalog items to the creature at once. The creature's route is only told of the change once.
+	 * @param shared
+	 * 		The items that drop.
+	 * @param percentages
+	 * 		The drop chances of the items, in the same order.
+	 * @return
+	 * 		The new drops, in the same order.
+	 */
+	public Drop[] addDrops(Item[] shared, double[] percentages)
+	{
+		double before = avgGldPerRoute();
+		Drop[] added = new Drop[shared.length];
+		for(int index = 0; index < shared.length; index++)
+		{
+			added[index] = attach(shared[index].getName(), shared[index].getPrice(), percentages[index]);
+			added[index].linkItem(shared[index]);
+		}
+		changed(before);
+		return added;
+	}
+	
+	/**
+	 * Adds many drops to the creature at once, such as a loot table imported from a spreadsheet.
+	 * The creature's route is only told of the change once, after all of them are added.
+	 * @param names
+	 * 		The names of the drops to be added, or null to give them all default names. A null name also gets a default.
+	 * @param vals
+	 * 		The values of the drops to be added.
+	 * @param percentages
+	 * 		The drop chances of the drops to be added, in the same order as the values.
+	 * @return
+	 * 		The new drops, in the same order.
+	 */
+	public Drop[] addDrops(String[] names, double[] vals, double[] percentages)
+	{
+		double before = avgGldPerRoute();
+		Drop[] added = new Drop[vals.length];
+		for(int index = 0; index < vals.length; index++)
+		{
+			added[index] = attach(names == null ? null : names[index], vals[index], percentages[index]);
+		}
+		changed(before);
+		return added;
 	}
 	
 	/**
-	 * Remove the drop at the given position from the list of drops.
+	 * Remove the drop at the given position from the list of drops, in logarithmic time.
+	 * The drops after it are renumbered when next needed.
 	 * @param posit
 	 * 		The position (list index + 1) of the drop to be removed from the list.
 	 */
 	public void removeDrop(int posit)
 	{
-		drops.remove(posit - 1);
-		dropNum -= 1;
-		for(int index = 0; index < drops.size(); index++)
+		removeDropById(positions.idAt(posit));
+	}
+	
+	/**
+	 * Removes the drop with the given ID in constant time. The drops after it are renumbered when next needed.
+	 * @param dropId
+	 * 		The ID of the drop to be removed.
+	 * @return
+	 * 		Whether the creature had a drop with that ID.
+	 */
+	public boolean removeDropById(int dropId)
+	{
+		double before = avgGldPerRoute();
+		boolean removed = detach(dropId);
+		if(removed)
 		{
-			drops.get(index).setPosition(index + 1);
+			changed(before);
 		}
+		return removed;
 	}
 	
 	/**
-	 * Calculates the average amount of gold obtained from selling the creature's drops, per creature killed.
+	 * Removes many drops from the creature at once by ID. The creature's route is only told of the change once, 
+	 * and the remaining drops are renumbered once when next needed. IDs the creature does not have are skipped.
+	 * @param dropIds
+	 * 		The IDs of the drops to be removed.
 	 * @return
-	 * 		The average amount of gold obtained from selling the creature's drops, per creature killed.
+	 * 		The number of drops removed.
 	 */
-	public double avgGldPerKill()
+	public int removeDrops(int[] dropIds)
 	{
-		double total = 0;
-		for(Drop drop : drops)
+		double before = avgGldPerRoute();
+		int count = 0;
+		for(int dropId : dropIds)
+		{
+			if(detach(dropId))
+			{
+				count++;
+			}
+		}
+		if(count > 0)
 		{
-			total += drop.avgGldPerKill();
+			changed(before);
 		}
-		return total;
+		return count;
+	}
+	
+	/**
+	 * Gets the drop at the given position in logarithmic time, without bringing the list of drops up to date.
+	 * @param posit
+	 * 		The position of the drop, from 1 to the number of drops.
+	 * @return
+	 * 		The drop.
+	 * @throws IndexOutOfBoundsException
+	 * 		If the creature has no drop at that position.
+	 */
+	public Drop getDropAt(int posit)
+	{
+		return dropsById.get(positions.idAt(posit));
+	}
+	
+	/**
+	 * Returns the number of the creature's drops, not counting those in its loot pools, without bringing
+	 * the list of drops up to date.
+	 * @return
+	 * 		The number of drops.
+	 */
+	public int getDropCount()
+	{
+		return dropsById.size();
+	}
+	
+	/**
+	 * Gets the drop with the given ID in constant time.
+	 * @param dropId
+	 * 		The ID of the drop.
+	 * @return
+	 * 		The drop, or null if the creature has none with that ID.
+	 */
+	public Drop getDropById(int dropId)
+	{
+		return dropsById.get(dropId);
+	}
+	
+	/**
+	 * Finds a drop by name in constant time. If several drops share the name, the one added first is returned.
+	 * @param dropName
+	 * 		The name of the drop.
+	 * @return
+	 * 		The drop, or null if the creature has none with that name.
+	 */
+	public Drop findDrop(String dropName)
+	{
+		ArrayList<Drop> named = dropsByName.get(dropName);
+		return named == null ? null : named.get(0);
+	}
+	
+	/**
+	 * Finds all of the creature's drops with the given name.
+	 * @param dropName
+	 * 		The name of the drops.
+	 * @return
+	 * 		The drops with that name in the order they were added, which is empty if there are none.
+	 */
+	public ArrayList<Drop> findDrops(String dropName)
+	{
+		ArrayList<Drop> named = dropsByName.get(dropName);
+		return named == null ? new ArrayList<>() : new ArrayList<>(named);
+	}
+	
+	/**
+	 * Adds an empty loot pool to the creature with the given name. Drops added to the pool are mutually exclusive,
+	 * with at most one of them dropping per kill.
+	 * @param givenName
+	 * 		The name of the pool to be added.
+	 * @return
+	 * 		The new pool, to add drops to.
+	 */
+	public LootPool addLootPool(String givenName)
+	{
+		LootPool pool = new LootPool(pools.size() + 1, givenName);
+		pool.setCreature(this);
+		pools.add(pool);
+		changed(avgGldPerRoute());
+		return pool;
+	}
+	
+	/**
+	 * Adds an empty loot pool to the creature with a default name.
+	 * @return
+	 * 		The new pool, to add drops to.
+	 */
+	public LootPool addLootPool()
+	{
+		return addLootPool("Pool_" + (pools.size() + 1));
+	}
+	
+	/**
+	 * Remove the loot pool at the given position from the list of pools.
+	 * @param posit
+	 * 		The position (list index + 1) of the pool to be removed from the list.
+	 */
+	public void removeLootPool(int posit)
+	{
+		double before = avgGldPerRoute();
+		LootPool removed = pools.remove(posit - 1);
+		if(route != null)
+		{
+			for(Drop drop : removed.getDrops())
+			{
+				if(drop.getItem() == null)
+				{
+					route.plainDropRemoved(drop, drop.getName());
+				}
+			}
+		}
+		removed.setCreature(null);
+		removed.release();
+		gold.add(-removed.avgGldPerKill());
+		for(int index = 0; index < pools.size(); index++)
+		{
+			pools.get(index).setPosition(index + 1);
+		}
+		changed(before);
+	}
+	
+	/**
+	 * Returns the average amount of gold obtained from selling the creature's drops, per creature killed,
+	 * including the drops picked from its loot pools. The compensated total is kept up to date as the drops
+	 * and pools change, so it takes constant time however many drops the creature has.
+	 * @return
+	 * 		The average amount of gold obtained from selling the creature's drops, per creature killed.
+	 */
+	public double avgGldPerKill()
+	{
+		return gold.value();
 	}
 	
 	/**
@@ -200,12 +540,265 @@ public class Creature
 	}
 	
 	/**
-	 * Returns the list of the creature's drops.
+	 * Calculates, for every one of the creature's drops, the number of the creature a player would need to kill 
+	 * to have at least the given chance of getting that drop.
+	 * @param chance
+	 * 		The desired chance of having gotten each drop, from 0 to 1.
+	 * @return
+	 * 		The number of kills needed for each drop, in the same order as the list of drops.
+	 */
+	public double[] killsTillDrops(double chance)
+	{
+		List<Drop> ordered = getDrops();
+		double[] rates = new double[ordered.size()];
+		for(int index = 0; index < rates.length; index++)
+		{
+			rates[index] = ordered.get(index).getRate();
+		}
+		double[] kills = new double[rates.length];
+		Geometric.quantiles(rates, chance, kills);
+		return kills;
+	}
+	
+	/**
+	 * Calculates, for every one of the creature's drops, the number of the creature a player would need to kill 
+	 * to have at least the given chance of getting the given number of copies of that drop.
+	 * @param count
+	 * 		The number of copies of each drop wanted.
+	 * @param chance
+	 * 		The desired chance of having gotten count copies of each drop, from 0 to 1.
 	 * @return
-	 * 		The list of the creature's drops.
+	 * 		The number of kills needed for each drop, in the same order as the list of drops.
 	 */
-	public ArrayList<Drop> getDrops()
+	public double[] killsTillDrops(int count, double chance)
+	{
+		List<Drop> ordered = getDrops();
+		double[] kills = new double[ordered.size()];
+		for(int index = 0; index < kills.length; index++)
+		{
+			kills[index] = ordered.get(index).killsTillDrops(count, chance);
+		}
+		return kills;
+	}
+	
+	/**
+	 * Gets the route the creature appears in.
+	 * @return
+	 * 		The route, or null if the creature is in none.
+	 */
+	@Override
+	public Route getRoute()
+	{
+		return route;
+	}
+	
+	/**
+	 * Stops all of the creature's drops, including those in its loot pools, following the prices of their catalog items,
+	 * once the creature is removed from its route.
+	 */
+	void release()
+	{
+		for(Drop drop : dropsById.values())
+		{
+			drop.unlinkItem();
+		}
+		for(LootPool pool : pools)
+		{
+			pool.release();
+		}
+	}
+	
+	/**
+	 * Sets the route the creature appears in, which keeps a running total of the gold from its creatures.
+	 * @param owner
+	 * 		The new route, or null once the creature is removed.
+	 */
+	void setRoute(Route owner)
+	{
+		route = owner;
+	}
+	
+	@Override
+	void dropRenamed(Drop drop, String oldName)
+	{
+		unindex(drop, oldName);
+		index(drop);
+	}
+	
+	@Override
+	void updatePositions()
+	{
+		if(reorder)
+		{
+			reorder = false;
+			drops.clear();
+			int place = 0;
+			for(Drop drop : dropsById.values())
+			{
+				place += 1;
+				drop.setPosition(place);
+				drops.add(drop);
+			}
+		}
+	}
+	
+	@Override
+	void dropChanged(Drop drop, double oldValue, double oldRate)
+	{
+		double before = avgGldPerRoute();
+		gold.addProduct(-oldValue, oldRate);
+		gold.addProduct(drop.getVal(), drop.getRate());
+		changed(before);
+	}
+	
+	/**
+	 * Updates the running total for a change to one of the creature's loot pools.
+	 * @param pool
+	 * 		The pool that changed.
+	 * @param oldGold
+	 * 		The average gold per kill from the pool before the change.
+	 */
+	void poolChanged(LootPool pool, double oldGold)
+	{
+		double before = avgGldPerRoute();
+		gold.add(-oldGold);
+		gold.add(pool.avgGldPerKill());
+		changed(before);
+	}
+	
+	/**
+	 * Adds a new drop to the creature, its indexes, and its running total, without telling the route.
+	 * @param givenName
+	 * 		The name of the drop, or null for a default name.
+	 * @param val
+	 * 		The value of the drop.
+	 * @param percentage
+	 * 		The drop chance of the drop.
+	 * @return
+	 * 		The new drop.
+	 */
+	private Drop attach(String givenName, double val, double percentage)
+	{
+		dropNum += 1;
+		nextDropId += 1;
+		String nm = givenName == null ? "Drop_" + dropNum : givenName;
+		Drop drop = new Drop(nm, val, percentage, dropNum);
+		drop.setId(nextDropId);
+		drop.setHolder(this);
+		dropsById.put(nextDropId, drop);
+		positions.add(nextDropId);
+		index(drop);
+		if(!reorder)
+		{
+			drops.add(drop);
+		}
+		gold.addProduct(val, percentage);
+		return drop;
+	}
+	
+	/**
+	 * Removes a drop from the creature, its indexes, and its running total, without telling the route.
+	 * @param dropId
+	 * 		The ID of the drop.
+	 * @return
+	 * 		Whether the creature had a drop with that ID.
+	 */
+	private boolean detach(int dropId)
+	{
+		Drop removed = dropsById.remove(dropId);
+		if(removed == null)
+		{
+			return false;
+		}
+		positions.remove(dropId);
+		removed.setHolder(null);
+		removed.setId(0);
+		removed.unlinkItem();
+		unindex(removed, removed.getName());
+		dropNum -= 1;
+		reorder = true;
+		gold.addProduct(-removed.getVal(), removed.getRate());
+		return true;
+	}
+	
+	/**
+	 * Adds a drop to the index of drops by name.
+	 * @param drop
+	 * 		The drop.
+	 */
+	private void index(Drop drop)
+	{
+		dropsByName.computeIfAbsent(drop.getName(), key -> new ArrayList<>()).add(drop);
+	}
+	
+	/**
+	 * Takes a drop out of the index of drops by name.
+	 * @param drop
+	 * 		The drop.
+	 * @param dropName
+	 * 		The name the drop was indexed under.
+	 */
+	private void unindex(Drop drop, String dropName)
+	{
+		ArrayList<Drop> named = dropsByName.get(dropName);
+		named.remove(drop);
+		if(named.isEmpty())
+		{
+			dropsByName.remove(dropName);
+		}
+	}
+	
+	/**
+	 * Tells the creature's route that the creature's gold may have changed. With no drops or pools left the total
+	 * is reset to exactly 0, and if it has stopped being finite, such as after an infinite value, it is first recounted,
+	 * since taking an infinite amount away again would leave it undefined.
+	 * @param before
+	 * 		The average gold per repetition of the route from the creature before the change.
+	 */
+	private void changed(double before)
+	{
+		if(dropsById.isEmpty() && pools.isEmpty())
+		{
+			gold.clear();
+		}
+		else if(!Double.isFinite(gold.value()))
+		{
+			gold.clear();
+			for(Drop drop : dropsById.values())
+			{
+				gold.addProduct(drop.getVal(), drop.getRate());
+			}
+			for(LootPool pool : pools)
+			{
+				gold.add(pool.avgGldPerKill());
+			}
+		}
+		if(route != null)
+		{
+			route.creatureChanged(this, before);
+		}
+	}
+	
+	/**
+	 * Returns the list of the creature's drops, in order. The list can not be changed, since drops must be added 
+	 * and removed through the creature for its running total and indexes to stay up to date.
+	 * @return
+	 * 		A read-only view of the list of the creature's drops.
+	 */
+	public List<Drop> getDrops()
     {
-        return drops;
+        updatePositions();
+        return dropsView;
     }
+	
+	/**
+	 * Returns the list of the creature's loot pools. The list can not be changed, since pools must be added 
+	 * and removed through the creature for its running total to stay up to date.
+	 * @return
+	 * 		A read-only view of the list of the creature's loot pools.
+	 */
+	public List<LootPool> getLootPools()
+	{
+		return poolsView;
+	}
 }
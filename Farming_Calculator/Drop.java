@@ -1,7 +1,6 @@
 package dropRateCalculator;
 import probability.Geometric;
-import probability.Binomial;
-import probability.DiscreteDistribution;
+import probability.NegativeBinomial;
 
 /**
  * Class representing a possible item dropped from an enemy during World of Warcraft gold farming.
@@ -16,6 +15,12 @@ public class Drop
 	 */
 	private int position;
 	
+	/**
+	 * The ID of the drop, given by the creature or loot pool holding it, which stays the same as other drops 
+	 * are added and removed. 0 if it is not held.
+	 */
+	private int id;
+	
 	/**
 	 * The name of the drop.
 	 */
@@ -31,6 +36,22 @@ public class Drop
 	 */
 	private double value;
 	
+	/**
+	 * The creature or loot pool holding the drop, told of every change to its value or chance. Null if it is not held.
+	 */
+	private DropHolder holder;
+	
+	/**
+	 * The catalog item the drop is, whose price is the drop's value. Null if the drop has its own value.
+	 */
+	private Item item;
+	
+	/**
+	 * The distribution of the number of kills till the drop, kept from the last call to killDistribution
+	 * until the drop chance changes. Null if it has not been asked for since.
+	 */
+	private Geometric kills;
+	
 	/**
 	 * Constructs a Drop with a name, value, drop chance, and position.
 	 * @param givenName
@@ -74,7 +95,18 @@ public class Drop
 	 */
 	public void setName(String givenName)
 	{
+		String oldName = name;
 		name = givenName;
+		if(holder != null)
+		{
+			holder.dropRenamed(this, oldName);
+			Route route = holder.getRoute();
+			if(item == null && route != null)
+			{
+				route.plainDropRemoved(this, oldName);
+				route.plainDropAdded(this);
+			}
+		}
 	}
 	
 	/**
@@ -98,15 +130,39 @@ public class Drop
 	}
 	
 	/**
-	 * Gets the position of the drop.
+	 * Gets the position of the drop, which changes as drops before it are removed.
 	 * @return
 	 * 		The position of the drop.
 	 */
 	public int getPosition()
 	{
+		if(holder != null)
+		{
+			holder.updatePositions();
+		}
 		return position;
 	}
 	
+	/**
+	 * Gets the ID of the drop, which unlike its position stays the same as other drops are added and removed.
+	 * @return
+	 * 		The ID of the drop, or 0 if it is not held by a creature or loot pool.
+	 */
+	public int getId()
+	{
+		return id;
+	}
+	
+	/**
+	 * Sets the ID of the drop.
+	 * @param dropId
+	 * 		The new ID, given by the holder of the drop.
+	 */
+	void setId(int dropId)
+	{
+		id = dropId;
+	}
+	
 	/**
 	 * Sets the drop chance of the item.
 	 * @param percent
@@ -114,7 +170,13 @@ public class Drop
 	 */
 	public void setRate(double percent)
 	{
+		double oldRate = rate;
 		rate = percent;
+		kills = null;
+		if(holder != null)
+		{
+			holder.dropChanged(this, value, oldRate);
+		}
 	}
 	
 	/**
@@ -128,13 +190,14 @@ public class Drop
 	}
 	
 	/**
-	 * Sets the gold value of the drop.
+	 * Sets the gold value of the drop. A drop given its own value no longer follows the price of its catalog item.
 	 * @param val
 	 * 		The new gold value of the drop.
 	 */
 	public void setValue(double val)
 	{
-		value = val;
+		unlinkItem();
+		changeValue(val);
 	}
 	
 	/**
@@ -147,16 +210,132 @@ public class Drop
 		return value;
 	}
 	
+	/**
+	 * Gets the catalog item the drop is.
+	 * @return
+	 * 		The item whose price is the drop's value, or null if the drop has its own value.
+	 */
+	public Item getItem()
+	{
+		return item;
+	}
+	
+	/**
+	 * Links the drop to a catalog item, which updates the drop's value whenever its price changes.
+	 * The drop leaves its route's index of drops without a catalog item.
+	 * @param shared
+	 * 		The item.
+	 */
+	void linkItem(Item shared)
+	{
+		if(item != null)
+		{
+			item.unlink(this);
+		}
+		else if(getRoute() != null)
+		{
+			getRoute().plainDropRemoved(this, name);
+		}
+		item = shared;
+		shared.link(this);
+	}
+	
+	/**
+	 * Stops the drop following the price of its catalog item, if it has one. The drop keeps its current value,
+	 * and joins its route's index of drops without a catalog item.
+	 */
+	void unlinkItem()
+	{
+		if(item != null)
+		{
+			item.unlink(this);
+			item = null;
+			if(getRoute() != null)
+			{
+				getRoute().plainDropAdded(this);
+			}
+		}
+	}
+	
+	/**
+	 * Sets the value of the drop to the new price of its catalog item.
+	 * @param price
+	 * 		The new price of the item.
+	 */
+	void priceChanged(double price)
+	{
+		changeValue(price);
+	}
+	
+	/**
+	 * Gets the route the drop is in, through the creature or loot pool holding it.
+	 * @return
+	 * 		The route, or null if the drop is not in one.
+	 */
+	Route getRoute()
+	{
+		return holder == null ? null : holder.getRoute();
+	}
+	
+	/**
+	 * Sets the creature or loot pool holding the drop, which keeps running totals over its drops. A drop without
+	 * a catalog item moves between the routes' indexes of such drops with its holder.
+	 * @param owner
+	 * 		The new holder, or null once the drop is removed.
+	 */
+	void setHolder(DropHolder owner)
+	{
+		if(item == null && getRoute() != null)
+		{
+			getRoute().plainDropRemoved(this, name);
+		}
+		holder = owner;
+		if(item == null && getRoute() != null)
+		{
+			getRoute().plainDropAdded(this);
+		}
+	}
+	
+	/**
+	 * Returns the distribution of the number of creatures a player would need to kill to get the drop.
+	 * The drop keeps the distribution until its chance changes, so it is not allocated on each call
+	 * however many different chances the route has.
+	 * @return
+	 * 		The geometric distribution at the stored drop rate.
+	 */
+	public Geometric killDistribution()
+	{
+		if(kills == null)
+		{
+			kills = new Geometric(rate);
+		}
+		return kills;
+	}
+	
+	/**
+	 * Changes the value of the drop and tells its holder.
+	 * @param val
+	 * 		The new gold value of the drop.
+	 */
+	private void changeValue(double val)
+	{
+		double oldValue = value;
+		value = val;
+		if(holder != null)
+		{
+			holder.dropChanged(this, oldValue, rate);
+		}
+	}
+	
 	/**
 	 * Calculates the average number of creatures a player would need to kill before they get a drop, 
-	 * at the stored drop rate.
+	 * at the stored drop rate. This is the mean of the geometric distribution, 1 / rate.
 	 * @return
 	 * 		The average number of creatures to kill in order to get the item to drop.
 	 */
 	public double avgKillsTillDrop()
 	{
-		Geometric geo = new Geometric(rate);
-		return geo.expectedValue();
+		return 1.0 / rate;
 	}
 	
 	/**
@@ -186,17 +365,156 @@ public class Drop
 		return avgRepsTillDrop(creatPerRoute) * time;
 	}
 	
+	/**
+	 * Calculates the number of creatures a player would need to kill to have at least the given chance of getting the drop,
+	 * at the stored drop rate.
+	 * @param chance
+	 * 		The desired chance of having gotten the drop, from 0 to 1. For instance 0.95 for a 95% chance.
+	 * @return
+	 * 		The number of creatures to kill for the given chance of getting the item to drop.
+	 */
+	public double killsTillDrop(double chance)
+	{
+		return Geometric.quantile(rate, chance);
+	}
+	
+	/**
+	 * Calculates the number of times a player would need to complete a farming route to have at least 
+	 * the given chance of getting the drop.
+	 * @param chance
+	 * 		The desired chance of having gotten the drop, from 0 to 1.
+	 * @param creatPerRoute
+	 * 		The number of the creatures which drop the item that appear in the farming route.
+	 * @return
+	 * 		The number of times to complete the farming route for the given chance of getting the item to drop.
+	 */
+	public double repsTillDrop(double chance, int creatPerRoute)
+	{
+		return Math.ceil(killsTillDrop(chance) / creatPerRoute);
+	}
+	
+	/**
+	 * Calculates the amount of time a player would need to spend farming to have at least the given chance 
+	 * of getting the drop.
+	 * @param chance
+	 * 		The desired chance of having gotten the drop, from 0 to 1.
+	 * @param time
+	 * 		The amount of time each repetition of the route takes.
+	 * @param creatPerRoute
+	 * 		The number of the creatures which drop the item that appear in the farming route.
+	 * @return
+	 * 		The amount of time to spend farming for the given chance of getting the item to drop.
+	 */
+	public double timeTillDrop(double chance, double time, int creatPerRoute)
+	{
+		return repsTillDrop(chance, creatPerRoute) * time;
+	}
+	
+	/**
+	 * Calculates the average number of creatures a player would need to kill before the item has dropped 
+	 * the given number of times, such as the copies needed for a crafting order.
+	 * @param count
+	 * 		The number of copies of the item wanted.
+	 * @return
+	 * 		The average number of creatures to kill in order to get count copies of the item.
+	 */
+	public double avgKillsTillDrops(int count)
+	{
+		return count / rate;
+	}
+	
+	/**
+	 * Calculates the average number of times a player would need to complete a farming route 
+	 * before the item has dropped the given number of times.
+	 * @param count
+	 * 		The number of copies of the item wanted.
+	 * @param creatPerRoute
+	 * 		The number of the creatures which drop the item that appear in the farming route.
+	 * @return
+	 * 		The average number of times to complete the farming route in order to get count copies of the item.
+	 */
+	public double avgRepsTillDrops(int count, int creatPerRoute)
+	{
+		return avgKillsTillDrops(count) / creatPerRoute;
+	}
+	
+	/**
+	 * Calculates the average amount of time a player will need to spend farming before the item has dropped 
+	 * the given number of times.
+	 * @param count
+	 * 		The number of copies of the item wanted.
+	 * @param time
+	 * 		The amount of time each repetition of the route takes.
+	 * @param creatPerRoute
+	 * 		The number of the creatures which drop the item that appear in the farming route.
+	 * @return
+	 * 		The average amount of time to spend farming in order to get count copies of the item.
+	 */
+	public double timeTillDrops(int count, double time, int creatPerRoute)
+	{
+		return avgRepsTillDrops(count, creatPerRoute) * time;
+	}
+	
+	/**
+	 * Calculates the number of creatures a player would need to kill to have at least the given chance 
+	 * of the item having dropped the given number of times.
+	 * @param count
+	 * 		The number of copies of the item wanted, at least 1.
+	 * @param chance
+	 * 		The desired chance of having gotten count copies, from 0 to 1.
+	 * @return
+	 * 		The number of creatures to kill for the given chance of getting count copies of the item.
+	 */
+	public double killsTillDrops(int count, double chance)
+	{
+		return NegativeBinomial.quantile(count, rate, chance);
+	}
+	
+	/**
+	 * Calculates the number of times a player would need to complete a farming route to have at least 
+	 * the given chance of the item having dropped the given number of times.
+	 * @param count
+	 * 		The number of copies of the item wanted.
+	 * @param chance
+	 * 		The desired chance of having gotten count copies, from 0 to 1.
+	 * @param creatPerRoute
+	 * 		The number of the creatures which drop the item that appear in the farming route.
+	 * @return
+	 * 		The number of times to complete the farming route for the given chance of getting count copies of the item.
+	 */
+	public double repsTillDrops(int count, double chance, int creatPerRoute)
+	{
+		return Math.ceil(killsTillDrops(count, chance) / creatPerRoute);
+	}
+	
+	/**
+	 * Calculates the amount of time a player would need to spend farming to have at least the given chance 
+	 * of the item having dropped the given number of times.
+	 * @param count
+	 * 		The number of copies of the item wanted.
+	 * @param chance
+	 * 		The desired chance of having gotten count copies, from 0 to 1.
+	 * @param time
+	 * 		The amount of time each repetition of the route takes.
+	 * @param creatPerRoute
+	 * 		The number of the creatures which drop the item that appear in the farming route.
+	 * @return
+	 * 		The amount of time to spend farming for the given chance of getting count copies of the item.
+	 */
+	public double timeTillDrops(int count, double chance, double time, int creatPerRoute)
+	{
+		return repsTillDrops(count, chance, creatPerRoute) * time;
+	}
+	
 	/**
 	 * Calculates the average amount of gold obtained per creature killed, from selling this drop.
+	 * The drop is worth its value with its drop chance and nothing otherwise, so the average is value * rate.
 	 * @return
 	 * 		The average amount of gold obtained per creature killed, from selling this drop.
 	 */
 	public double avgGldPerKill()
 	{
-		DiscreteDistribution disc = new DiscreteDistribution();
-		disc.addOutcome(0, 1 - rate);
-		disc.addOutcome(value, rate);
-		return disc.expectedValue();
+		return value * rate;
 	}
 	
 	/**
@@ -208,8 +526,7 @@ public class Drop
 	 */
 	public double avgDropsInNTrials(int trials)
 	{
-		Binomial bin = new Binomial(trials, rate);
-		return bin.expectedValue();
+		return trials * rate;
 	}
 	
 	/**
@@ -0,0 +1,41 @@
+package dropRateCalculator;
+
+/**
+ * Something that holds drops and keeps running totals over them, such as a creature or a loot pool.
+ * A drop tells its holder whenever its value or chance changes, so the totals can be updated in constant time.
+ * The methods are package-private, so that only the drops themselves can report changes to the totals.
+ */
+abstract class DropHolder
+{
+	/**
+	 * Updates the totals for a change to one of the held drops. The drop already has its new value and chance.
+	 * @param drop
+	 * 		The drop that changed.
+	 * @param oldValue
+	 * 		The gold value of the drop before the change.
+	 * @param oldRate
+	 * 		The drop chance of the drop before the change.
+	 */
+	abstract void dropChanged(Drop drop, double oldValue, double oldRate);
+	
+	/**
+	 * Updates any index of the drops by name for a change to one of the held drops' names.
+	 * @param drop
+	 * 		The drop that was renamed, which already has its new name.
+	 * @param oldName
+	 * 		The name of the drop before the change.
+	 */
+	abstract void dropRenamed(Drop drop, String oldName);
+	
+	/**
+	 * Brings the positions of the held drops up to date, if any have been removed since they were last numbered.
+	 */
+	abstract void updatePositions();
+	
+	/**
+	 * Gets the route the held drops are in.
+	 * @return
+	 * 		The route, or null if the holder is not in one.
+	 */
+	abstract Route getRoute();
+}
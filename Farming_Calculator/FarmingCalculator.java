@@ -1313,7 +1313,7 @@ public class FarmingCalculator extends javax.swing.JFrame {
         {
         	//Get and validate the creature ID number, displaying an appropriate error message if invalid
         	int id = Integer.parseInt(IDNoField.getText());
-        	if(!((0 < id) && (id <= route.getCreatures().size())))
+        	if(!((0 < id) && (id <= route.getCreatureCount())))
 			{
 				JOptionPane.showMessageDialog(this, "Enter a valid creature ID number.");
 			}
@@ -1329,13 +1329,13 @@ public class FarmingCalculator extends javax.swing.JFrame {
             		//change the creature's values
             		if(creatureNameField2.getText().equals(""))
             		{
-            			route.getCreatures().get(id - 1).setName("Creature_" + id);
-            			route.getCreatures().get(id - 1).setNumInRoute(Integer.parseInt(numberInRouteField2.getText()));
+            			route.getCreatureAt(id).setName("Creature_" + id);
+            			route.getCreatureAt(id).setNumInRoute(Integer.parseInt(numberInRouteField2.getText()));
             		}
             		else
             		{
-            			route.getCreatures().get(id - 1).setName(creatureNameField2.getText());
-            			route.getCreatures().get(id - 1).setNumInRoute(Integer.parseInt(numberInRouteField2.getText()));
+            			route.getCreatureAt(id).setName(creatureNameField2.getText());
+            			route.getCreatureAt(id).setNumInRoute(Integer.parseInt(numberInRouteField2.getText()));
             		}
             		
             		//Rebuild and set the input tree model
@@ -1364,7 +1364,7 @@ public class FarmingCalculator extends javax.swing.JFrame {
         try
         {
         	//Bound check the creature ID field
-        	if(Integer.parseInt(creatureIDNoField2.getText()) > 0 && Integer.parseInt(creatureIDNoField2.getText()) <= route.getCreatures().size())
+        	if(Integer.parseInt(creatureIDNoField2.getText()) > 0 && Integer.parseInt(creatureIDNoField2.getText()) <= route.getCreatureCount())
         	{
         		//remove the creature from the route and update the input display tree
         		route.removeCreature(Integer.parseInt(creatureIDNoField2.getText()));
@@ -1386,7 +1386,7 @@ public class FarmingCalculator extends javax.swing.JFrame {
         		//the drops tab is disabled, 
         		//the creature tab's edit creature and remove creature sub-tabs are disabled,
         		//and the creature tab is moved to its add creature sub-tab
-        		if(route.getCreatures().size() == 0)
+        		if(route.getCreatureCount() == 0)
         		{
         			infoPane.setEnabledAt(2, false);
         			creatureInfoPane.setSelectedIndex(0);
@@ -1415,7 +1415,7 @@ public class FarmingCalculator extends javax.swing.JFrame {
         try
         {
         	//Bounds check the creature ID number and the value and drop rate fields.
-        	if(0 < Integer.parseInt(creatureIDNoField3.getText()) && Integer.parseInt(creatureIDNoField3.getText()) <= route.getCreatures().size()
+        	if(0 < Integer.parseInt(creatureIDNoField3.getText()) && Integer.parseInt(creatureIDNoField3.getText()) <= route.getCreatureCount()
         			&& 0 <= Double.parseDouble(valueField.getText()) 
         			&& 0 < Double.parseDouble(dropRateField.getText()) && Double.parseDouble(dropRateField.getText()) <= 1)
         	{
@@ -1469,11 +1469,11 @@ public class FarmingCalculator extends javax.swing.JFrame {
         try
         {
         	//Bound check the creature ID number
-        	if(0 < Integer.parseInt(creatureIDNoField4.getText()) && Integer.parseInt(creatureIDNoField4.getText()) <= route.getCreatures().size())
+        	if(0 < Integer.parseInt(creatureIDNoField4.getText()) && Integer.parseInt(creatureIDNoField4.getText()) <= route.getCreatureCount())
         	{
         		//Bound check the drop ID number
         		if(0 < Integer.parseInt(dropIDNoField.getText()) 
-        				&& Integer.parseInt(dropIDNoField.getText()) <= route.getCreatures().get(Integer.parseInt(creatureIDNoField4.getText()) - 1).getDrops().size())
+        				&& Integer.parseInt(dropIDNoField.getText()) <= route.getCreatureAt(Integer.parseInt(creatureIDNoField4.getText())).getDropCount())
         		{
         			//Remove the drop, rebuild the input tree, and clear the text from the remove drop panel.
         			route.removeDrop(Integer.parseInt(creatureIDNoField4.getText()), Integer.parseInt(dropIDNoField.getText()));
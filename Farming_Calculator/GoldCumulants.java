@@ -0,0 +1,271 @@
+package dropRateCalculator;
+import probability.Normal;
+
+/**
+ * The first four cumulants of the gold obtained from a farming route, found analytically in one pass over the drops
+ * without building any distribution. Each drop contributes its value times a Binomial number of drops, whose cumulants
+ * are the number of kills times those of a single kill, and cumulants of independent amounts simply add.
+ * This gives the exact mean, variance, skewness and kurtosis, and a Cornish-Fisher estimate of any percentile,
+ * cheaply enough to rank very many candidate routes.
+ */
+public class GoldCumulants
+{
+	/**
+	 * The first cumulant, the mean.
+	 */
+	private double first;
+
+	/**
+	 * The second cumulant, the variance.
+	 */
+	private double second;
+
+	/**
+	 * The third cumulant, the third central moment.
+	 */
+	private double third;
+
+	/**
+	 * The fourth cumulant, the fourth central moment less three times the variance squared.
+	 */
+	private double fourth;
+
+	/**
+	 * Constructs the cumulants of no gold at all, ready for drops to be added.
+	 */
+	public GoldCumulants()
+	{
+		clear();
+	}
+
+	/**
+	 * Constructs the cumulants of the gold obtained from one repetition of the route.
+	 * @param route
+	 * 		The farming route.
+	 */
+	public GoldCumulants(Route route)
+	{
+		add(route);
+	}
+
+	/**
+	 * Resets to no gold at all, so that the same object can be reused for the next route.
+	 */
+	public void clear()
+	{
+		first = 0;
+		second = 0;
+		third = 0;
+		fourth = 0;
+	}
+
+	/**
+	 * Adds the gold from one repetition of every creature in the route.
+	 * @param route
+	 * 		The farming route.
+	 */
+	public void add(Route route)
+	{
+		for(Creature creat : route.getCreatures())
+		{
+			add(creat);
+		}
+	}
+
+	/**
+	 * Adds the gold from every one of the creature that appears in one repetition of the route,
+	 * from both its independent drops and its loot pools.
+	 * @param creat
+	 * 		The creature.
+	 */
+	public void add(Creature creat)
+	{
+		int kills = creat.getNumInRoute();
+		for(Drop drop : creat.getDrops())
+		{
+			add(drop.getVal(), drop.getRate(), kills);
+		}
+		for(LootPool pool : creat.getLootPools())
+		{
+			add(pool, kills);
+		}
+	}
+
+	/**
+	 * Adds the gold from a loot pool over the given number of kills. The raw moments of one roll of the pool are
+	 * summed over its drops, with nothing adding 0, and then turned into cumulants.
+	 * @param pool
+	 * 		The loot pool.
+	 * @param kills
+	 * 		The number of kills of the creature that has the pool.
+	 */
+	public void add(LootPool pool, double kills)
+	{
+		double scale = pool.chanceScale();
+		double m1 = 0;
+		double m2 = 0;
+		double m3 = 0;
+		double m4 = 0;
+		for(Drop drop : pool.getDrops())
+		{
+			double value = drop.getVal();
+			double power = Math.max(drop.getRate(), 0) * scale * value;
+			m1 += power;
+			power *= value;
+			m2 += power;
+			power *= value;
+			m3 += power;
+			m4 += power * value;
+		}
+		double mean2 = m1 * m1;
+		first += kills * m1;
+		second += kills * (m2 - mean2);
+		third += kills * (m3 - 3 * m2 * m1 + 2 * mean2 * m1);
+		fourth += kills * (m4 - 4 * m3 * m1 - 3 * m2 * m2 + 12 * m2 * mean2 - 6 * mean2 * mean2);
+	}
+
+	/**
+	 * Adds the gold from a drop over the given number of kills. On one kill the drop is worth value with chance p,
+	 * whose cumulants are v p, v^2 p q, v^3 p q (1 - 2p) and v^4 p q (1 - 6 p q), where q = 1 - p.
+	 * @param value
+	 * 		The gold value of the drop.
+	 * @param rate
+	 * 		The drop chance.
+	 * @param kills
+	 * 		The number of kills of the creature that drops it.
+	 */
+	public void add(double value, double rate, double kills)
+	{
+		double spread = rate * (1 - rate);
+		double power = kills * value;
+		first += power * rate;
+		power *= value;
+		second += power * spread;
+		power *= value;
+		third += power * spread * (1 - 2 * rate);
+		power *= value;
+		fourth += power * spread * (1 - 6 * spread);
+	}
+
+	/**
+	 * Returns the cumulants of the gold from the given number of independent repetitions,
+	 * each cumulant being multiplied by the number of repetitions.
+	 * @param repetitions
+	 * 		The number of times the route is completed.
+	 * @return
+	 * 		The cumulants of the gold over all of the repetitions.
+	 */
+	public GoldCumulants repeat(double repetitions)
+	{
+		GoldCumulants repeated = new GoldCumulants();
+		repeated.first = first * repetitions;
+		repeated.second = second * repetitions;
+		repeated.third = third * repetitions;
+		repeated.fourth = fourth * repetitions;
+		return repeated;
+	}
+
+	/**
+	 * Returns the cumulants of the gold from the number of repetitions that fit in a timeframe,
+	 * such as the gold made in an hour of farming.
+	 * @param time
+	 * 		The amount of time each repetition of the route takes.
+	 * @param timeFrame
+	 * 		The amount of time spent farming.
+	 * @return
+	 * 		The cumulants of the gold made in the timeframe.
+	 */
+	public GoldCumulants perTime(double time, double timeFrame)
+	{
+		return repeat(timeFrame / time);
+	}
+
+	/**
+	 * Returns the average gold.
+	 * @return
+	 * 		The average gold.
+	 */
+	public double mean()
+	{
+		return first;
+	}
+
+	/**
+	 * Returns the variance of the gold.
+	 * @return
+	 * 		The variance of the gold.
+	 */
+	public double variance()
+	{
+		return second;
+	}
+
+	/**
+	 * Returns the standard deviation of the gold.
+	 * @return
+	 * 		The standard deviation of the gold.
+	 */
+	public double standardDeviation()
+	{
+		return Math.sqrt(second);
+	}
+
+	/**
+	 * Returns the skewness of the gold, positive when there is a long tail of high amounts such as a rare valuable drop.
+	 * @return
+	 * 		The skewness of the gold, 0 if it has no variance.
+	 */
+	public double skewness()
+	{
+		return second > 0 ? third / (second * Math.sqrt(second)) : 0;
+	}
+
+	/**
+	 * Returns the excess kurtosis of the gold, how heavy its tails are compared to a normal distribution.
+	 * @return
+	 * 		The excess kurtosis of the gold, 0 if it has no variance.
+	 */
+	public double kurtosis()
+	{
+		return second > 0 ? fourth / (second * second) : 0;
+	}
+
+	/**
+	 * Estimates the amount of gold that the given fraction of outcomes fall at or below, with the Cornish-Fisher
+	 * expansion to the fourth cumulant, which corrects the normal quantile for skewness and kurtosis.
+	 * The estimate is good while the skewness is moderate, such as over many repetitions or kills, but becomes
+	 * unreliable for a single kill of a creature whose value comes mostly from a very rare drop.
+	 * @param fraction
+	 * 		The fraction of outcomes, from 0 to 1. For instance 0.05 for the amount made in all but the unluckiest 5%.
+	 * @return
+	 * 		The estimated gold at that percentile.
+	 */
+	public double percentile(double fraction)
+	{
+		if(second <= 0)
+		{
+			return first;
+		}
+		double z = Normal.standardQuantile(fraction);
+		double skew = skewness();
+		double kurt = kurtosis();
+		double z2 = z * z;
+		double w = z + (z2 - 1) * skew / 6 + z * (z2 - 3) * kurt / 24 - z * (2 * z2 - 5) * skew * skew / 36;
+		return first + Math.sqrt(second) * w;
+	}
+
+	/**
+	 * Estimates the gold at each of the given percentiles, filling the output array.
+	 * @param fractions
+	 * 		The fractions of outcomes, from 0 to 1.
+	 * @param out
+	 * 		Where the estimated gold amounts are written, at least as long as fractions.
+	 */
+	public void percentiles(double[] fractions, double[] out)
+	{
+		for(int i = 0; i < fractions.length; i++)
+		{
+			out[i] = percentile(fractions[i]);
+		}
+	}
+}
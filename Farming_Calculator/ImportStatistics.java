@@ -0,0 +1,228 @@
+package dropRateCalculator;
+import java.util.LinkedHashSet;
+
+/**
+ * The outcome of a PriceImporter run: how many rows were read and what became of them, the routes whose gold changed,
+ * and how long the import took.
+ * Every row read is exactly one of updated, unchanged, unknown, malformed or superseded.
+ */
+public class ImportStatistics
+{
+	/**
+	 * The number of rows, or JSON entries, read.
+	 */
+	private long rowsRead;
+
+	/**
+	 * The number of items whose price changed, in the catalog or on drops without a catalog item.
+	 */
+	private long itemsUpdated;
+
+	/**
+	 * The number of items given the price they already had.
+	 */
+	private long itemsUnchanged;
+
+	/**
+	 * The number of rows naming neither a catalog item nor a drop without one.
+	 */
+	private long unknownItems;
+
+	/**
+	 * The number of rows without a usable name and price.
+	 */
+	private long malformedRows;
+
+	/**
+	 * The number of rows replaced by a later row for the same item in the same batch.
+	 */
+	private long supersededRows;
+
+	/**
+	 * The number of batches of updates applied.
+	 */
+	private int batches;
+
+	/**
+	 * The routes containing an item whose price changed.
+	 */
+	private LinkedHashSet<Route> affectedRoutes;
+
+	/**
+	 * The wall clock time of the whole import, in nanoseconds.
+	 */
+	private long elapsedNanos;
+
+	/**
+	 * The part of the import spent applying the new prices to the catalog and routes, in nanoseconds.
+	 */
+	private long applyNanos;
+
+	/**
+	 * Constructs the statistics of a finished import.
+	 * @param rows
+	 * 		The number of rows read.
+	 * @param updated
+	 * 		The number of items whose price changed.
+	 * @param unchanged
+	 * 		The number of items given the price they already had.
+	 * @param unknown
+	 * 		The number of rows naming neither a catalog item nor a drop without one.
+	 * @param malformed
+	 * 		The number of rows without a usable name and price.
+	 * @param superseded
+	 * 		The number of rows replaced by a later row for the same item in the same batch.
+	 * @param batchCount
+	 * 		The number of batches applied.
+	 * @param routes
+	 * 		The routes whose gold changed.
+	 * @param nanos
+	 * 		The wall clock time of the whole import, in nanoseconds.
+	 * @param applying
+	 * 		The time spent applying the prices, in nanoseconds.
+	 */
+	ImportStatistics(long rows, long updated, long unchanged, long unknown, long malformed, long superseded,
+			int batchCount, LinkedHashSet<Route> routes, long nanos, long applying)
+	{
+		rowsRead = rows;
+		itemsUpdated = updated;
+		itemsUnchanged = unchanged;
+		unknownItems = unknown;
+		malformedRows = malformed;
+		supersededRows = superseded;
+		batches = batchCount;
+		affectedRoutes = routes;
+		elapsedNanos = nanos;
+		applyNanos = applying;
+	}
+
+	/**
+	 * Returns the number of rows, or JSON entries, read.
+	 * @return
+	 * 		The number of rows read.
+	 */
+	public long getRowsRead()
+	{
+		return rowsRead;
+	}
+
+	/**
+	 * Returns the number of items whose price changed, in the catalog or on drops without a catalog item.
+	 * @return
+	 * 		The number of items updated.
+	 */
+	public long getItemsUpdated()
+	{
+		return itemsUpdated;
+	}
+
+	/**
+	 * Returns the number of items given the price they already had, which needed no update.
+	 * @return
+	 * 		The number of items unchanged.
+	 */
+	public long getItemsUnchanged()
+	{
+		return itemsUnchanged;
+	}
+
+	/**
+	 * Returns the number of rows naming neither a catalog item nor a drop without one, which were skipped.
+	 * @return
+	 * 		The number of unknown items.
+	 */
+	public long getUnknownItems()
+	{
+		return unknownItems;
+	}
+
+	/**
+	 * Returns the number of rows without a usable name and price, such as a missing or negative price, which were skipped.
+	 * @return
+	 * 		The number of malformed rows.
+	 */
+	public long getMalformedRows()
+	{
+		return malformedRows;
+	}
+
+	/**
+	 * Returns the number of rows replaced by a later row for the same item in the same batch, which were never applied.
+	 * @return
+	 * 		The number of superseded rows.
+	 */
+	public long getSupersededRows()
+	{
+		return supersededRows;
+	}
+
+	/**
+	 * Returns the number of batches of updates applied.
+	 * @return
+	 * 		The number of batches.
+	 */
+	public int getBatches()
+	{
+		return batches;
+	}
+
+	/**
+	 * Returns the routes containing an item whose price changed. Their running totals are already up to date,
+	 * so this is the set of routes whose displayed gold needs refreshing.
+	 * @return
+	 * 		The affected routes.
+	 */
+	public LinkedHashSet<Route> getAffectedRoutes()
+	{
+		return affectedRoutes;
+	}
+
+	/**
+	 * Returns the wall clock time the whole import took, in seconds.
+	 * @return
+	 * 		The time the import took, in seconds.
+	 */
+	public double getElapsedSeconds()
+	{
+		return elapsedNanos / 1e9;
+	}
+
+	/**
+	 * Returns the time spent applying the new prices to the catalog and the affected routes, in seconds.
+	 * @return
+	 * 		The time spent applying prices, in seconds.
+	 */
+	public double getApplySeconds()
+	{
+		return applyNanos / 1e9;
+	}
+
+	/**
+	 * Returns the time spent reading and parsing the input, in seconds.
+	 * @return
+	 * 		The time spent parsing, in seconds.
+	 */
+	public double getParseSeconds()
+	{
+		return (elapsedNanos - applyNanos) / 1e9;
+	}
+
+	/**
+	 * Returns the import throughput.
+	 * @return
+	 * 		The number of rows read per second.
+	 */
+	public double rowsPerSecond()
+	{
+		return elapsedNanos == 0 ? 0 : rowsRead / getElapsedSeconds();
+	}
+
+	@Override
+	public String toString()
+	{
+		return String.format("%,d rows in %.3f s (%.3f s parsing, %.3f s applying, %d batches): %,d updated, "
+				+ "%,d unchanged, %,d unknown, %,d malformed, %,d superseded; %,d routes affected",
+				rowsRead, getElapsedSeconds(), getParseSeconds(), getApplySeconds(), batches, itemsUpdated,
+				itemsUnchanged, unknownItems, malformedRows, supersededRows, affectedRoutes.size());
+	}
+}
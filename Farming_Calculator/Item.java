@@ -0,0 +1,134 @@
+package dropRateCalculator;
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+
+/**
+ * Class representing an item in an ItemCatalog, such as a cloth or an enchanting material, that drops from many creatures.
+ * Drops added from the item share its price, and the item keeps track of them, so a single price change updates
+ * every drop of it and only the routes containing it.
+ */
+public class Item
+{
+	/**
+	 * The name of the item.
+	 */
+	private String name;
+
+	/**
+	 * The price the item sells for.
+	 */
+	private double price;
+
+	/**
+	 * The drops of the item, in the order they were added.
+	 */
+	private LinkedHashSet<Drop> drops;
+
+	/**
+	 * Constructs an item with no drops. Items are made by their catalog.
+	 * @param givenName
+	 * 		The name of the item.
+	 * @param val
+	 * 		The price the item sells for.
+	 */
+	Item(String givenName, double val)
+	{
+		name = givenName;
+		price = val;
+		drops = new LinkedHashSet<>();
+	}
+
+	/**
+	 * Gets the name of the item.
+	 * @return
+	 * 		The name of the item.
+	 */
+	public String getName()
+	{
+		return name;
+	}
+
+	/**
+	 * Gets the price the item sells for.
+	 * @return
+	 * 		The price of the item.
+	 */
+	public double getPrice()
+	{
+		return price;
+	}
+
+	/**
+	 * Sets the price the item sells for, and the value of every drop of it. Each drop updates the running totals
+	 * of its creature and route in constant time, so the work is in proportion to the number of drops of the item
+	 * rather than the size of the routes.
+	 * @param val
+	 * 		The new price of the item.
+	 * @return
+	 * 		The routes containing the item, whose gold has changed.
+	 */
+	public LinkedHashSet<Route> setPrice(double val)
+	{
+		price = val;
+		LinkedHashSet<Route> affected = new LinkedHashSet<>();
+		for(Drop drop : drops)
+		{
+			drop.priceChanged(val);
+			Route route = drop.getRoute();
+			if(route != null)
+			{
+				affected.add(route);
+			}
+		}
+		return affected;
+	}
+
+	/**
+	 * Returns the drops of the item.
+	 * @return
+	 * 		A list of the drops of the item, in the order they were added.
+	 */
+	public ArrayList<Drop> getDrops()
+	{
+		return new ArrayList<>(drops);
+	}
+
+	/**
+	 * Returns the routes the item drops in.
+	 * @return
+	 * 		The routes containing a drop of the item.
+	 */
+	public LinkedHashSet<Route> getRoutes()
+	{
+		LinkedHashSet<Route> routes = new LinkedHashSet<>();
+		for(Drop drop : drops)
+		{
+			Route route = drop.getRoute();
+			if(route != null)
+			{
+				routes.add(route);
+			}
+		}
+		return routes;
+	}
+
+	/**
+	 * Adds a drop to those following the item's price.
+	 * @param drop
+	 * 		The drop.
+	 */
+	void link(Drop drop)
+	{
+		drops.add(drop);
+	}
+
+	/**
+	 * Removes a drop from those following the item's price.
+	 * @param drop
+	 * 		The drop.
+	 */
+	void unlink(Drop drop)
+	{
+		drops.remove(drop);
+	}
+}
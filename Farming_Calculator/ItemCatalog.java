@@ -0,0 +1,112 @@
+package dropRateCalculator;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+
+/**
+ * A catalog of the items that drop in a set of farming routes, each with one shared price.
+ * Adding a drop from a catalog item, rather than by name and value, makes the drop follow the item's price,
+ * so when prices change only the routes containing the changed items are updated.
+ */
+public class ItemCatalog
+{
+	/**
+	 * The items in the catalog by name.
+	 */
+	private HashMap<String, Item> items;
+
+	/**
+	 * Constructs an empty catalog.
+	 */
+	public ItemCatalog()
+	{
+		items = new HashMap<>();
+	}
+
+	/**
+	 * Adds a new item to the catalog.
+	 * @param name
+	 * 		The name of the item.
+	 * @param price
+	 * 		The price the item sells for.
+	 * @return
+	 * 		The new item, to add drops from.
+	 */
+	public Item addItem(String name, double price)
+	{
+		if(items.containsKey(name))
+		{
+			throw new IllegalArgumentException("The catalog already has an item named " + name);
+		}
+		Item item = new Item(name, price);
+		items.put(name, item);
+		return item;
+	}
+
+	/**
+	 * Gets the item with the given name.
+	 * @param name
+	 * 		The name of the item.
+	 * @return
+	 * 		The item, or null if the catalog has none with that name.
+	 */
+	public Item getItem(String name)
+	{
+		return items.get(name);
+	}
+
+	/**
+	 * Gets the item with the given name, adding it at the given price if the catalog does not have it yet.
+	 * An item already in the catalog keeps its price.
+	 * @param name
+	 * 		The name of the item.
+	 * @param price
+	 * 		The price to give the item if it is new.
+	 * @return
+	 * 		The item.
+	 */
+	public Item getOrAddItem(String name, double price)
+	{
+		Item item = items.get(name);
+		return item == null ? addItem(name, price) : item;
+	}
+
+	/**
+	 * Sets the price of the item with the given name, and the value of every drop of it.
+	 * @param name
+	 * 		The name of the item.
+	 * @param price
+	 * 		The new price of the item.
+	 * @return
+	 * 		The routes containing the item, whose gold has changed.
+	 */
+	public LinkedHashSet<Route> setPrice(String name, double price)
+	{
+		Item item = items.get(name);
+		if(item == null)
+		{
+			throw new IllegalArgumentException("The catalog has no item named " + name);
+		}
+		return item.setPrice(price);
+	}
+
+	/**
+	 * Returns the number of items in the catalog.
+	 * @return
+	 * 		The number of items.
+	 */
+	public int size()
+	{
+		return items.size();
+	}
+
+	/**
+	 * Returns the items in the catalog.
+	 * @return
+	 * 		A list of the items, in no particular order.
+	 */
+	public ArrayList<Item> getItems()
+	{
+		return new ArrayList<>(items.values());
+	}
+}
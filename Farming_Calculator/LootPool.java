@@ -0,0 +1,390 @@
+package dropRateCalculator;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import probability.AliasSampler;
+import probability.DiscreteDistribution;
+import probability.DiscreteDistributionBuilder;
+import supplementalMath.CompensatedSum;
+
+/**
+ * Class representing a loot table from which a creature drops exactly one of several items, or nothing, per kill.
+ * Unlike a creature's own drops, which each roll independently, the drops in a pool are mutually exclusive:
+ * each drop's rate is its chance of being the one picked, and whatever chance is left over is the chance of nothing.
+ */
+public class LootPool extends DropHolder
+{
+	/**
+	 * The position of the pool in the creature's list of pools, indexing starts at 1.
+	 */
+	private int position;
+
+	/**
+	 * The name of the pool.
+	 */
+	private String name;
+
+	/**
+	 * The number of drops in the pool.
+	 */
+	private int dropNum;
+
+	/**
+	 * The list of the drops that can be picked from the pool.
+	 */
+	private ArrayList<Drop> drops;
+
+	/**
+	 * A read-only view of the list of drops, handed out so that drops can only be added and removed through the pool,
+	 * which keeps its running totals up to date.
+	 */
+	private List<Drop> dropsView;
+
+	/**
+	 * The running total of the drops' chances, kept up to date as drops are added, removed and changed.
+	 */
+	private CompensatedSum chanceTotal;
+
+	/**
+	 * The running total of each drop's value times its chance, before the chances are scaled to share the pool.
+	 */
+	private CompensatedSum goldTotal;
+
+	/**
+	 * The creature the pool belongs to, told of every change to the pool's gold. Null if it belongs to none.
+	 */
+	private Creature creature;
+
+	/**
+	 * The ID the next drop added to the pool will get.
+	 */
+	private int nextDropId;
+
+	/**
+	 * Constructs an empty loot pool with the given list position and name.
+	 * @param pos
+	 * 		Position of the pool in the list.
+	 * @param givenName
+	 * 		The name of the pool.
+	 */
+	public LootPool(int pos, String givenName)
+	{
+		dropNum = 0;
+		nextDropId = 0;
+		position = pos;
+		name = givenName;
+		drops = new ArrayList<>();
+		dropsView = Collections.unmodifiableList(drops);
+		chanceTotal = new CompensatedSum();
+		goldTotal = new CompensatedSum();
+	}
+
+	/**
+	 * Sets the name of the pool.
+	 * @param givenName
+	 * 		The name to change the pool name to.
+	 */
+	public void setName(String givenName)
+	{
+		name = givenName;
+	}
+
+	/**
+	 * Gets the name of the pool.
+	 * @return
+	 * 		The name of the pool.
+	 */
+	public String getName()
+	{
+		return name;
+	}
+
+	/**
+	 * Sets the position of the pool.
+	 * @param place
+	 * 		The new position to give the pool.
+	 */
+	public void setPosition(int place)
+	{
+		position = place;
+	}
+
+	/**
+	 * Gets the position of the pool.
+	 * @return
+	 * 		The position of the pool.
+	 */
+	public int getPosition()
+	{
+		return position;
+	}
+
+	/**
+	 * Adds a drop to the pool with the given name, value, and chance of being the one picked.
+	 * @param givenName
+	 * 		The name of the drop to be added.
+	 * @param val
+	 * 		The value of the drop to be added.
+	 * @param percentage
+	 * 		The chance of the drop being the one picked from the pool.
+	 */
+	public void addDrop(String givenName, double val, double percentage)
+	{
+		dropNum += 1;
+		attach(new Drop(givenName, val, percentage, dropNum));
+	}
+
+	/**
+	 * Adds a drop to the pool with the given value and chance of being the one picked, and a default name.
+	 * @param val
+	 * 		The value of the drop to be added.
+	 * @param percentage
+	 * 		The chance of the drop being the one picked from the pool.
+	 */
+	public void addDrop(double val, double percentage)
+	{
+		dropNum += 1;
+		String nm = "Drop_" + dropNum;
+		attach(new Drop(nm, val, percentage, dropNum));
+	}
+
+	/**
+	 * Adds a drop of a catalog item to the pool, with the item's name. The drop's value follows the item's price.
+	 * @param item
+	 * 		The item that drops.
+	 * @param percentage
+	 * 		The chance of the item being the one picked from the pool.
+	 * @return
+	 * 		The new drop.
+	 */
+	public Drop addDrop(Item item, double percentage)
+	{
+		dropNum += 1;
+		Drop drop = new Drop(item.getName(), item.getPrice(), percentage, dropNum);
+		attach(drop);
+		drop.linkItem(item);
+		return drop;
+	}
+
+	/**
+	 * Remove the drop at the given position from the pool.
+	 * @param posit
+	 * 		The position (list index + 1) of the drop to be removed from the pool.
+	 */
+	public void removeDrop(int posit)
+	{
+		double before = avgGldPerKill();
+		Drop removed = drops.remove(posit - 1);
+		removed.setHolder(null);
+		removed.setId(0);
+		removed.unlinkItem();
+		dropNum -= 1;
+		if(drops.isEmpty())
+		{
+			chanceTotal.clear();
+			goldTotal.clear();
+		}
+		else
+		{
+			update(removed.getVal(), removed.getRate(), -1);
+		}
+		for(int index = 0; index < drops.size(); index++)
+		{
+			drops.get(index).setPosition(index + 1);
+		}
+		changed(before);
+	}
+
+	/**
+	 * Calculates the chance of the pool giving nothing on a kill. If the drops' chances add up to more than 1
+	 * they are scaled down to share the whole of the pool, and the chance of nothing is 0.
+	 * @return
+	 * 		The chance of no drop being picked from the pool.
+	 */
+	public double nothingChance()
+	{
+		return Math.max(0, 1 - totalChance());
+	}
+
+	/**
+	 * Returns the average amount of gold obtained from the pool per creature killed, which is kept up to date
+	 * as the drops change, so it takes constant time however many drops the pool holds.
+	 * @return
+	 * 		The average amount of gold obtained from the pool per creature killed.
+	 */
+	public double avgGldPerKill()
+	{
+		return goldTotal.value() * chanceScale();
+	}
+
+	/**
+	 * Calculates the probability distribution of the gold obtained from the pool on a single kill,
+	 * with nothing counted as 0 gold.
+	 * @return
+	 * 		The distribution of the gold obtained from the pool per kill.
+	 */
+	public DiscreteDistribution gldDistribution()
+	{
+		DiscreteDistributionBuilder builder = new DiscreteDistributionBuilder(drops.size() + 1);
+		builder.add(0, nothingChance());
+		for(Drop drop : drops)
+		{
+			builder.add(drop.getVal(), Math.max(drop.getRate(), 0));
+		}
+		return builder.build();
+	}
+
+	/**
+	 * Constructs an alias table sampler for the gold obtained from the pool on a kill,
+	 * which picks the drop in constant time however many drops the pool holds.
+	 * The sampler is a snapshot, so later changes to the pool do not affect it.
+	 * @return
+	 * 		A sampler for the gold obtained from the pool per kill.
+	 */
+	public AliasSampler sampler()
+	{
+		return new AliasSampler(gldDistribution());
+	}
+
+	/**
+	 * Returns the list of the drops in the pool. The list can not be changed, since drops must be added and removed
+	 * through the pool for its running totals to stay up to date.
+	 * @return
+	 * 		A read-only view of the list of the drops in the pool.
+	 */
+	public List<Drop> getDrops()
+	{
+		return dropsView;
+	}
+
+	/**
+	 * Returns the factor the drops' chances are multiplied by, which scales them down to add up to 1
+	 * if they add up to more.
+	 * @return
+	 * 		The factor applied to every drop's chance, at most 1.
+	 */
+	double chanceScale()
+	{
+		return 1 / Math.max(1, totalChance());
+	}
+
+	/**
+	 * Sets the creature the pool belongs to, which keeps a running total of the gold from its pools.
+	 * @param owner
+	 * 		The new creature, or null once the pool is removed.
+	 */
+	void setCreature(Creature owner)
+	{
+		creature = owner;
+	}
+
+	@Override
+	void dropChanged(Drop drop, double oldValue, double oldRate)
+	{
+		double before = avgGldPerKill();
+		update(oldValue, oldRate, -1);
+		update(drop.getVal(), drop.getRate(), 1);
+		changed(before);
+	}
+
+	/**
+	 * Gets the route the pool's creature appears in.
+	 * @return
+	 * 		The route, or null if the pool's creature is in none.
+	 */
+	@Override
+	public Route getRoute()
+	{
+		return creature == null ? null : creature.getRoute();
+	}
+
+	/**
+	 * Stops all of the pool's drops following the prices of their catalog items.
+	 */
+	void release()
+	{
+		for(Drop drop : drops)
+		{
+			drop.unlinkItem();
+		}
+	}
+
+	@Override
+	void dropRenamed(Drop drop, String oldName)
+	{
+		//Pools are small enough to search, so the drops are not indexed by name.
+	}
+
+	@Override
+	void updatePositions()
+	{
+		//Drops are renumbered as soon as one is removed from a pool, so the positions are always up to date.
+	}
+
+	/**
+	 * Returns the total of the drops' chances, before any scaling.
+	 * @return
+	 * 		The chance of some drop being picked, before any scaling.
+	 */
+	private double totalChance()
+	{
+		return chanceTotal.value();
+	}
+
+	/**
+	 * Adds a new drop to the pool and to its running totals.
+	 * @param drop
+	 * 		The drop to add.
+	 */
+	private void attach(Drop drop)
+	{
+		double before = avgGldPerKill();
+		nextDropId += 1;
+		drop.setId(nextDropId);
+		drop.setHolder(this);
+		drops.add(drop);
+		update(drop.getVal(), drop.getRate(), 1);
+		changed(before);
+	}
+
+	/**
+	 * Adds one drop's share to the running totals, or takes it away. Negative chances count as 0.
+	 * @param val
+	 * 		The value of the drop.
+	 * @param percentage
+	 * 		The chance of the drop.
+	 * @param sign
+	 * 		1 to add the share, or -1 to take it away.
+	 */
+	private void update(double val, double percentage, double sign)
+	{
+		double chance = Math.max(percentage, 0);
+		chanceTotal.add(sign * chance);
+		goldTotal.addProduct(sign * val, chance);
+	}
+
+	/**
+	 * Tells the pool's creature that the pool's gold may have changed. If the totals have stopped being finite,
+	 * such as after an infinite value, they are first recounted from the drops, since taking an infinite share
+	 * away again would leave them undefined.
+	 * @param before
+	 * 		The average gold per kill from the pool before the change.
+	 */
+	private void changed(double before)
+	{
+		if(!Double.isFinite(goldTotal.value()) || !Double.isFinite(chanceTotal.value()))
+		{
+			chanceTotal.clear();
+			goldTotal.clear();
+			for(Drop drop : drops)
+			{
+				update(drop.getVal(), drop.getRate(), 1);
+			}
+		}
+		if(creature != null)
+		{
+			creature.poolChanged(this, before);
+		}
+	}
+}
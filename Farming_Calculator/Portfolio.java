@@ -0,0 +1,199 @@
+package dropRateCalculator;
+import probability.DiscreteDistribution;
+import probability.HistogramDistribution;
+import supplementalMath.CompensatedSum;
+
+/**
+ * The combined gold from a set of farming routes, each run some number of times, such as a day or week of farming.
+ * Routes are added one at a time and folded into a running histogram by convolution, so only the combined distribution
+ * is ever held and its size stays within a fixed number of bins however many routes are added.
+ * The average and variance are added up separately from each route's own, which are exact for independent routes,
+ * so rounding the distributions to bins never shifts them.
+ */
+public class Portfolio
+{
+	/**
+	 * The distribution of the gold from every route added so far.
+	 */
+	private HistogramDistribution combined;
+
+	/**
+	 * The starting bin width of the histograms.
+	 */
+	private double binWidth;
+
+	/**
+	 * The most bins any histogram may hold.
+	 */
+	private int maxBins;
+
+	/**
+	 * The number of routes added.
+	 */
+	private int routeCount;
+
+	/**
+	 * The total of the average gold of every route added.
+	 */
+	private CompensatedSum mean;
+
+	/**
+	 * The total of the variance of the gold of every route added.
+	 */
+	private CompensatedSum variance;
+
+	/**
+	 * Constructs an empty portfolio with one copper bins and the default bin limit of a RouteDistribution.
+	 */
+	public Portfolio()
+	{
+		this(RouteDistribution.COPPER, RouteDistribution.DEFAULT_MAX_BINS);
+	}
+
+	/**
+	 * Constructs an empty portfolio.
+	 * @param width
+	 * 		The starting bin width in gold, which doubles as needed to keep within the bin limit.
+	 * @param binLimit
+	 * 		The most bins the combined distribution may hold.
+	 */
+	public Portfolio(double width, int binLimit)
+	{
+		binWidth = width;
+		maxBins = binLimit;
+		combined = new HistogramDistribution(width, binLimit);
+		combined.add(0, 1);
+		routeCount = 0;
+		mean = new CompensatedSum();
+		variance = new CompensatedSum();
+	}
+
+	/**
+	 * Adds a route that is run the given number of times. The gold over all of the runs is computed for the route
+	 * directly, which is more accurate than combining single runs, and its average and variance are taken
+	 * from the route's drops.
+	 * @param route
+	 * 		The farming route.
+	 * @param runs
+	 * 		The number of times the route is run.
+	 */
+	public void add(Route route, int runs)
+	{
+		if(runs <= 0)
+		{
+			return;
+		}
+		fold(HistogramDistribution.fromDistribution(route.gldDistribution(runs), binWidth, maxBins),
+				route.avgGldPerRoute() * runs, route.gldCumulants().variance() * runs);
+	}
+
+	/**
+	 * Adds the gold distribution of a route that is run the given number of times, given the gold from a single run.
+	 * The runs are combined by repeated squaring.
+	 * @param perRun
+	 * 		The distribution of the gold from one run of the route.
+	 * @param runs
+	 * 		The number of times the route is run.
+	 */
+	public void add(DiscreteDistribution perRun, int runs)
+	{
+		if(runs <= 0)
+		{
+			return;
+		}
+		fold(HistogramDistribution.fromDistribution(perRun, binWidth, maxBins).power(runs),
+				perRun.expectedValue() * runs, perRun.variance() * runs);
+	}
+
+	/**
+	 * Adds the gold distribution of one whole session of a route.
+	 * @param session
+	 * 		The distribution of the gold from the route's session.
+	 */
+	public void add(DiscreteDistribution session)
+	{
+		fold(HistogramDistribution.fromDistribution(session, binWidth, maxBins), session.expectedValue(), session.variance());
+	}
+
+	/**
+	 * Returns the number of routes added.
+	 * @return
+	 * 		The number of routes added.
+	 */
+	public int getRouteCount()
+	{
+		return routeCount;
+	}
+
+	/**
+	 * Returns the distribution of the combined gold from every route added.
+	 * @return
+	 * 		The combined distribution.
+	 */
+	public HistogramDistribution getDistribution()
+	{
+		return combined;
+	}
+
+	/**
+	 * Returns the average combined gold.
+	 * @return
+	 * 		The average combined gold.
+	 */
+	public double expectedValue()
+	{
+		return mean.value();
+	}
+
+	/**
+	 * Returns the standard deviation of the combined gold.
+	 * @return
+	 * 		The standard deviation of the combined gold.
+	 */
+	public double standardDeviation()
+	{
+		return Math.sqrt(Math.max(variance.value(), 0));
+	}
+
+	/**
+	 * Calculates the combined gold that the given fraction of outcomes fall at or below.
+	 * The fraction 0.05 gives the amount that 95% of days or weeks make at least.
+	 * @param fraction
+	 * 		The fraction of outcomes, from 0 to 1.
+	 * @return
+	 * 		The combined gold at that percentile.
+	 */
+	public double percentile(double fraction)
+	{
+		return combined.quantile(fraction);
+	}
+
+	/**
+	 * Calculates the chance of the combined gold reaching at least the given amount.
+	 * @param gold
+	 * 		The amount of gold.
+	 * @return
+	 * 		The chance of making at least that much.
+	 */
+	public double chanceOfAtLeast(double gold)
+	{
+		return combined.greaterOrEqual(gold);
+	}
+
+	/**
+	 * Convolves a route's histogram into the combined distribution, and adds its average and variance to the totals.
+	 * @param route
+	 * 		The histogram of the route's gold.
+	 * @param routeMean
+	 * 		The average gold of the route.
+	 * @param routeVariance
+	 * 		The variance of the gold of the route.
+	 */
+	private void fold(HistogramDistribution route, double routeMean, double routeVariance)
+	{
+		combined = combined.convolve(route);
+		mean.add(routeMean);
+		variance.add(routeVariance);
+		routeCount++;
+	}
+}
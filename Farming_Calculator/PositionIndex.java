@@ -0,0 +1,130 @@
+package dropRateCalculator;
+import java.util.Arrays;
+
+/**
+ * Finds the ID at a position in a list of IDs that are added in increasing order and removed from anywhere,
+ * such as a route's creatures or a creature's drops, without renumbering the list after each removal.
+ * A Fenwick tree counts the IDs still present up to each ID, so finding the ID at a position, finding the position
+ * of an ID and removing an ID each take logarithmic time, and adding an ID takes amortized constant time.
+ */
+class PositionIndex
+{
+	/**
+	 * The Fenwick tree. counts[i] holds the number of IDs present from i - lowestOneBit(i) + 1 to i.
+	 * Entry 0 is unused, and the length less 1 is a power of 2.
+	 */
+	private int[] counts;
+
+	/**
+	 * The number of IDs present.
+	 */
+	private int size;
+
+	/**
+	 * Constructs an empty index.
+	 */
+	PositionIndex()
+	{
+		counts = new int[17];
+	}
+
+	/**
+	 * Adds an ID at the end of the list.
+	 * @param id
+	 * 		The ID, at least 1 and greater than every ID added before.
+	 */
+	void add(int id)
+	{
+		while(id >= counts.length)
+		{
+			//The new upper half of the tree covers no IDs yet, except its last entry, which covers all of them.
+			int capacity = counts.length - 1;
+			counts = Arrays.copyOf(counts, 2 * capacity + 1);
+			counts[2 * capacity] = size;
+		}
+		update(id, 1);
+		size++;
+	}
+
+	/**
+	 * Removes an ID from the list. The IDs after it move up one position.
+	 * @param id
+	 * 		The ID, which must be present.
+	 */
+	void remove(int id)
+	{
+		update(id, -1);
+		size--;
+	}
+
+	/**
+	 * Finds the ID at the given position.
+	 * @param position
+	 * 		The position, from 1 to the number of IDs present.
+	 * @return
+	 * 		The ID at that position.
+	 * @throws IndexOutOfBoundsException
+	 * 		If there is no ID at that position.
+	 */
+	int idAt(int position)
+	{
+		if(position < 1 || position > size)
+		{
+			throw new IndexOutOfBoundsException("Position " + position + " out of bounds for length " + size);
+		}
+		int remaining = position;
+		int found = 0;
+		for(int step = Integer.highestOneBit(counts.length - 1); step > 0; step >>= 1)
+		{
+			int next = found + step;
+			if(next < counts.length && counts[next] < remaining)
+			{
+				found = next;
+				remaining -= counts[next];
+			}
+		}
+		return found + 1;
+	}
+
+	/**
+	 * Finds the position of an ID.
+	 * @param id
+	 * 		The ID, which must be present.
+	 * @return
+	 * 		The position of the ID, from 1.
+	 */
+	int positionOf(int id)
+	{
+		int position = 0;
+		for(int index = id; index > 0; index -= index & -index)
+		{
+			position += counts[index];
+		}
+		return position;
+	}
+
+	/**
+	 * Returns the number of IDs present.
+	 * @return
+	 * 		The number of IDs.
+	 */
+	int size()
+	{
+		return size;
+	}
+
+	/**
+	 * Adds to the count of an ID and of every range of the tree that covers it.
+	 * @param id
+	 * 		The ID.
+	 * @param change
+	 * 		1 to add the ID, or -1 to remove it.
+	 */
+	private void update(int id, int change)
+	{
+		for(int index = id; index < counts.length; index += index & -index)
+		{
+			counts[index] += change;
+		}
+	}
+}
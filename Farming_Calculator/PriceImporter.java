@@ -0,0 +1,969 @@
+package dropRateCalculator;
+import java.io.IOException;
+import java.io.Reader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Reads auction house price snapshots into an ItemCatalog. The input is read a block at a time and each row
+ * is applied as it is parsed, so a dump of hundreds of thousands of items is never held in memory at once.
+ * Prices are gathered into batches, keeping only the last price of an item within a batch, and each batch is applied
+ * through the catalog, which updates the running gold totals of only the routes containing the changed items.
+ * <p>
+ * CSV input has one item per row. If the first row names a name column (name, item or itemname) and a price column
+ * (price, value, marketvalue, buyout or minbuyout) those columns are used, and otherwise the name is the first column
+ * and the price the second. Fields may be quoted, with "" for a quote inside one.
+ * <p>
+ * JSON input is either an array of objects with a name and a price under the same keys as the CSV columns,
+ * or an object mapping each item name to its price, in which an array of such objects may also appear as a member.
+ * Other members are skipped.
+ * <p>
+ * A price updates the catalog item with its name. When the importer is given routes, it also sets the value of every
+ * drop in them that has the same name but no catalog item, in creatures and in loot pools alike. Drops linked to an item
+ * follow that item's price, so a price naming no catalog item never changes them. A name matching neither is unknown.
+ */
+public class PriceImporter
+{
+	/**
+	 * The number of distinct items gathered before they are applied, unless another batch size is given.
+	 */
+	public static final int DEFAULT_BATCH_SIZE = 4096;
+
+	/**
+	 * The number of characters read from the input at a time.
+	 */
+	private static final int BUFFER_SIZE = 1 << 16;
+
+	/**
+	 * The deepest nesting of JSON objects and arrays skipped over, so hostile input can not overflow the stack.
+	 */
+	private static final int MAX_DEPTH = 512;
+
+	/**
+	 * The column headers and JSON keys taken to hold the item name, in lower case.
+	 */
+	private static final String[] NAME_KEYS = {"name", "item", "itemname"};
+
+	/**
+	 * The column headers and JSON keys taken to hold the price, in lower case.
+	 */
+	private static final String[] PRICE_KEYS = {"price", "value", "marketvalue", "buyout", "minbuyout"};
+
+	/**
+	 * The catalog whose prices are updated.
+	 */
+	private ItemCatalog catalog;
+
+	/**
+	 * The routes whose drops without a catalog item are also updated by name.
+	 */
+	private Collection<Route> plainRoutes;
+
+	/**
+	 * The factor the prices read are multiplied by to give gold.
+	 */
+	private double priceScale;
+
+	/**
+	 * The number of distinct items gathered before they are applied.
+	 */
+	private int batchSize;
+
+	/**
+	 * Constructs an importer for prices given in gold, with the default batch size.
+	 * @param items
+	 * 		The catalog whose prices are updated.
+	 */
+	public PriceImporter(ItemCatalog items)
+	{
+		this(items, new ArrayList<>(), 1, DEFAULT_BATCH_SIZE);
+	}
+
+	/**
+	 * Constructs an importer that only updates catalog items.
+	 * @param items
+	 * 		The catalog whose prices are updated.
+	 * @param scale
+	 * 		The factor the prices read are multiplied by to give gold, such as 0.0001 for prices in copper.
+	 * @param batch
+	 * 		The number of distinct items gathered before they are applied.
+	 */
+	public PriceImporter(ItemCatalog items, double scale, int batch)
+	{
+		this(items, new ArrayList<>(), scale, batch);
+	}
+
+	/**
+	 * Constructs an importer for prices given in gold, with the default batch size, that also updates the drops
+	 * of the given routes that have no catalog item.
+	 * @param items
+	 * 		The catalog whose prices are updated.
+	 * @param routes
+	 * 		The routes whose drops without a catalog item are updated by name.
+	 */
+	public PriceImporter(ItemCatalog items, Collection<Route> routes)
+	{
+		this(items, routes, 1, DEFAULT_BATCH_SIZE);
+	}
+
+	/**
+	 * Constructs an importer that also updates the drops of the given routes that have no catalog item.
+	 * Each route keeps such drops indexed by name as they change, so an import only looks up the names it reads
+	 * and never walks the routes.
+	 * @param items
+	 * 		The catalog whose prices are updated.
+	 * @param routes
+	 * 		The routes whose drops without a catalog item are updated by name.
+	 * @param scale
+	 * 		The factor the prices read are multiplied by to give gold, such as 0.0001 for prices in copper.
+	 * @param batch
+	 * 		The number of distinct items gathered before they are applied.
+	 */
+	public PriceImporter(ItemCatalog items, Collection<Route> routes, double scale, int batch)
+	{
+		if(!(scale > 0) || Double.isInfinite(scale))
+		{
+			throw new IllegalArgumentException("The price scale must be a finite number above 0, got " + scale);
+		}
+		if(batch < 1)
+		{
+			throw new IllegalArgumentException("The batch size must be at least 1, got " + batch);
+		}
+		catalog = items;
+		plainRoutes = routes;
+		priceScale = scale;
+		batchSize = batch;
+	}
+
+	/**
+	 * Imports a UTF-8 price file, read as JSON if its name ends in .json and as CSV otherwise.
+	 * @param path
+	 * 		The file to import.
+	 * @return
+	 * 		The statistics of the import.
+	 * @throws IOException
+	 * 		If the file can not be read, or is not valid JSON.
+	 */
+	public ImportStatistics importFile(Path path) throws IOException
+	{
+		try(Reader in = Files.newBufferedReader(path, StandardCharsets.UTF_8))
+		{
+			if(path.toString().toLowerCase(Locale.ROOT).endsWith(".json"))
+			{
+				return importJson(in);
+			}
+			return importCsv(in);
+		}
+	}
+
+	/**
+	 * Imports prices in CSV form. Rows without a name and a price that is a number of at least 0 are counted
+	 * as malformed and skipped.
+	 * @param in
+	 * 		The CSV input, which is read to the end but not closed.
+	 * @return
+	 * 		The statistics of the import.
+	 * @throws IOException
+	 * 		If the input can not be read.
+	 */
+	public ImportStatistics importCsv(Reader in) throws IOException
+	{
+		Batch batch = new Batch();
+		Source source = new Source(in);
+		ArrayList<String> fields = new ArrayList<>();
+		int nameColumn = 0;
+		int priceColumn = 1;
+		boolean first = true;
+		while(source.readCsvRow(fields))
+		{
+			if(fields.size() == 1 && fields.get(0).isBlank())
+			{
+				continue;
+			}
+			if(first)
+			{
+				first = false;
+				int headerName = find(fields, NAME_KEYS);
+				int headerPrice = find(fields, PRICE_KEYS);
+				if(headerName >= 0 && headerPrice >= 0)
+				{
+					nameColumn = headerName;
+					priceColumn = headerPrice;
+					continue;
+				}
+			}
+			if(fields.size() <= Math.max(nameColumn, priceColumn))
+			{
+				batch.malformed();
+				continue;
+			}
+			batch.offer(fields.get(nameColumn).trim(), parsePrice(fields.get(priceColumn)));
+		}
+		return batch.finish();
+	}
+
+	/**
+	 * Imports prices in JSON form. Entries without a name and a price that is a number of at least 0 are counted
+	 * as malformed and skipped. Nothing but whitespace may follow the top level array or object.
+	 * @param in
+	 * 		The JSON input, which is read to the end but not closed.
+	 * @return
+	 * 		The statistics of the import.
+	 * @throws IOException
+	 * 		If the input can not be read, or is not valid JSON. Batches applied before the error are kept.
+	 */
+	public ImportStatistics importJson(Reader in) throws IOException
+	{
+		Batch batch = new Batch();
+		Source source = new Source(in);
+		int next = source.skipWhitespace();
+		if(next == '[')
+		{
+			readEntries(source, batch);
+		}
+		else if(next == '{')
+		{
+			readPriceMap(source, batch);
+		}
+		else
+		{
+			throw source.error("a JSON array or object");
+		}
+		if(source.skipWhitespace() != -1)
+		{
+			throw source.error("the end of the input");
+		}
+		return batch.finish();
+	}
+
+	/**
+	 * Reads a JSON array of price entries. Elements that are not objects are counted as malformed.
+	 * @param source
+	 * 		The input, at the opening bracket.
+	 * @param batch
+	 * 		The batch to add the prices to.
+	 * @throws IOException
+	 * 		If the input can not be read, or is not valid JSON.
+	 */
+	private void readEntries(Source source, Batch batch) throws IOException
+	{
+		source.expect('[');
+		if(source.skipWhitespace() == ']')
+		{
+			source.read();
+			return;
+		}
+		do
+		{
+			if(source.skipWhitespace() == '{')
+			{
+				readEntry(source, batch);
+			}
+			else
+			{
+				source.skipValue();
+				batch.malformed();
+			}
+		}
+		while(source.next(',', ']'));
+	}
+
+	/**
+	 * Reads one JSON price entry, an object with a name and a price among any other members.
+	 * @param source
+	 * 		The input, at the opening brace.
+	 * @param batch
+	 * 		The batch to add the price to.
+	 * @throws IOException
+	 * 		If the input can not be read, or is not valid JSON.
+	 */
+	private void readEntry(Source source, Batch batch) throws IOException
+	{
+		String name = null;
+		double price = Double.NaN;
+		source.expect('{');
+		if(source.skipWhitespace() == '}')
+		{
+			source.read();
+			batch.malformed();
+			return;
+		}
+		do
+		{
+			String key = source.readKey().toLowerCase(Locale.ROOT);
+			int next = source.skipWhitespace();
+			if(next == '"' && find(key, NAME_KEYS))
+			{
+				name = source.readString();
+			}
+			else if(isNumber(next) && find(key, PRICE_KEYS))
+			{
+				price = source.readNumber();
+			}
+			else
+			{
+				source.skipValue();
+			}
+		}
+		while(source.next(',', '}'));
+		batch.offer(name, price);
+	}
+
+	/**
+	 * Reads a JSON object mapping item names to prices. Members that are arrays are read as arrays of price entries,
+	 * and any other members are skipped.
+	 * @param source
+	 * 		The input, at the opening brace.
+	 * @param batch
+	 * 		The batch to add the prices to.
+	 * @throws IOException
+	 * 		If the input can not be read, or is not valid JSON.
+	 */
+	private void readPriceMap(Source source, Batch batch) throws IOException
+	{
+		source.expect('{');
+		if(source.skipWhitespace() == '}')
+		{
+			source.read();
+			return;
+		}
+		do
+		{
+			String key = source.readKey();
+			int next = source.skipWhitespace();
+			if(isNumber(next))
+			{
+				batch.offer(key, source.readNumber());
+			}
+			else if(next == '[')
+			{
+				readEntries(source, batch);
+			}
+			else
+			{
+				source.skipValue();
+			}
+		}
+		while(source.next(',', '}'));
+	}
+
+	/**
+	 * Parses a price field, which may have spaces around it.
+	 * @param field
+	 * 		The text of the field.
+	 * @return
+	 * 		The price, or NaN if the field is not a number.
+	 */
+	private static double parsePrice(String field)
+	{
+		try
+		{
+			return Double.parseDouble(field.trim());
+		}
+		catch(NumberFormatException e)
+		{
+			return Double.NaN;
+		}
+	}
+
+	/**
+	 * Finds the first of the fields that is one of the given keys, ignoring case and spaces.
+	 * @param fields
+	 * 		The fields of a CSV row.
+	 * @param keys
+	 * 		The keys, in lower case.
+	 * @return
+	 * 		The index of the field, or -1 if none of them is a key.
+	 */
+	private static int find(ArrayList<String> fields, String[] keys)
+	{
+		for(int index = 0; index < fields.size(); index++)
+		{
+			if(find(fields.get(index).trim().toLowerCase(Locale.ROOT), keys))
+			{
+				return index;
+			}
+		}
+		return -1;
+	}
+
+	/**
+	 * Checks whether a lower case name is one of the given keys.
+	 * @param name
+	 * 		The name.
+	 * @param keys
+	 * 		The keys, in lower case.
+	 * @return
+	 * 		Whether the name is one of the keys.
+	 */
+	private static boolean find(String name, String[] keys)
+	{
+		for(String key : keys)
+		{
+			if(key.equals(name))
+			{
+				return true;
+			}
+		}
+		return false;
+	}
+
+	/**
+	 * Checks whether a character can start a JSON number.
+	 * @param c
+	 * 		The character, or -1 at the end of the input.
+	 * @return
+	 * 		Whether a number starts with the character.
+	 */
+	private static boolean isNumber(int c)
+	{
+		return c == '-' || (c >= '0' && c <= '9');
+	}
+
+	/**
+	 * The prices read but not yet applied, and the running counts of an import.
+	 */
+	private class Batch
+	{
+		/**
+		 * The price of each item read since the last batch was applied, in the order first read.
+		 */
+		private LinkedHashMap<String, Double> pending = new LinkedHashMap<>();
+
+		/**
+		 * The routes containing an item whose price has changed.
+		 */
+		private LinkedHashSet<Route> affected = new LinkedHashSet<>();
+
+		/**
+		 * The number of rows read.
+		 */
+		private long rows;
+
+		/**
+		 * The number of items whose price changed.
+		 */
+		private long updated;
+
+		/**
+		 * The number of items given the price they already had.
+		 */
+		private long unchanged;
+
+		/**
+		 * The number of rows naming neither a catalog item nor a drop without one.
+		 */
+		private long unknown;
+
+		/**
+		 * The number of rows without a usable name and price.
+		 */
+		private long malformed;
+
+		/**
+		 * The number of rows replaced by a later row for the same item in the same batch.
+		 */
+		private long superseded;
+
+		/**
+		 * The number of batches applied.
+		 */
+		private int batches;
+
+		/**
+		 * When the import started, from System.nanoTime.
+		 */
+		private long start = System.nanoTime();
+
+		/**
+		 * The time spent applying batches, in nanoseconds.
+		 */
+		private long applying;
+
+		/**
+		 * Adds a row's price to the batch, applying the batch once it is full.
+		 * @param name
+		 * 		The name of the item, or null if the row had none.
+		 * @param price
+		 * 		The price as read, or NaN if the row had none.
+		 */
+		void offer(String name, double price)
+		{
+			rows++;
+			if(name == null || name.isEmpty() || !(price >= 0) || Double.isInfinite(price))
+			{
+				malformed++;
+				return;
+			}
+			if(pending.put(name, price * priceScale) != null)
+			{
+				superseded++;
+			}
+			if(pending.size() >= batchSize)
+			{
+				apply();
+			}
+		}
+
+		/**
+		 * Counts a row that had no usable name and price.
+		 */
+		void malformed()
+		{
+			rows++;
+			malformed++;
+		}
+
+		/**
+		 * Sets the price of each item in the batch that the catalog has, and the value of each drop of the same name
+		 * without a catalog item, where they differ. A name counts as updated if anything changed.
+		 */
+		void apply()
+		{
+			if(pending.isEmpty())
+			{
+				return;
+			}
+			long begin = System.nanoTime();
+			for(Map.Entry<String, Double> entry : pending.entrySet())
+			{
+				double price = entry.getValue();
+				Item item = catalog.getItem(entry.getKey());
+				boolean known = item != null;
+				boolean changed = false;
+				if(item != null && Double.compare(item.getPrice(), price) != 0)
+				{
+					changed = true;
+					affected.addAll(item.setPrice(price));
+				}
+				for(Route route : plainRoutes)
+				{
+					List<Drop> plain = route.plainDrops(entry.getKey());
+					if(plain == null)
+					{
+						continue;
+					}
+					known = true;
+					for(Drop drop : plain)
+					{
+						if(Double.compare(drop.getVal(), price) != 0)
+						{
+							changed = true;
+							drop.setValue(price);
+							affected.add(route);
+						}
+					}
+				}
+				if(!known)
+				{
+					unknown++;
+				}
+				else if(changed)
+				{
+					updated++;
+				}
+				else
+				{
+					unchanged++;
+				}
+			}
+			pending.clear();
+			batches++;
+			applying += System.nanoTime() - begin;
+		}
+
+		/**
+		 * Applies the last, partly filled batch and gathers the statistics of the import.
+		 * @return
+		 * 		The statistics of the import.
+		 */
+		ImportStatistics finish()
+		{
+			apply();
+			return new ImportStatistics(rows, updated, unchanged, unknown, malformed, superseded, batches, affected,
+					System.nanoTime() - start, applying);
+		}
+	}
+
+	/**
+	 * Reads characters from the input a block at a time, with the small amount of CSV and JSON parsing the importer needs.
+	 */
+	private static class Source
+	{
+		/**
+		 * The input.
+		 */
+		private final Reader in;
+
+		/**
+		 * The block of characters last read from the input.
+		 */
+		private final char[] buffer = new char[BUFFER_SIZE];
+
+		/**
+		 * The number of characters in the buffer.
+		 */
+		private int length;
+
+		/**
+		 * The index of the next character in the buffer.
+		 */
+		private int index;
+
+		/**
+		 * The number of characters read so far, for error messages.
+		 */
+		private long position;
+
+		/**
+		 * Collects the text of a field or string.
+		 */
+		private final StringBuilder text = new StringBuilder();
+
+		Source(Reader input)
+		{
+			in = input;
+		}
+
+		/**
+		 * Looks at the next character without reading it.
+		 * @return
+		 * 		The next character, or -1 at the end of the input.
+		 * @throws IOException
+		 * 		If the input can not be read.
+		 */
+		int peek() throws IOException
+		{
+			while(index == length)
+			{
+				length = in.read(buffer, 0, buffer.length);
+				index = 0;
+				if(length < 0)
+				{
+					length = 0;
+					return -1;
+				}
+			}
+			return buffer[index];
+		}
+
+		/**
+		 * Reads the next character.
+		 * @return
+		 * 		The character, or -1 at the end of the input.
+		 * @throws IOException
+		 * 		If the input can not be read.
+		 */
+		int read() throws IOException
+		{
+			int c = peek();
+			if(c >= 0)
+			{
+				index++;
+				position++;
+			}
+			return c;
+		}
+
+		/**
+		 * Reads one CSV row, which ends at a line break outside of quotes or at the end of the input.
+		 * @param fields
+		 * 		Cleared, then filled with the fields of the row, unquoted.
+		 * @return
+		 * 		Whether there was a row, false at the end of the input.
+		 * @throws IOException
+		 * 		If the input can not be read.
+		 */
+		boolean readCsvRow(ArrayList<String> fields) throws IOException
+		{
+			fields.clear();
+			int c = read();
+			if(c < 0)
+			{
+				return false;
+			}
+			text.setLength(0);
+			boolean quoted = false;
+			while(c >= 0)
+			{
+				if(quoted)
+				{
+					if(c != '"')
+					{
+						text.append((char) c);
+					}
+					else if(peek() == '"')
+					{
+						read();
+						text.append('"');
+					}
+					else
+					{
+						quoted = false;
+					}
+				}
+				else if(c == '"')
+				{
+					quoted = true;
+				}
+				else if(c == ',')
+				{
+					fields.add(text.toString());
+					text.setLength(0);
+				}
+				else if(c == '\n')
+				{
+					break;
+				}
+				else if(c != '\r')
+				{
+					text.append((char) c);
+				}
+				c = read();
+			}
+			fields.add(text.toString());
+			return true;
+		}
+
+		/**
+		 * Skips any whitespace, and looks at the character after it without reading it.
+		 * @return
+		 * 		The next character that is not whitespace, or -1 at the end of the input.
+		 * @throws IOException
+		 * 		If the input can not be read.
+		 */
+		int skipWhitespace() throws IOException
+		{
+			int c = peek();
+			while(c == ' ' || c == '\t' || c == '\n' || c == '\r')
+			{
+				read();
+				c = peek();
+			}
+			return c;
+		}
+
+		/**
+		 * Reads the given character, after any whitespace.
+		 * @param expected
+		 * 		The character that must come next.
+		 * @throws IOException
+		 * 		If the input can not be read, or a different character comes next.
+		 */
+		void expect(char expected) throws IOException
+		{
+			if(skipWhitespace() != expected)
+			{
+				throw error("'" + expected + "'");
+			}
+			read();
+		}
+
+		/**
+		 * Reads the separator between members of an object or elements of an array, or the end of it.
+		 * @param separator
+		 * 		The separator, a comma.
+		 * @param end
+		 * 		The closing brace or bracket.
+		 * @return
+		 * 		True if another member or element follows, false at the end.
+		 * @throws IOException
+		 * 		If the input can not be read, or neither character comes next.
+		 */
+		boolean next(char separator, char end) throws IOException
+		{
+			int c = skipWhitespace();
+			if(c == separator || c == end)
+			{
+				read();
+				return c == separator;
+			}
+			throw error("'" + separator + "' or '" + end + "'");
+		}
+
+		/**
+		 * Reads the name of an object member and the colon after it.
+		 * @return
+		 * 		The name of the member.
+		 * @throws IOException
+		 * 		If the input can not be read, or is not valid JSON.
+		 */
+		String readKey() throws IOException
+		{
+			skipWhitespace();
+			String key = readString();
+			expect(':');
+			return key;
+		}
+
+		/**
+		 * Reads a JSON string, including its quotes.
+		 * @return
+		 * 		The text of the string, with its escapes replaced.
+		 * @throws IOException
+		 * 		If the input can not be read, or is not valid JSON.
+		 */
+		String readString() throws IOException
+		{
+			expect('"');
+			text.setLength(0);
+			int c = read();
+			while(c != '"')
+			{
+				if(c < 0)
+				{
+					throw error("the end of a string");
+				}
+				if(c == '\\')
+				{
+					c = read();
+					switch(c)
+					{
+						case 'b': text.append('\b'); break;
+						case 'f': text.append('\f'); break;
+						case 'n': text.append('\n'); break;
+						case 'r': text.append('\r'); break;
+						case 't': text.append('\t'); break;
+						case 'u':
+							int code = 0;
+							for(int digit = 0; digit < 4; digit++)
+							{
+								int value = Character.digit(read(), 16);
+								if(value < 0)
+								{
+									throw error("a hexadecimal digit");
+								}
+								code = code * 16 + value;
+							}
+							text.append((char) code);
+							break;
+						case '"':
+						case '\\':
+						case '/':
+							text.append((char) c);
+							break;
+						default:
+							throw error("an escape character");
+					}
+				}
+				else
+				{
+					text.append((char) c);
+				}
+				c = read();
+			}
+			return text.toString();
+		}
+
+		/**
+		 * Reads a JSON number.
+		 * @return
+		 * 		The number, or NaN if it is not a valid number.
+		 * @throws IOException
+		 * 		If the input can not be read.
+		 */
+		double readNumber() throws IOException
+		{
+			text.setLength(0);
+			int c = peek();
+			while(c == '-' || c == '+' || c == '.' || c == 'e' || c == 'E' || (c >= '0' && c <= '9'))
+			{
+				text.append((char) read());
+				c = peek();
+			}
+			return parsePrice(text.toString());
+		}
+
+		/**
+		 * Skips over a JSON value of any kind, including any objects and arrays inside it.
+		 * @throws IOException
+		 * 		If the input can not be read, is not valid JSON, or nests deeper than MAX_DEPTH.
+		 */
+		void skipValue() throws IOException
+		{
+			skipValue(0);
+		}
+
+		/**
+		 * Skips over a JSON value inside the given number of enclosing objects and arrays.
+		 * @param depth
+		 * 		The number of objects and arrays already entered while skipping.
+		 * @throws IOException
+		 * 		If the input can not be read, is not valid JSON, or nests deeper than MAX_DEPTH.
+		 */
+		private void skipValue(int depth) throws IOException
+		{
+			int c = skipWhitespace();
+			if((c == '{' || c == '[') && depth >= MAX_DEPTH)
+			{
+				throw error("at most " + MAX_DEPTH + " levels of nesting");
+			}
+			if(c == '"')
+			{
+				readString();
+			}
+			else if(c == '{')
+			{
+				read();
+				if(skipWhitespace() == '}')
+				{
+					read();
+					return;
+				}
+				do
+				{
+					readKey();
+					skipValue(depth + 1);
+				}
+				while(next(',', '}'));
+			}
+			else if(c == '[')
+			{
+				read();
+				if(skipWhitespace() == ']')
+				{
+					read();
+					return;
+				}
+				do
+				{
+					skipValue(depth + 1);
+				}
+				while(next(',', ']'));
+			}
+			else if(isNumber(c) || Character.isLetter(c))
+			{
+				//Numbers and the literals true, false and null.
+				while(isNumber(c) || Character.isLetter(c) || c == '.' || c == '+')
+				{
+					read();
+					c = peek();
+				}
+			}
+			else
+			{
+				throw error("a JSON value");
+			}
+		}
+
+		/**
+		 * Builds the error for input that is not valid JSON.
+		 * @param expected
+		 * 		What should have come next.
+		 * @return
+		 * 		The error, giving the position in the input.
+		 */
+		IOException error(String expected)
+		{
+			return new IOException("Expected " + expected + " at character " + position + " of the price data.");
+		}
+	}
+}
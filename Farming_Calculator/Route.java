@@ -1,5 +1,12 @@
 package dropRateCalculator;
 import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+
+import probability.DiscreteDistribution;
+import supplementalMath.CompensatedSum;
 
 /**
  * Class representing a Farming route followed by World of Warcraft gold farmers.
@@ -14,10 +21,76 @@ public class Route
 	private int creatNum;
 	
 	/**
-	 * A list of the different creatures that appear in the route.
+	 * A list of the different creatures that appear in the route, in order. After a removal it is only rebuilt 
+	 * when next needed, so that removing many creatures one at a time does not shift and renumber the rest each time.
 	 */
 	private ArrayList<Creature> creatures;
 	
+	/**
+	 * A read-only view of the list of creatures, handed out so that creatures can only be added and removed 
+	 * through the route, which keeps its running total and indexes up to date.
+	 */
+	private List<Creature> creaturesView;
+	
+	/**
+	 * The route's creatures by ID, in the order they were added.
+	 */
+	private LinkedHashMap<Integer, Creature> creaturesById;
+	
+	/**
+	 * The route's creatures by name. Names need not be unique, so each lists its creatures in the order they were added.
+	 */
+	private HashMap<String, ArrayList<Creature>> creaturesByName;
+	
+	/**
+	 * The drops of the route's creatures and their loot pools that have no catalog item, by name, kept up to date
+	 * by the drops as they are added, removed, renamed, linked and unlinked.
+	 */
+	private HashMap<String, ArrayList<Drop>> plainDropsByName;
+	
+	/**
+	 * The position of each of the route's creatures by ID, so that a creature can be found or removed by position
+	 * without bringing the list of creatures up to date.
+	 */
+	private PositionIndex positions;
+	
+	/**
+	 * The ID the next creature added will get.
+	 */
+	private int nextCreatureId;
+	
+	/**
+	 * Whether creatures have been removed since the list of creatures and their positions were last brought up to date.
+	 */
+	private boolean reorder;
+	
+	/**
+	 * The running total of the average gold per repetition from each creature, kept up to date 
+	 * as creatures, drops and pools are added, removed and changed.
+	 */
+	private CompensatedSum gold;
+	
+	/**
+	 * The number of changes made to the route, its creatures, or their drops and pools, which anything computed 
+	 * from the route can compare to tell whether it is out of date.
+	 */
+	private int modCount;
+	
+	/**
+	 * The last gold distribution computed, kept so that asking for several percentiles does not redo the convolution.
+	 */
+	private DiscreteDistribution cachedDistribution;
+	
+	/**
+	 * The number of repetitions the cached distribution covers.
+	 */
+	private int cachedRepetitions;
+	
+	/**
+	 * The modification count of the route when the cached distribution was computed.
+	 */
+	private int cachedModCount;
+	
 	/**
 	 * Constructs a farming route with no creatures.
 	 */
@@ -26,6 +99,15 @@ public class Route
 		creatNum = 0;
 		
 		creatures = new ArrayList<>();
+		creaturesView = Collections.unmodifiableList(creatures);
+		creaturesById = new LinkedHashMap<>();
+		creaturesByName = new HashMap<>();
+		plainDropsByName = new HashMap<>();
+		positions = new PositionIndex();
+		nextCreatureId = 0;
+		reorder = false;
+		gold = new CompensatedSum();
+		modCount = 0;
 	}
 	
 	/**
@@ -33,39 +115,163 @@ public class Route
 	 * @param num
 	 * 		The number of the creature that will be in the route.
 	 * @param name
-	 * 		The name of the creature.
+	 * 		The name of the creature, or null for a default name.
+	 * @return
+	 * 		The new creature.
 	 */
-	public void addCreature(int num, String name)
+	public Creature addCreature(int num, String name)
 	{
-		creatNum += 1;
-		creatures.add(new Creature(creatNum, num, name));
+		Creature creat = attach(num, name);
+		settle();
+		return creat;
 	}
 	
 	/**
 	 * Adds a creature to the route with the given number in the route a default given name.
 	 * @param num
 	 * 		The number of the creature that will be in the route.
+	 * @return
+	 * 		The new creature.
 	 */
-	public void addCreature(int num)
+	public Creature addCreature(int num)
 	{
-		creatNum += 1;
-		String name = "Creature_" + creatNum;
-		creatures.add(new Creature(creatNum, num, name));
+		return addCreature(num, null);
 	}
 	
 	/**
-	 * Removes the creature stored at the given position (position = index + 1) from the list.
+	 * Adds many creatures to the route at once, such as a route imported from a spreadsheet.
+	 * @param nums
+	 * 		The number of each creature that will be in the route.
+	 * @param names
+	 * 		The names of the creatures, in the same order, or null to give them all default names. 
+	 * 		A null name also gets a default.
+	 * @return
+	 * 		The new creatures, in the same order.
+	 */
+	public Creature[] addCreatures(int[] nums, String[] names)
+	{
+		Creature[] added = new Creature[nums.length];
+		for(int index = 0; index < nums.length; index++)
+		{
+			added[index] = attach(nums[index], names == null ? null : names[index]);
+		}
+		settle();
+		return added;
+	}
+	
+	/**
+	 * Removes the creature stored at the given position (position = index + 1) from the list, in logarithmic time.
+	 * The creatures after it are renumbered when next needed.
 	 * @param posit
 	 * 		The position of the creature in the list.
 	 */
 	public void removeCreature(int posit)
 	{
-		creatures.remove(posit - 1);
-		creatNum -= 1;
-		for(int index = 0; index < creatures.size(); index++)
+		removeCreatureById(positions.idAt(posit));
+	}
+	
+	/**
+	 * Removes the creature with the given ID in constant time. The creatures after it are renumbered when next needed.
+	 * @param creatId
+	 * 		The ID of the creature to be removed.
+	 * @return
+	 * 		Whether the route had a creature with that ID.
+	 */
+	public boolean removeCreatureById(int creatId)
+	{
+		boolean removed = detach(creatId);
+		if(removed)
+		{
+			settle();
+		}
+		return removed;
+	}
+	
+	/**
+	 * Removes many creatures from the route at once by ID. The remaining creatures are renumbered once 
+	 * when next needed. IDs the route does not have are skipped.
+	 * @param creatIds
+	 * 		The IDs of the creatures to be removed.
+	 * @return
+	 * 		The number of creatures removed.
+	 */
+	public int removeCreatures(int[] creatIds)
+	{
+		int count = 0;
+		for(int creatId : creatIds)
+		{
+			if(detach(creatId))
+			{
+				count++;
+			}
+		}
+		if(count > 0)
 		{
-			creatures.get(index).setPosition(index + 1);
+			settle();
 		}
+		return count;
+	}
+	
+	/**
+	 * Gets the creature with the given ID in constant time.
+	 * @param creatId
+	 * 		The ID of the creature.
+	 * @return
+	 * 		The creature, or null if the route has none with that ID.
+	 */
+	public Creature getCreatureById(int creatId)
+	{
+		return creaturesById.get(creatId);
+	}
+	
+	/**
+	 * Gets the creature at the given position in logarithmic time, without bringing the list of creatures up to date.
+	 * @param posit
+	 * 		The position of the creature, from 1 to the number of creatures.
+	 * @return
+	 * 		The creature.
+	 * @throws IndexOutOfBoundsException
+	 * 		If the route has no creature at that position.
+	 */
+	public Creature getCreatureAt(int posit)
+	{
+		return creaturesById.get(positions.idAt(posit));
+	}
+	
+	/**
+	 * Returns the number of creatures in the route, without bringing the list of creatures up to date.
+	 * @return
+	 * 		The number of creatures.
+	 */
+	public int getCreatureCount()
+	{
+		return creaturesById.size();
+	}
+	
+	/**
+	 * Finds a creature by name in constant time. If several creatures share the name, the one added first is returned.
+	 * @param name
+	 * 		The name of the creature.
+	 * @return
+	 * 		The creature, or null if the route has none with that name.
+	 */
+	public Creature findCreature(String name)
+	{
+		ArrayList<Creature> named = creaturesByName.get(name);
+		return named == null ? null : named.get(0);
+	}
+	
+	/**
+	 * Finds all of the route's creatures with the given name.
+	 * @param name
+	 * 		The name of the creatures.
+	 * @return
+	 * 		The creatures with that name in the order they were added, which is empty if there are none.
+	 */
+	public ArrayList<Creature> findCreatures(String name)
+	{
+		ArrayList<Creature> named = creaturesByName.get(name);
+		return named == null ? new ArrayList<>() : new ArrayList<>(named);
 	}
 	
 	/**
@@ -78,10 +284,12 @@ public class Route
 	 * 		The gold value of the drop to be added.
 	 * @param percentage
 	 * 		The drop chance of the item to be added.
+	 * @return
+	 * 		The new drop.
 	 */
-	public void addDrop(int creatPos, String givenName, double val, double percentage)
+	public Drop addDrop(int creatPos, String givenName, double val, double percentage)
 	{
-		creatures.get(creatPos - 1).addDrop(givenName, val, percentage);
+		return getCreatureAt(creatPos).addDrop(givenName, val, percentage);
 	}
 	
 	/**
@@ -92,10 +300,67 @@ public class Route
 	 * 		The gold value of the drop to be added.
 	 * @param percentage
 	 * 		The drop chance of the item to be added.
+	 * @return
+	 * 		The new drop.
+	 */
+	public Drop addDrop(int creatPos, double val, double percentage)
+	{
+		return getCreatureAt(creatPos).addDrop(val, percentage);
+	}
+	
+	/**
+	 * Adds a drop of a catalog item to the creature at the given position. The drop's value follows the item's price.
+	 * @param creatPos
+	 * 		The position of the creature to add the drop to.
+	 * @param item
+	 * 		The item that drops.
+	 * @param percentage
+	 * 		The drop chance of the item.
+	 * @return
+	 * 		The new drop.
+	 */
+	public Drop addDrop(int creatPos, Item item, double percentage)
+	{
+		return getCreatureAt(creatPos).addDrop(item, percentage);
+	}
+	
+	/**
+	 * Adds an empty loot pool with the given name to the creature at the given position.
+	 * At most one of the drops added to the pool drops per kill.
+	 * @param creatPos
+	 * 		The position of the creature to add the pool to.
+	 * @param givenName
+	 * 		The name of the pool to be added.
+	 * @return
+	 * 		The new pool, to add drops to.
+	 */
+	public LootPool addLootPool(int creatPos, String givenName)
+	{
+		return getCreatureAt(creatPos).addLootPool(givenName);
+	}
+	
+	/**
+	 * Adds an empty loot pool with a default name to the creature at the given position.
+	 * @param creatPos
+	 * 		The position of the creature to add the pool to.
+	 * @return
+	 * 		The new pool, to add drops to.
+	 */
+	public LootPool addLootPool(int creatPos)
+	{
+		return getCreatureAt(creatPos).addLootPool();
+	}
+	
+	/**
+	 * Removes the loot pool stored at the second position from the creature stored at the first position.
+	 * @param creatPos
+	 * 		The position of the creature to remove the pool from.
+	 * @param poolPosit
+	 * 		The position of the pool to be removed.
 	 */
-	public void addDrop(int creatPos, double val, double percentage)
+	public void removeLootPool(int creatPos, int poolPosit)
 	{
-		creatures.get(creatPos - 1).addDrop(val, percentage);
+		getCreatureAt(creatPos).removeLootPool(poolPosit);
 	}
 	
 	/**
@@ -107,23 +372,19 @@ public class Route
 	 */
 	public void removeDrop(int creatPos, int dropPosit)
 	{
-		creatures.get(creatPos - 1).removeDrop(dropPosit);
+		getCreatureAt(creatPos).removeDrop(dropPosit);
 	}
 	
 	/**
-	 * Calculates the average amount of gold obtained from selling the drops obtained 
-	 * per repetition of the farming route.
+	 * Returns the average amount of gold obtained from selling the drops obtained 
+	 * per repetition of the farming route. The compensated total is kept up to date as the route changes, 
+	 * so it takes constant time however many creatures and drops the route has.
 	 * @return
 	 * 		The average amount of gold obtained from selling the drops obtained per repetition of the farming route.
 	 */
 	public double avgGldPerRoute()
 	{
-		double total = 0;
-		for(Creature creat : creatures)
-		{
-			total += creat.avgGldPerRoute();
-		}
-		return total;
+		return gold.value();
 	}
 	
 	/**
@@ -141,13 +402,321 @@ public class Route
 	}
 	
 	/**
-	 * Returns the list of creatures in the route.
+	 * Calculates the full probability distribution of the gold obtained from one repetition of the farming route,
+	 * so that questions such as the chance of making at least a given amount can be answered with its cdf.
+	 * @return
+	 * 		The distribution of the gold obtained per repetition of the farming route.
+	 */
+	public DiscreteDistribution gldDistribution()
+	{
+		return gldDistribution(1);
+	}
+	
+	/**
+	 * Calculates the full probability distribution of the gold obtained from the given number of repetitions 
+	 * of the farming route.
+	 * @param repetitions
+	 * 		The number of times the route is completed.
+	 * @return
+	 * 		The distribution of the gold obtained over the given number of repetitions.
+	 */
+	public DiscreteDistribution gldDistribution(int repetitions)
+	{
+		return cachedDistribution(repetitions);
+	}
+	
+	/**
+	 * Calculates the gold per unit of time that the given fractions of sessions of one repetition of the route 
+	 * make at most. The fraction 0.1 gives the amount that 90% of repetitions make at least.
+	 * @param time
+	 * 		The amount of time each repetition of the route takes.
+	 * @param fractions
+	 * 		The fractions of repetitions, from 0 to 1, such as 0.1, 0.5 and 0.9 for P10, P50 and P90.
+	 * @return
+	 * 		The gold per unit of time at each of the fractions, in the same order.
+	 */
+	public double[] gldPerTimePercentiles(double time, double[] fractions)
+	{
+		return gldPerTimePercentiles(time, time, fractions);
+	}
+	
+	/**
+	 * Calculates the gold per unit of time that the given fractions of farming sessions of the given length make at most, 
+	 * for instance the gold per hour that 90% of hour long sessions make at least. A session is the whole number 
+	 * of repetitions nearest to timeFrame / time, and at least one. The distribution is computed once for all 
+	 * of the fractions, and kept for the next call while the route is unchanged.
+	 * @param time
+	 * 		The amount of time each repetition of the route takes.
+	 * @param timeFrame
+	 * 		The length of a farming session.
+	 * @param fractions
+	 * 		The fractions of sessions, from 0 to 1, such as 0.1, 0.5 and 0.9 for P10, P50 and P90.
+	 * @return
+	 * 		The gold per unit of time at each of the fractions, in the same order.
+	 */
+	public double[] gldPerTimePercentiles(double time, double timeFrame, double[] fractions)
+	{
+		int repetitions = (int) Math.max(1, Math.round(timeFrame / time));
+		double[] percentiles = new double[fractions.length];
+		cachedDistribution(repetitions).quantile(fractions, percentiles);
+		double sessionTime = repetitions * time;
+		for(int i = 0; i < percentiles.length; i++)
+		{
+			percentiles[i] /= sessionTime;
+		}
+		return percentiles;
+	}
+	
+	/**
+	 * Returns the gold distribution over the given number of repetitions, reusing the last one computed 
+	 * if it covers the same repetitions and the route has not changed since.
+	 * @param repetitions
+	 * 		The number of times the route is completed.
+	 * @return
+	 * 		The distribution of the gold obtained over the given number of repetitions.
+	 */
+	private DiscreteDistribution cachedDistribution(int repetitions)
+	{
+		if(cachedDistribution == null || cachedRepetitions != repetitions || cachedModCount != modCount)
+		{
+			cachedDistribution = new RouteDistribution(this, repetitions).getDistribution();
+			cachedRepetitions = repetitions;
+			cachedModCount = modCount;
+		}
+		return cachedDistribution;
+	}
+	
+	/**
+	 * Updates the running total for a change to one of the route's creatures.
+	 * @param creat
+	 * 		The creature that changed.
+	 * @param oldGold
+	 * 		The average gold per repetition from the creature before the change.
+	 */
+	void creatureChanged(Creature creat, double oldGold)
+	{
+		gold.add(-oldGold);
+		gold.add(creat.avgGldPerRoute());
+		settle();
+	}
+	
+	/**
+	 * Updates the index of creatures by name for a change to one of the route's creatures' names.
+	 * @param creat
+	 * 		The creature that was renamed, which already has its new name.
+	 * @param oldName
+	 * 		The name of the creature before the change.
+	 */
+	void creatureRenamed(Creature creat, String oldName)
+	{
+		unindex(creat, oldName);
+		index(creat);
+	}
+	
+	/**
+	 * Adds a drop without a catalog item to the index of such drops by name.
+	 * @param drop
+	 * 		The drop, which is in the route.
+	 */
+	void plainDropAdded(Drop drop)
+	{
+		plainDropsByName.computeIfAbsent(drop.getName(), key -> new ArrayList<>()).add(drop);
+	}
+	
+	/**
+	 * Takes a drop out of the index of drops without a catalog item, if it is there.
+	 * @param drop
+	 * 		The drop.
+	 * @param dropName
+	 * 		The name the drop was indexed under.
+	 */
+	void plainDropRemoved(Drop drop, String dropName)
+	{
+		ArrayList<Drop> named = plainDropsByName.get(dropName);
+		if(named != null && named.remove(drop) && named.isEmpty())
+		{
+			plainDropsByName.remove(dropName);
+		}
+	}
+	
+	/**
+	 * Returns the drops of the route with the given name and no catalog item, in creatures and loot pools alike.
+	 * The list is the route's own and must not be changed.
+	 * @param dropName
+	 * 		The name of the drops.
+	 * @return
+	 * 		The drops, or null if the route has none with that name.
+	 */
+	List<Drop> plainDrops(String dropName)
+	{
+		return plainDropsByName.get(dropName);
+	}
+	
+	/**
+	 * Takes a drop of a creature being removed out of the index of drops without a catalog item.
+	 * @param drop
+	 * 		The drop.
+	 */
+	private void unindexPlain(Drop drop)
+	{
+		if(drop.getItem() == null)
+		{
+			plainDropRemoved(drop, drop.getName());
+		}
+	}
+	
+	/**
+	 * Brings the list of creatures and their positions up to date, if any have been removed since they were last numbered.
+	 */
+	void updatePositions()
+	{
+		if(reorder)
+		{
+			reorder = false;
+			creatures.clear();
+			int place = 0;
+			for(Creature creat : creaturesById.values())
+			{
+				place += 1;
+				creat.setPosition(place);
+				creatures.add(creat);
+			}
+		}
+	}
+	
+	/**
+	 * Adds a new creature to the route, its indexes, and its running total, without counting the change.
+	 * @param num
+	 * 		The number of the creature that will be in the route.
+	 * @param name
+	 * 		The name of the creature, or null for a default name.
+	 * @return
+	 * 		The new creature.
+	 */
+	private Creature attach(int num, String name)
+	{
+		creatNum += 1;
+		nextCreatureId += 1;
+		Creature creat = new Creature(creatNum, num, name == null ? "Creature_" + creatNum : name);
+		creat.setId(nextCreatureId);
+		creat.setRoute(this);
+		creaturesById.put(nextCreatureId, creat);
+		positions.add(nextCreatureId);
+		index(creat);
+		if(!reorder)
+		{
+			creatures.add(creat);
+		}
+		gold.add(creat.avgGldPerRoute());
+		return creat;
+	}
+	
+	/**
+	 * Removes a creature from the route, its indexes, and its running total, without counting the change.
+	 * @param creatId
+	 * 		The ID of the creature.
+	 * @return
+	 * 		Whether the route had a creature with that ID.
+	 */
+	private boolean detach(int creatId)
+	{
+		Creature removed = creaturesById.remove(creatId);
+		if(removed == null)
+		{
+			return false;
+		}
+		positions.remove(creatId);
+		for(Drop drop : removed.getDrops())
+		{
+			unindexPlain(drop);
+		}
+		for(LootPool pool : removed.getLootPools())
+		{
+			for(Drop drop : pool.getDrops())
+			{
+				unindexPlain(drop);
+			}
+		}
+		removed.setRoute(null);
+		removed.setId(0);
+		removed.release();
+		unindex(removed, removed.getName());
+		creatNum -= 1;
+		reorder = true;
+		gold.add(-removed.avgGldPerRoute());
+		return true;
+	}
+	
+	/**
+	 * Adds a creature to the index of creatures by name.
+	 * @param creat
+	 * 		The creature.
+	 */
+	private void index(Creature creat)
+	{
+		creaturesByName.computeIfAbsent(creat.getName(), key -> new ArrayList<>()).add(creat);
+	}
+	
+	/**
+	 * Takes a creature out of the index of creatures by name.
+	 * @param creat
+	 * 		The creature.
+	 * @param name
+	 * 		The name the creature was indexed under.
+	 */
+	private void unindex(Creature creat, String name)
+	{
+		ArrayList<Creature> named = creaturesByName.get(name);
+		named.remove(creat);
+		if(named.isEmpty())
+		{
+			creaturesByName.remove(name);
+		}
+	}
+	
+	/**
+	 * Counts a change to the route. With no creatures left the total is reset to exactly 0, and if it has stopped 
+	 * being finite, such as after an infinite value, it is recounted, since taking an infinite amount away again 
+	 * would leave it undefined.
+	 */
+	private void settle()
+	{
+		modCount++;
+		if(creaturesById.isEmpty())
+		{
+			gold.clear();
+		}
+		else if(!Double.isFinite(gold.value()))
+		{
+			gold.clear();
+			for(Creature creat : creaturesById.values())
+			{
+				gold.add(creat.avgGldPerRoute());
+			}
+		}
+	}
+
+	/**
+	 * Calculates the mean, variance, skewness and kurtosis of the gold obtained per repetition of the farming route
+	 * directly from the drops, which is far cheaper than the full distribution when only a summary is needed.
+	 * @return
+	 * 		The cumulants of the gold obtained per repetition of the farming route.
+	 */
+	public GoldCumulants gldCumulants()
+	{
+		return new GoldCumulants(this);
+	}
+	
+	/**
+	 * Returns the list of creatures in the route, in order. The list can not be changed, since creatures must be added 
+	 * and removed through the route for its running total and indexes to stay up to date.
 	 * @return
-	 * 		The list of creatures in the route.
+	 * 		A read-only view of the list of creatures in the route.
 	 */
-    public ArrayList<Creature> getCreatures()
+    public List<Creature> getCreatures()
     {
-        return creatures;
+        updatePositions();
+        return creaturesView;
     }
 	
 	
@@ -0,0 +1,566 @@
+package dropRateCalculator;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+
+import supplementalMath.CompensatedSum;
+
+/**
+ * A library of farming routes stored column by column in primitive arrays, for keeping very many routes in memory.
+ * Every drop of every route is a value, a chance, a name code and an item code in four arrays, every creature is a number
+ * in the route, a name code and the offsets of its drops and loot pools, and every route is the offset of its first creature,
+ * so the drops of a creature and the creatures of a route sit next to each other and are read in order.
+ * Names are kept once each in a dictionary and referred to by code, since the same items drop across many routes.
+ * Drops of ItemCatalog items also keep a code for their item, so they go on following its price: the gold calculated
+ * from the columns uses the item's current price, and a route rebuilt from them has its drops linked to the item again.
+ * Routes are added from Route objects and can be turned back into them, and the average gold per repetition
+ * is calculated straight from the columns.
+ */
+public class RouteColumns
+{
+	/**
+	 * The code stored for a missing name.
+	 */
+	private static final int NO_NAME = -1;
+
+	/**
+	 * The code stored for a drop with its own value rather than a catalog item.
+	 */
+	private static final int NO_ITEM = -1;
+
+	/**
+	 * The number of routes.
+	 */
+	private int routeCount;
+
+	/**
+	 * The index of each route's first creature, with one extra entry holding the number of creatures.
+	 */
+	private int[] creatureStart;
+
+	/**
+	 * The number of creatures over all of the routes.
+	 */
+	private int creatureCount;
+
+	/**
+	 * The number of each creature that spawn in its route.
+	 */
+	private int[] numInRoute;
+
+	/**
+	 * The name code of each creature.
+	 */
+	private int[] creatureName;
+
+	/**
+	 * The index of each creature's first drop, with one extra entry holding the number of drops.
+	 */
+	private int[] dropStart;
+
+	/**
+	 * The index of each creature's first loot pool, with one extra entry holding the number of pools.
+	 */
+	private int[] poolStart;
+
+	/**
+	 * The number of drops over all of the creatures, not counting drops in loot pools.
+	 */
+	private int dropCount;
+
+	/**
+	 * The gold value of each drop.
+	 */
+	private double[] value;
+
+	/**
+	 * The drop chance of each drop.
+	 */
+	private double[] rate;
+
+	/**
+	 * The name code of each drop.
+	 */
+	private int[] dropName;
+
+	/**
+	 * The item code of each drop, or NO_ITEM.
+	 */
+	private int[] dropItem;
+
+	/**
+	 * The number of loot pools over all of the creatures.
+	 */
+	private int poolCount;
+
+	/**
+	 * The name code of each loot pool.
+	 */
+	private int[] poolName;
+
+	/**
+	 * The index of each loot pool's first drop in the pool drop columns, with one extra entry holding the number of them.
+	 */
+	private int[] poolDropStart;
+
+	/**
+	 * The number of drops over all of the loot pools.
+	 */
+	private int poolDropCount;
+
+	/**
+	 * The gold value of each drop in a loot pool.
+	 */
+	private double[] poolValue;
+
+	/**
+	 * The chance of each drop in a loot pool being the one picked.
+	 */
+	private double[] poolRate;
+
+	/**
+	 * The name code of each drop in a loot pool.
+	 */
+	private int[] poolDropName;
+
+	/**
+	 * The item code of each drop in a loot pool, or NO_ITEM.
+	 */
+	private int[] poolDropItem;
+
+	/**
+	 * Every distinct name, at the index of its code.
+	 */
+	private ArrayList<String> names;
+
+	/**
+	 * The code of each distinct name.
+	 */
+	private HashMap<String, Integer> nameCodes;
+
+	/**
+	 * Every distinct catalog item dropped, at the index of its code.
+	 */
+	private ArrayList<Item> items;
+
+	/**
+	 * The code of each distinct catalog item. Items are told apart by identity, as in their catalog.
+	 */
+	private HashMap<Item, Integer> itemCodes;
+
+	/**
+	 * Constructs an empty library.
+	 */
+	public RouteColumns()
+	{
+		this(16, 256);
+	}
+
+	/**
+	 * Constructs an empty library with room for the given numbers of routes and drops before it needs to grow.
+	 * @param expectedRoutes
+	 * 		The number of routes expected.
+	 * @param expectedDrops
+	 * 		The total number of drops expected over all of the routes.
+	 */
+	public RouteColumns(int expectedRoutes, int expectedDrops)
+	{
+		int routes = Math.max(1, expectedRoutes);
+		int drops = Math.max(1, expectedDrops);
+		int creatures = Math.max(1, drops / 8);
+		routeCount = 0;
+		creatureStart = new int[routes + 1];
+		creatureCount = 0;
+		numInRoute = new int[creatures];
+		creatureName = new int[creatures];
+		dropStart = new int[creatures + 1];
+		poolStart = new int[creatures + 1];
+		dropCount = 0;
+		value = new double[drops];
+		rate = new double[drops];
+		dropName = new int[drops];
+		dropItem = new int[drops];
+		poolCount = 0;
+		poolName = new int[1];
+		poolDropStart = new int[2];
+		poolDropCount = 0;
+		poolValue = new double[1];
+		poolRate = new double[1];
+		poolDropName = new int[1];
+		poolDropItem = new int[1];
+		names = new ArrayList<>();
+		nameCodes = new HashMap<>();
+		items = new ArrayList<>();
+		itemCodes = new HashMap<>();
+	}
+
+	/**
+	 * Adds a copy of a route to the library. Later changes to the route do not affect the library.
+	 * @param route
+	 * 		The route to add.
+	 * @return
+	 * 		The index of the route in the library, counting from 0.
+	 */
+	public int add(Route route)
+	{
+		for(Creature creat : route.getCreatures())
+		{
+			addCreature(creat);
+		}
+		routeCount += 1;
+		creatureStart = ensureCapacity(creatureStart, routeCount + 1);
+		creatureStart[routeCount] = creatureCount;
+		return routeCount - 1;
+	}
+
+	/**
+	 * Rebuilds the route at the given index as a Route, with its creatures, drops and loot pools in the same order.
+	 * The new route gives out its own IDs, so they may differ from those of the route that was added.
+	 * Drops of catalog items are linked to their items again, with the items' current prices.
+	 * @param index
+	 * 		The index of the route, counting from 0.
+	 * @return
+	 * 		A new route equal to the one stored.
+	 */
+	public Route toRoute(int index)
+	{
+		Route route = new Route();
+		for(int creat = creatureStart[index]; creat < creatureStart[index + 1]; creat++)
+		{
+			Creature creature = route.addCreature(numInRoute[creat], name(creatureName[creat]));
+			int first = dropStart[creat];
+			int last = dropStart[creat + 1];
+			String[] dropNames = new String[last - first];
+			double[] dropValues = new double[last - first];
+			for(int drop = first; drop < last; drop++)
+			{
+				dropNames[drop - first] = name(dropName[drop]);
+				dropValues[drop - first] = dropValue(drop);
+			}
+			Drop[] added = creature.addDrops(dropNames, dropValues, Arrays.copyOfRange(rate, first, last));
+			for(int drop = first; drop < last; drop++)
+			{
+				if(dropItem[drop] != NO_ITEM)
+				{
+					added[drop - first].linkItem(items.get(dropItem[drop]));
+				}
+			}
+			for(int pool = poolStart[creat]; pool < poolStart[creat + 1]; pool++)
+			{
+				LootPool lootPool = creature.addLootPool(name(poolName[pool]));
+				for(int drop = poolDropStart[pool]; drop < poolDropStart[pool + 1]; drop++)
+				{
+					if(poolDropItem[drop] == NO_ITEM)
+					{
+						lootPool.addDrop(name(poolDropName[drop]), poolValue[drop], poolRate[drop]);
+					}
+					else
+					{
+						lootPool.addDrop(items.get(poolDropItem[drop]), poolRate[drop]).setName(name(poolDropName[drop]));
+					}
+				}
+			}
+		}
+		return route;
+	}
+
+	/**
+	 * Calculates the average amount of gold obtained per repetition of the route at the given index, reading its
+	 * drops straight from the columns, at the current prices of any catalog items. The sums are compensated,
+	 * so it agrees with Route.avgGldPerRoute to rounding.
+	 * @param index
+	 * 		The index of the route, counting from 0.
+	 * @return
+	 * 		The average amount of gold obtained per repetition of the route.
+	 */
+	public double avgGldPerRoute(int index)
+	{
+		CompensatedSum total = new CompensatedSum();
+		CompensatedSum perKill = new CompensatedSum();
+		CompensatedSum chance = new CompensatedSum();
+		CompensatedSum poolGold = new CompensatedSum();
+		for(int creat = creatureStart[index]; creat < creatureStart[index + 1]; creat++)
+		{
+			perKill.clear();
+			for(int drop = dropStart[creat]; drop < dropStart[creat + 1]; drop++)
+			{
+				perKill.addProduct(dropValue(drop), rate[drop]);
+			}
+			for(int pool = poolStart[creat]; pool < poolStart[creat + 1]; pool++)
+			{
+				//As in LootPool, the chances are scaled down to share the pool if they add up to more than 1.
+				poolGold.clear();
+				chance.clear();
+				for(int drop = poolDropStart[pool]; drop < poolDropStart[pool + 1]; drop++)
+				{
+					double held = Math.max(poolRate[drop], 0);
+					chance.add(held);
+					poolGold.addProduct(poolDropValue(drop), held);
+				}
+				perKill.add(poolGold.value() / Math.max(1, chance.value()));
+			}
+			total.add(perKill.value() * numInRoute[creat]);
+		}
+		return total.value();
+	}
+
+	/**
+	 * Calculates the average amount of gold obtained per repetition of every route in the library.
+	 * The routes are independent, so they are spread over all of the cores.
+	 * @return
+	 * 		The average gold per repetition of each route, in the order they were added.
+	 */
+	public double[] avgGldPerRoute()
+	{
+		double[] totals = new double[routeCount];
+		Arrays.parallelSetAll(totals, this::avgGldPerRoute);
+		return totals;
+	}
+
+	/**
+	 * Returns the number of routes in the library.
+	 * @return
+	 * 		The number of routes.
+	 */
+	public int size()
+	{
+		return routeCount;
+	}
+
+	/**
+	 * Returns the number of creatures over all of the routes.
+	 * @return
+	 * 		The number of creatures.
+	 */
+	public int getCreatureCount()
+	{
+		return creatureCount;
+	}
+
+	/**
+	 * Returns the number of drops over all of the routes, including drops in loot pools.
+	 * @return
+	 * 		The number of drops.
+	 */
+	public int getDropCount()
+	{
+		return dropCount + poolDropCount;
+	}
+
+	/**
+	 * Returns the number of distinct names in the dictionary.
+	 * @return
+	 * 		The number of distinct names.
+	 */
+	public int getNameCount()
+	{
+		return names.size();
+	}
+
+	/**
+	 * Shrinks every column to exactly fit what it holds, freeing the room left for growth once the library is built.
+	 */
+	public void trim()
+	{
+		creatureStart = Arrays.copyOf(creatureStart, routeCount + 1);
+		numInRoute = Arrays.copyOf(numInRoute, creatureCount);
+		creatureName = Arrays.copyOf(creatureName, creatureCount);
+		dropStart = Arrays.copyOf(dropStart, creatureCount + 1);
+		poolStart = Arrays.copyOf(poolStart, creatureCount + 1);
+		value = Arrays.copyOf(value, dropCount);
+		rate = Arrays.copyOf(rate, dropCount);
+		dropName = Arrays.copyOf(dropName, dropCount);
+		dropItem = Arrays.copyOf(dropItem, dropCount);
+		poolName = Arrays.copyOf(poolName, poolCount);
+		poolDropStart = Arrays.copyOf(poolDropStart, poolCount + 1);
+		poolValue = Arrays.copyOf(poolValue, poolDropCount);
+		poolRate = Arrays.copyOf(poolRate, poolDropCount);
+		poolDropName = Arrays.copyOf(poolDropName, poolDropCount);
+		poolDropItem = Arrays.copyOf(poolDropItem, poolDropCount);
+		names.trimToSize();
+		items.trimToSize();
+	}
+
+	/**
+	 * Appends a creature, with its drops and loot pools, to the columns.
+	 * @param creat
+	 * 		The creature to add.
+	 */
+	private void addCreature(Creature creat)
+	{
+		List<Drop> drops = creat.getDrops();
+		int needed = dropCount + drops.size();
+		value = ensureCapacity(value, needed);
+		rate = ensureCapacity(rate, needed);
+		dropName = ensureCapacity(dropName, needed);
+		dropItem = ensureCapacity(dropItem, needed);
+		for(Drop drop : drops)
+		{
+			value[dropCount] = drop.getVal();
+			rate[dropCount] = drop.getRate();
+			dropName[dropCount] = code(drop.getName());
+			dropItem[dropCount] = code(drop.getItem());
+			dropCount += 1;
+		}
+		for(LootPool pool : creat.getLootPools())
+		{
+			addPool(pool);
+		}
+		numInRoute = ensureCapacity(numInRoute, creatureCount + 1);
+		creatureName = ensureCapacity(creatureName, creatureCount + 1);
+		dropStart = ensureCapacity(dropStart, creatureCount + 2);
+		poolStart = ensureCapacity(poolStart, creatureCount + 2);
+		numInRoute[creatureCount] = creat.getNumInRoute();
+		creatureName[creatureCount] = code(creat.getName());
+		creatureCount += 1;
+		dropStart[creatureCount] = dropCount;
+		poolStart[creatureCount] = poolCount;
+	}
+
+	/**
+	 * Appends a loot pool, with its drops, to the columns.
+	 * @param pool
+	 * 		The pool to add.
+	 */
+	private void addPool(LootPool pool)
+	{
+		List<Drop> drops = pool.getDrops();
+		int needed = poolDropCount + drops.size();
+		poolValue = ensureCapacity(poolValue, needed);
+		poolRate = ensureCapacity(poolRate, needed);
+		poolDropName = ensureCapacity(poolDropName, needed);
+		poolDropItem = ensureCapacity(poolDropItem, needed);
+		for(Drop drop : drops)
+		{
+			poolValue[poolDropCount] = drop.getVal();
+			poolRate[poolDropCount] = drop.getRate();
+			poolDropName[poolDropCount] = code(drop.getName());
+			poolDropItem[poolDropCount] = code(drop.getItem());
+			poolDropCount += 1;
+		}
+		poolName = ensureCapacity(poolName, poolCount + 1);
+		poolDropStart = ensureCapacity(poolDropStart, poolCount + 2);
+		poolName[poolCount] = code(pool.getName());
+		poolCount += 1;
+		poolDropStart[poolCount] = poolDropCount;
+	}
+
+	/**
+	 * Looks up the code of a name, adding it to the dictionary if it is new.
+	 * @param name
+	 * 		The name, which may be null.
+	 * @return
+	 * 		The code of the name.
+	 */
+	private int code(String name)
+	{
+		if(name == null)
+		{
+			return NO_NAME;
+		}
+		Integer known = nameCodes.get(name);
+		if(known != null)
+		{
+			return known;
+		}
+		names.add(name);
+		nameCodes.put(name, names.size() - 1);
+		return names.size() - 1;
+	}
+
+	/**
+	 * Looks up the code of a catalog item, adding it to the items if it is new.
+	 * @param item
+	 * 		The item, which may be null.
+	 * @return
+	 * 		The code of the item, or NO_ITEM for a drop with its own value.
+	 */
+	private int code(Item item)
+	{
+		if(item == null)
+		{
+			return NO_ITEM;
+		}
+		Integer known = itemCodes.get(item);
+		if(known != null)
+		{
+			return known;
+		}
+		items.add(item);
+		itemCodes.put(item, items.size() - 1);
+		return items.size() - 1;
+	}
+
+	/**
+	 * Returns the gold value of a drop, the current price of its item if it has one.
+	 * @param drop
+	 * 		The index of the drop.
+	 * @return
+	 * 		The value of the drop.
+	 */
+	private double dropValue(int drop)
+	{
+		return dropItem[drop] == NO_ITEM ? value[drop] : items.get(dropItem[drop]).getPrice();
+	}
+
+	/**
+	 * Returns the gold value of a drop in a loot pool, the current price of its item if it has one.
+	 * @param drop
+	 * 		The index of the drop in the pool drop columns.
+	 * @return
+	 * 		The value of the drop.
+	 */
+	private double poolDropValue(int drop)
+	{
+		return poolDropItem[drop] == NO_ITEM ? poolValue[drop] : items.get(poolDropItem[drop]).getPrice();
+	}
+
+	/**
+	 * Looks up the name with the given code.
+	 * @param code
+	 * 		The code of the name.
+	 * @return
+	 * 		The name, or null for a missing name.
+	 */
+	private String name(int code)
+	{
+		return code == NO_NAME ? null : names.get(code);
+	}
+
+	/**
+	 * Grows a column, if needed, to hold at least the given number of entries.
+	 * @param column
+	 * 		The column.
+	 * @param capacity
+	 * 		The number of entries it must hold.
+	 * @return
+	 * 		The column, or a larger copy of it.
+	 */
+	private static double[] ensureCapacity(double[] column, int capacity)
+	{
+		if(capacity <= column.length)
+		{
+			return column;
+		}
+		return Arrays.copyOf(column, Math.max(capacity, column.length * 2));
+	}
+
+	/**
+	 * Grows a column, if needed, to hold at least the given number of entries.
+	 * @param column
+	 * 		The column.
+	 * @param capacity
+	 * 		The number of entries it must hold.
+	 * @return
+	 * 		The column, or a larger copy of it.
+	 */
+	private static int[] ensureCapacity(int[] column, int capacity)
+	{
+		if(capacity <= column.length)
+		{
+			return column;
+		}
+		return Arrays.copyOf(column, Math.max(capacity, column.length * 2));
+	}
+}
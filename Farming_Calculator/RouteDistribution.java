@@ -0,0 +1,308 @@
+package dropRateCalculator;
+import java.util.Arrays;
+
+import probability.DiscreteDistribution;
+import probability.DiscreteDistributionBuilder;
+import supplementalMath.FastFourierTransform;
+import supplementalMath.SupplementalMath;
+
+/**
+ * The full probability distribution of the gold obtained from one or more repetitions of a farming route.
+ * Each drop contributes its value times a Binomial number of drops over every kill of its creature.
+ * Those contributions are placed on a grid of gold amounts, transformed with an FFT, multiplied together and
+ * transformed back, which convolves them all at once. A loot pool contributes the sum of one roll per kill,
+ * whose transform is the transform of a single roll raised to the number of kills.
+ */
+public class RouteDistribution
+{
+	/**
+	 * One copper in gold, the smallest amount the grid can resolve.
+	 */
+	public static final double COPPER = 0.0001;
+
+	/**
+	 * The default limit on the number of grid points, which bounds both the memory used and the cost of each transform.
+	 */
+	public static final int DEFAULT_MAX_BINS = 1 << 16;
+
+	/**
+	 * How many standard deviations, plus that many extra drops, each drop's count is followed either side of its mean.
+	 * The probability left outside is far below the rounding noise of the transform.
+	 */
+	private static final double TAIL_DEVIATIONS = 10;
+
+	/**
+	 * The width in gold of each grid point, a whole number of copper.
+	 */
+	private double binWidth;
+
+	/**
+	 * The distribution of gold over the requested number of repetitions.
+	 */
+	private DiscreteDistribution distribution;
+
+	/**
+	 * Constructs the distribution of gold from a single repetition of the route.
+	 * @param route
+	 * 		The farming route.
+	 */
+	public RouteDistribution(Route route)
+	{
+		this(route, 1, DEFAULT_MAX_BINS);
+	}
+
+	/**
+	 * Constructs the distribution of gold from the given number of repetitions of the route.
+	 * @param route
+	 * 		The farming route.
+	 * @param repetitions
+	 * 		The number of times the route is completed.
+	 */
+	public RouteDistribution(Route route, int repetitions)
+	{
+		this(route, repetitions, DEFAULT_MAX_BINS);
+	}
+
+	/**
+	 * Constructs the distribution of gold from the given number of repetitions of the route, on a grid of
+	 * at most roughly maxBins points. The grid is one copper wide unless the likely gold is too spread out,
+	 * in which case it widens by whole copper. Amounts are rounded to the nearest grid point, except that the values
+	 * in a loot pool are split between the two nearest grid points so that the rounding can not shift the mean.
+	 * @param route
+	 * 		The farming route.
+	 * @param repetitions
+	 * 		The number of times the route is completed.
+	 * @param maxBins
+	 * 		The limit on the number of grid points.
+	 */
+	public RouteDistribution(Route route, int repetitions, int maxBins)
+	{
+		int count = 0;
+		int poolCount = 0;
+		for(Creature creat : route.getCreatures())
+		{
+			count += creat.getDrops().size();
+			poolCount += creat.getLootPools().size();
+		}
+		DiscreteDistribution[] rolls = new DiscreteDistribution[poolCount];
+		int[] poolKills = new int[poolCount];
+		double[] poolLow = new double[poolCount];
+		double[] poolHigh = new double[poolCount];
+		double[] values = new double[count];
+		double[] rates = new double[count];
+		int[] kills = new int[count];
+		int[] firstDrop = new int[count];
+		int[] lastDrop = new int[count];
+
+		//Gather every drop that can add gold, and the range of its number of drops worth following.
+		count = 0;
+		poolCount = 0;
+		double span = 0;
+		for(Creature creat : route.getCreatures())
+		{
+			int killed = Math.toIntExact((long) creat.getNumInRoute() * repetitions);
+			for(Drop drop : creat.getDrops())
+			{
+				if(killed <= 0 || drop.getRate() <= 0 || drop.getVal() <= 0)
+				{
+					continue;
+				}
+				values[count] = drop.getVal();
+				rates[count] = Math.min(drop.getRate(), 1);
+				kills[count] = killed;
+				double mean = killed * rates[count];
+				double slack = TAIL_DEVIATIONS * Math.sqrt(mean * (1 - rates[count])) + TAIL_DEVIATIONS;
+				firstDrop[count] = (int) Math.max(0, Math.floor(mean - slack));
+				lastDrop[count] = (int) Math.min(killed, Math.ceil(mean + slack));
+				span += values[count] * (lastDrop[count] - firstDrop[count]);
+				count++;
+			}
+			for(LootPool pool : creat.getLootPools())
+			{
+				DiscreteDistribution roll = pool.gldDistribution();
+				double top = roll.size() == 0 ? 0 : roll.getValue(roll.size() - 1);
+				if(killed <= 0 || top <= 0)
+				{
+					continue;
+				}
+				//The same range rule as the drops, in gold, around the mean of the sum of one roll per kill.
+				double mean = killed * roll.expectedValue();
+				double slack = TAIL_DEVIATIONS * Math.sqrt(killed * roll.variance()) + TAIL_DEVIATIONS * top;
+				rolls[poolCount] = roll;
+				poolKills[poolCount] = killed;
+				poolLow[poolCount] = Math.max(0, mean - slack);
+				poolHigh[poolCount] = Math.min(killed * top, mean + slack);
+				span += poolHigh[poolCount] - poolLow[poolCount];
+				poolCount++;
+			}
+		}
+
+		//Each drop's range is placed starting at grid point 0, so the grid only has to cover the sum of the
+		//widths of the ranges, and the sum of the range starts is added back on at the end.
+		long copperPerBin = Math.max(1, (long) Math.ceil(span / COPPER / Math.max(maxBins - 1, 1)));
+		binWidth = copperPerBin * COPPER;
+		double[] scales = new double[count];
+		long[] offsets = new long[count];
+		long start = 0;
+		long points = 1;
+		for(int i = 0; i < count; i++)
+		{
+			scales[i] = values[i] / binWidth;
+			offsets[i] = Math.round(firstDrop[i] * scales[i]);
+			start += offsets[i];
+			points += Math.round(lastDrop[i] * scales[i]) - offsets[i];
+		}
+		long[] poolOffsets = new long[poolCount];
+		for(int i = 0; i < poolCount; i++)
+		{
+			poolOffsets[i] = (long) Math.floor(poolLow[i] / binWidth);
+			start += poolOffsets[i];
+			points += (long) Math.ceil(poolHigh[i] / binWidth) - poolOffsets[i] + 1;
+		}
+
+		FastFourierTransform fft = new FastFourierTransform(FastFourierTransform.nextPowerOfTwo(Math.toIntExact(points)));
+		int size = fft.getSize();
+		double[] totalReal = new double[size];
+		double[] totalImaginary = new double[size];
+		double[] real = new double[size];
+		double[] imaginary = new double[size];
+		totalReal[0] = 1;
+		fft.transform(totalReal, totalImaginary);
+
+		for(int i = 0; i < count; i++)
+		{
+			Arrays.fill(real, 0);
+			Arrays.fill(imaginary, 0);
+			placeBinomial(real, scales[i], offsets[i], kills[i], rates[i], firstDrop[i], lastDrop[i]);
+			fft.transform(real, imaginary);
+			for(int j = 0; j < size; j++)
+			{
+				double product = totalReal[j] * real[j] - totalImaginary[j] * imaginary[j];
+				totalImaginary[j] = totalReal[j] * imaginary[j] + totalImaginary[j] * real[j];
+				totalReal[j] = product;
+			}
+		}
+		for(int i = 0; i < poolCount; i++)
+		{
+			Arrays.fill(real, 0);
+			Arrays.fill(imaginary, 0);
+			placeRoll(real, rolls[i], binWidth);
+			fft.transform(real, imaginary);
+			for(int j = 0; j < size; j++)
+			{
+				//Raise the single roll to the number of kills, then shift the sum down by the pool's offset.
+				double magnitude = Math.pow(Math.hypot(real[j], imaginary[j]), poolKills[i]);
+				double angle = Math.atan2(imaginary[j], real[j]) * poolKills[i]
+						+ 2 * Math.PI * (double) Math.floorMod(poolOffsets[i] % size * j, (long) size) / size;
+				double powerReal = magnitude * Math.cos(angle);
+				double powerImaginary = magnitude * Math.sin(angle);
+				double product = totalReal[j] * powerReal - totalImaginary[j] * powerImaginary;
+				totalImaginary[j] = totalReal[j] * powerImaginary + totalImaginary[j] * powerReal;
+				totalReal[j] = product;
+			}
+		}
+		fft.inverse(totalReal, totalImaginary);
+
+		//Rounding in the transforms leaves noise around 1e-16 of the largest probability on every grid point, including
+		//tiny negatives. Those are clamped to 0, but no positive point is dropped however small, since the far tail of
+		//a rare drop is real, and the chances are kept as they are rather than scaled up to make up for the clamping.
+		DiscreteDistributionBuilder builder = new DiscreteDistributionBuilder();
+		for(int j = 0; j < size; j++)
+		{
+			if(totalReal[j] > 0)
+			{
+				builder.add((start + j) * binWidth, totalReal[j]);
+			}
+		}
+		distribution = builder.build(false);
+	}
+
+	/**
+	 * Returns the distribution of gold obtained.
+	 * @return
+	 * 		The distribution of gold obtained.
+	 */
+	public DiscreteDistribution getDistribution()
+	{
+		return distribution;
+	}
+
+	/**
+	 * Returns the width in gold of each step of the grid the distribution was computed on.
+	 * @return
+	 * 		The width in gold of each grid step.
+	 */
+	public double getBinWidth()
+	{
+		return binWidth;
+	}
+
+	/**
+	 * Writes the chances of one roll of a loot pool onto the grid. Each value is split between the grid points either
+	 * side of it in proportion to how close it is, so the average is kept exactly. Positions wrap around the end of
+	 * the grid, which the cyclic convolution undoes once the pool's offset is taken off.
+	 * @param grid
+	 * 		The grid to write into.
+	 * @param roll
+	 * 		The distribution of the gold from one roll of the pool.
+	 * @param width
+	 * 		The width in gold of each grid step.
+	 */
+	private static void placeRoll(double[] grid, DiscreteDistribution roll, double width)
+	{
+		int size = grid.length;
+		for(int index = 0; index < roll.size(); index++)
+		{
+			double position = roll.getValue(index) / width;
+			long below = (long) Math.floor(position);
+			double above = position - below;
+			double chance = roll.getChance(index);
+			grid[(int) Math.floorMod(below, (long) size)] += chance * (1 - above);
+			grid[(int) Math.floorMod(below + 1, (long) size)] += chance * above;
+		}
+	}
+
+	/**
+	 * Writes the Binomial probabilities of first to last drops onto the grid. k drops are worth k * scale grid steps,
+	 * rounded on the total rather than per drop so the rounding never builds up, and less offset so that first lands
+	 * near grid point 0. Starts from the mode in log space and walks outwards, as Binomial does.
+	 * @param grid
+	 * 		The grid to write into.
+	 * @param scale
+	 * 		The number of grid steps one drop is worth.
+	 * @param offset
+	 * 		The grid step that first drops lands on, subtracted from every position.
+	 * @param kills
+	 * 		The number of kills.
+	 * @param rate
+	 * 		The drop chance.
+	 * @param first
+	 * 		The smallest number of drops to write.
+	 * @param last
+	 * 		The largest number of drops to write.
+	 */
+	private static void placeBinomial(double[] grid, double scale, long offset, int kills, double rate, int first, int last)
+	{
+		if(rate >= 1)
+		{
+			grid[(int) (Math.round(kills * scale) - offset)] += 1;
+			return;
+		}
+		int mode = (int) Math.max(first, Math.min(Math.floor((kills + 1) * rate), last));
+		double odds = rate / (1 - rate);
+		double peak = Math.exp(SupplementalMath.logChoose(kills, mode) + mode * Math.log(rate) + (kills - mode) * Math.log1p(-rate));
+		grid[(int) (Math.round(mode * scale) - offset)] += peak;
+		double term = peak;
+		for(int k = mode; k < last; k++)
+		{
+			term *= ((double) (kills - k) / (k + 1)) * odds;
+			grid[(int) (Math.round((k + 1) * scale) - offset)] += term;
+		}
+		term = peak;
+		for(int k = mode; k > first; k--)
+		{
+			term *= ((double) k / (kills - k + 1)) / odds;
+			grid[(int) (Math.round((k - 1) * scale) - offset)] += term;
+		}
+	}
+}
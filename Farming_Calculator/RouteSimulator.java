@@ -0,0 +1,236 @@
+package dropRateCalculator;
+import java.util.SplittableRandom;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+import probability.AliasSampler;
+
+/**
+ * Monte Carlo simulator that plays a farming route over and over, rolling every drop of every creature killed,
+ * to measure the spread of the gold it makes rather than only its average. Each loot pool is rolled once per kill
+ * with an alias table, so a pool costs the same however many drops it holds.
+ * Repetitions are split across cores with fork/join. The work is always split into the same blocks, each with its own
+ * SplittableRandom stream split off in a fixed order, so a given seed gives the same results on any number of threads.
+ * The route is copied when the simulator is constructed, so later edits to it do not affect the simulator.
+ */
+public class RouteSimulator
+{
+	/**
+	 * The most repetitions a single task simulates before it is split in two.
+	 */
+	private static final int BLOCK_SIZE = 4096;
+
+	/**
+	 * The number of each creature killed per repetition.
+	 */
+	private int[] kills;
+
+	/**
+	 * The drops of creature c are stored from firstDrop[c] up to firstDrop[c + 1].
+	 */
+	private int[] firstDrop;
+
+	/**
+	 * The drop chance of each drop.
+	 */
+	private double[] rates;
+
+	/**
+	 * The gold value of each drop.
+	 */
+	private double[] values;
+
+	/**
+	 * The loot pools of creature c are stored from firstPool[c] up to firstPool[c + 1].
+	 */
+	private int[] firstPool;
+
+	/**
+	 * A sampler for the gold from one roll of each loot pool.
+	 */
+	private AliasSampler[] pools;
+
+	/**
+	 * The number of kills in one repetition of the route.
+	 */
+	private long killsPerRoute;
+
+	/**
+	 * The seed the random streams are split from.
+	 */
+	private long seed;
+
+	/**
+	 * The pool the simulation runs on.
+	 */
+	private ForkJoinPool pool;
+
+	/**
+	 * Constructs a simulator for the given route that runs on the common fork/join pool.
+	 * @param route
+	 * 		The farming route to simulate.
+	 * @param randomSeed
+	 * 		The seed for the random numbers. The same seed always gives the same results.
+	 */
+	public RouteSimulator(Route route, long randomSeed)
+	{
+		this(route, randomSeed, ForkJoinPool.commonPool());
+	}
+
+	/**
+	 * Constructs a simulator for the given route that runs on the given pool.
+	 * @param route
+	 * 		The farming route to simulate.
+	 * @param randomSeed
+	 * 		The seed for the random numbers. The same seed always gives the same results.
+	 * @param forkJoinPool
+	 * 		The pool to run the simulation on.
+	 */
+	public RouteSimulator(Route route, long randomSeed, ForkJoinPool forkJoinPool)
+	{
+		seed = randomSeed;
+		pool = forkJoinPool;
+
+		int creatures = route.getCreatures().size();
+		int drops = 0;
+		int poolCount = 0;
+		for(Creature creat : route.getCreatures())
+		{
+			drops += creat.getDrops().size();
+			poolCount += creat.getLootPools().size();
+		}
+		kills = new int[creatures];
+		firstDrop = new int[creatures + 1];
+		rates = new double[drops];
+		values = new double[drops];
+		firstPool = new int[creatures + 1];
+		pools = new AliasSampler[poolCount];
+
+		int drop = 0;
+		int poolIndex = 0;
+		for(int c = 0; c < creatures; c++)
+		{
+			Creature creat = route.getCreatures().get(c);
+			kills[c] = creat.getNumInRoute();
+			killsPerRoute += creat.getNumInRoute();
+			firstDrop[c] = drop;
+			for(Drop item : creat.getDrops())
+			{
+				rates[drop] = item.getRate();
+				values[drop] = item.getVal();
+				drop++;
+			}
+			firstPool[c] = poolIndex;
+			for(LootPool table : creat.getLootPools())
+			{
+				pools[poolIndex] = table.sampler();
+				poolIndex++;
+			}
+		}
+		firstDrop[creatures] = drop;
+		firstPool[creatures] = poolIndex;
+	}
+
+	/**
+	 * Simulates the given number of repetitions of the route.
+	 * @param repetitions
+	 * 		The number of times to run the route.
+	 * @return
+	 * 		The gold made by each repetition, with summary statistics.
+	 */
+	public SimulationResult run(int repetitions)
+	{
+		double[] gold = new double[repetitions];
+		long start = System.nanoTime();
+		pool.invoke(new Block(gold, 0, repetitions, new SplittableRandom(seed)));
+		long elapsed = System.nanoTime() - start;
+		return new SimulationResult(gold, killsPerRoute * repetitions, elapsed);
+	}
+
+	/**
+	 * Simulates a single repetition of the route.
+	 * @param random
+	 * 		The random stream to roll drops from.
+	 * @return
+	 * 		The gold made.
+	 */
+	private double runOnce(SplittableRandom random)
+	{
+		double gold = 0;
+		for(int c = 0; c < kills.length; c++)
+		{
+			int first = firstDrop[c];
+			int last = firstDrop[c + 1];
+			int lastPool = firstPool[c + 1];
+			for(int kill = 0; kill < kills[c]; kill++)
+			{
+				for(int drop = first; drop < last; drop++)
+				{
+					if(random.nextDouble() < rates[drop])
+					{
+						gold += values[drop];
+					}
+				}
+				for(int poolIndex = firstPool[c]; poolIndex < lastPool; poolIndex++)
+				{
+					gold += pools[poolIndex].sample(random);
+				}
+			}
+		}
+		return gold;
+	}
+
+	/**
+	 * A block of repetitions, split in half until it is small enough to simulate directly.
+	 */
+	private class Block extends RecursiveAction
+	{
+		private static final long serialVersionUID = 1L;
+
+		/**
+		 * Where each repetition's gold is written.
+		 */
+		private final double[] gold;
+
+		/**
+		 * The first repetition in the block.
+		 */
+		private final int from;
+
+		/**
+		 * One past the last repetition in the block.
+		 */
+		private final int to;
+
+		/**
+		 * The random stream owned by this block.
+		 */
+		private final SplittableRandom random;
+
+		Block(double[] gold, int from, int to, SplittableRandom random)
+		{
+			this.gold = gold;
+			this.from = from;
+			this.to = to;
+			this.random = random;
+		}
+
+		@Override
+		protected void compute()
+		{
+			if(to - from <= BLOCK_SIZE)
+			{
+				for(int rep = from; rep < to; rep++)
+				{
+					gold[rep] = runOnce(random);
+				}
+				return;
+			}
+			int middle = (from + to) >>> 1;
+			//Split before forking so the streams depend only on the block, not on which thread runs it.
+			Block left = new Block(gold, from, middle, random.split());
+			Block right = new Block(gold, middle, to, random);
+			invokeAll(left, right);
+		}
+	}
+}
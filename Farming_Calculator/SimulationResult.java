@@ -0,0 +1,227 @@
+package dropRateCalculator;
+import java.util.Arrays;
+
+/**
+ * The outcome of a RouteSimulator run: the gold made by every simulated repetition of the route,
+ * summary statistics over them, and how fast the simulation ran.
+ */
+public class SimulationResult
+{
+	/**
+	 * The gold made by each repetition, sorted in increasing order.
+	 */
+	private double[] gold;
+
+	/**
+	 * The average gold per repetition.
+	 */
+	private double mean;
+
+	/**
+	 * The variance of the gold per repetition.
+	 */
+	private double variance;
+
+	/**
+	 * The number of creature kills simulated.
+	 */
+	private long killsSimulated;
+
+	/**
+	 * The wall clock time the simulation took, in nanoseconds.
+	 */
+	private long elapsedNanos;
+
+	/**
+	 * Constructs a result from the gold made by each repetition.
+	 * @param repetitionGold
+	 * 		The gold made by each repetition. Sorted in place.
+	 * @param kills
+	 * 		The number of creature kills simulated.
+	 * @param nanos
+	 * 		The wall clock time the simulation took, in nanoseconds.
+	 */
+	SimulationResult(double[] repetitionGold, long kills, long nanos)
+	{
+		gold = repetitionGold;
+		killsSimulated = kills;
+		elapsedNanos = nanos;
+		Arrays.sort(gold);
+
+		double total = 0;
+		for(double amount : gold)
+		{
+			total += amount;
+		}
+		mean = gold.length == 0 ? 0 : total / gold.length;
+		double squares = 0;
+		for(double amount : gold)
+		{
+			squares += (amount - mean) * (amount - mean);
+		}
+		variance = gold.length < 2 ? 0 : squares / (gold.length - 1);
+	}
+
+	/**
+	 * Returns the number of repetitions simulated.
+	 * @return
+	 * 		The number of repetitions simulated.
+	 */
+	public int getRepetitions()
+	{
+		return gold.length;
+	}
+
+	/**
+	 * Returns the average gold made per repetition of the route.
+	 * @return
+	 * 		The average gold per repetition.
+	 */
+	public double mean()
+	{
+		return mean;
+	}
+
+	/**
+	 * Returns the sample variance of the gold made per repetition of the route.
+	 * @return
+	 * 		The variance of the gold per repetition.
+	 */
+	public double variance()
+	{
+		return variance;
+	}
+
+	/**
+	 * Returns the sample standard deviation of the gold made per repetition of the route.
+	 * @return
+	 * 		The standard deviation of the gold per repetition.
+	 */
+	public double standardDeviation()
+	{
+		return Math.sqrt(variance);
+	}
+
+	/**
+	 * Returns the least gold made by any repetition.
+	 * @return
+	 * 		The least gold made by any repetition.
+	 */
+	public double minimum()
+	{
+		return gold.length == 0 ? 0 : gold[0];
+	}
+
+	/**
+	 * Returns the most gold made by any repetition.
+	 * @return
+	 * 		The most gold made by any repetition.
+	 */
+	public double maximum()
+	{
+		return gold.length == 0 ? 0 : gold[gold.length - 1];
+	}
+
+	/**
+	 * Returns the gold amount below which the given fraction of repetitions fall, interpolating between repetitions.
+	 * @param fraction
+	 * 		The fraction of repetitions, from 0 to 1. 0.5 gives the median.
+	 * @return
+	 * 		The gold amount at that percentile.
+	 */
+	public double percentile(double fraction)
+	{
+		if(gold.length == 0)
+		{
+			return 0;
+		}
+		double position = Math.min(Math.max(fraction, 0), 1) * (gold.length - 1);
+		int below = (int) position;
+		if(below + 1 >= gold.length)
+		{
+			return gold[gold.length - 1];
+		}
+		return gold[below] + (position - below) * (gold[below + 1] - gold[below]);
+	}
+
+	/**
+	 * Returns the average gold made in the given amount of time, as Route.gldPerTime does.
+	 * @param time
+	 * 		The amount of time each repetition of the route takes.
+	 * @return
+	 * 		The average gold made per unit of time.
+	 */
+	public double meanPerTime(double time)
+	{
+		return mean / time;
+	}
+
+	/**
+	 * Returns the gold per unit of time below which the given fraction of repetitions fall.
+	 * @param fraction
+	 * 		The fraction of repetitions, from 0 to 1.
+	 * @param time
+	 * 		The amount of time each repetition of the route takes.
+	 * @return
+	 * 		The gold per unit of time at that percentile.
+	 */
+	public double percentilePerTime(double fraction, double time)
+	{
+		return percentile(fraction) / time;
+	}
+
+	/**
+	 * Counts the repetitions falling in each of the given number of equal width bins from the minimum to the maximum gold.
+	 * Bin i covers minimum() + i * width up to the next bin, where width is (maximum() - minimum()) / bins.
+	 * @param bins
+	 * 		The number of bins.
+	 * @return
+	 * 		The number of repetitions in each bin.
+	 */
+	public long[] histogram(int bins)
+	{
+		long[] counts = new long[bins];
+		if(gold.length == 0)
+		{
+			return counts;
+		}
+		double low = minimum();
+		double width = (maximum() - low) / bins;
+		for(double amount : gold)
+		{
+			int bin = width > 0 ? (int) ((amount - low) / width) : 0;
+			counts[Math.min(bin, bins - 1)]++;
+		}
+		return counts;
+	}
+
+	/**
+	 * Returns the number of creature kills simulated.
+	 * @return
+	 * 		The number of creature kills simulated.
+	 */
+	public long getKillsSimulated()
+	{
+		return killsSimulated;
+	}
+
+	/**
+	 * Returns the wall clock time the simulation took, in seconds.
+	 * @return
+	 * 		The time the simulation took, in seconds.
+	 */
+	public double getElapsedSeconds()
+	{
+		return elapsedNanos / 1e9;
+	}
+
+	/**
+	 * Returns the simulation throughput, for sizing runs.
+	 * @return
+	 * 		The number of creature kills simulated per second.
+	 */
+	public double killsPerSecond()
+	{
+		return elapsedNanos == 0 ? 0 : killsSimulated / getElapsedSeconds();
+	}
+}
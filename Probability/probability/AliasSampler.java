@@ -0,0 +1,209 @@
+package probability;
+
+import java.util.SplittableRandom;
+import java.util.random.RandomGenerator;
+
+/**
+ * Draws random outcomes from a discrete distribution in constant time per draw, using Vose's alias method.
+ * The outcomes are split into equal width columns, each holding at most two outcomes, so a draw
+ * is one random number: which column, and which side of the column's split it lands on.
+ * The sampler copies what it needs, so later changes to the distribution do not affect it.
+ */
+public class AliasSampler
+{
+	/**
+	 * The value of the outcome that owns the bottom of each column. Column i's bottom always belongs to outcome i.
+	 */
+	private double[] values;
+
+	/**
+	 * The index, in the distribution, of the outcome that owns the top of each column.
+	 */
+	private int[] aliases;
+
+	/**
+	 * The value of the outcome that owns the top of each column.
+	 */
+	private double[] aliasValues;
+
+	/**
+	 * The fraction of each column owned by its bottom outcome.
+	 */
+	private double[] splits;
+
+	/**
+	 * The generator used when none is given.
+	 */
+	private RandomGenerator generator;
+
+	/**
+	 * Constructs a sampler for the given distribution, drawing from its own randomly seeded generator.
+	 * @param distribution
+	 * 		The distribution to sample from. Its chances need not sum to 1.
+	 */
+	public AliasSampler(DiscreteDistribution distribution)
+	{
+		this(distribution, new SplittableRandom());
+	}
+
+	/**
+	 * Constructs a sampler for the given distribution, drawing from the given generator when none is passed to sample.
+	 * @param distribution
+	 * 		The distribution to sample from. Its chances need not sum to 1.
+	 * @param random
+	 * 		The default generator.
+	 */
+	public AliasSampler(DiscreteDistribution distribution, RandomGenerator random)
+	{
+		generator = random;
+		int size = distribution.size();
+		if(size == 0)
+		{
+			throw new IllegalArgumentException("Can not sample from a distribution with no outcomes.");
+		}
+		values = new double[size];
+		aliasValues = new double[size];
+		aliases = new int[size];
+		splits = new double[size];
+
+		double total = 0;
+		for(int index = 0; index < size; index++)
+		{
+			total += Math.max(distribution.getChance(index), 0);
+		}
+
+		//Scale each chance so the average is 1, then pair each under-full column with an over-full outcome.
+		double[] scaled = new double[size];
+		int[] small = new int[size];
+		int[] large = new int[size];
+		int smallCount = 0;
+		int largeCount = 0;
+		for(int index = 0; index < size; index++)
+		{
+			scaled[index] = total > 0 ? Math.max(distribution.getChance(index), 0) * size / total : 1;
+			if(scaled[index] < 1)
+			{
+				small[smallCount++] = index;
+			}
+			else
+			{
+				large[largeCount++] = index;
+			}
+		}
+
+		while(smallCount > 0 && largeCount > 0)
+		{
+			int under = small[--smallCount];
+			int over = large[--largeCount];
+			splits[under] = scaled[under];
+			aliases[under] = over;
+			scaled[over] = (scaled[over] + scaled[under]) - 1;
+			if(scaled[over] < 1)
+			{
+				small[smallCount++] = over;
+			}
+			else
+			{
+				large[largeCount++] = over;
+			}
+		}
+		//Whatever is left is full up to rounding.
+		while(largeCount > 0)
+		{
+			int full = large[--largeCount];
+			splits[full] = 1;
+			aliases[full] = full;
+		}
+		while(smallCount > 0)
+		{
+			int full = small[--smallCount];
+			splits[full] = 1;
+			aliases[full] = full;
+		}
+
+		for(int index = 0; index < size; index++)
+		{
+			values[index] = distribution.getValue(index);
+		}
+		for(int index = 0; index < size; index++)
+		{
+			aliasValues[index] = values[aliases[index]];
+		}
+	}
+
+	/**
+	 * Returns the number of outcomes that can be drawn.
+	 * @return
+	 * 		The number of outcomes.
+	 */
+	public int size()
+	{
+		return values.length;
+	}
+
+	/**
+	 * Draws the index, in the distribution, of a random outcome.
+	 * @param random
+	 * 		The generator to draw from.
+	 * @return
+	 * 		The index of the drawn outcome.
+	 */
+	public int sampleIndex(RandomGenerator random)
+	{
+		double scaled = random.nextDouble() * values.length;
+		int column = (int) scaled;
+		return (scaled - column) < splits[column] ? column : aliases[column];
+	}
+
+	/**
+	 * Draws the value of a random outcome from the default generator.
+	 * @return
+	 * 		The value of the drawn outcome.
+	 */
+	public double sample()
+	{
+		return sample(generator);
+	}
+
+	/**
+	 * Draws the value of a random outcome.
+	 * @param random
+	 * 		The generator to draw from.
+	 * @return
+	 * 		The value of the drawn outcome.
+	 */
+	public double sample(RandomGenerator random)
+	{
+		double scaled = random.nextDouble() * values.length;
+		int column = (int) scaled;
+		return (scaled - column) < splits[column] ? values[column] : aliasValues[column];
+	}
+
+	/**
+	 * Fills the given array with values of random outcomes drawn from the default generator.
+	 * @param out
+	 * 		The array to fill.
+	 */
+	public void sample(double[] out)
+	{
+		sample(out, generator);
+	}
+
+	/**
+	 * Fills the given array with values of random outcomes, without allocating.
+	 * @param out
+	 * 		The array to fill.
+	 * @param random
+	 * 		The generator to draw from.
+	 */
+	public void sample(double[] out, RandomGenerator random)
+	{
+		int columns = values.length;
+		for(int i = 0; i < out.length; i++)
+		{
+			double scaled = random.nextDouble() * columns;
+			int column = (int) scaled;
+			out[i] = (scaled - column) < splits[column] ? values[column] : aliasValues[column];
+		}
+	}
+}
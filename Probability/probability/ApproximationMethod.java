@@ -0,0 +1,23 @@
+package probability;
+
+/**
+ * The ways a Binomial distribution can be evaluated.
+ */
+public enum ApproximationMethod
+{
+	/**
+	 * Exact evaluation from the full table of probabilities.
+	 */
+	EXACT,
+
+	/**
+	 * A Poisson distribution with the same mean, suited to many trials with a small chance.
+	 */
+	POISSON,
+
+	/**
+	 * A normal distribution with the same mean and variance, with a continuity correction,
+	 * suited to many trials with a chance that is not too close to 0 or 1.
+	 */
+	NORMAL
+}
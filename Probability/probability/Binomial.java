@@ -4,6 +4,10 @@ import supplementalMath.SupplementalMath;
 
 /**
  * Represents a Binomial Distribution.
+ * The full probability mass function is computed once, in a single pass, the first time it is needed
+ * and is then cached so that every following pdf/cdf query is a table lookup.
+ * When constructed with an error bound, huge numbers of trials are instead answered by a Poisson or normal approximation
+ * whenever a known bound on that approximation's error is within the requested bound.
  * @author Tim Schommer
  *
  */
@@ -12,11 +16,42 @@ public class Binomial extends DiscreteDistribution
 	/**
 	 * The number of trials to occur.
 	 */
-	private int trials;
+	private final int trials;
 	/**
 	 * The chance of the first of the two outcomes occurring.
 	 */
-	private double chance;
+	private final double chance;
+
+	/**
+	 * Binomials with at most this many trials are always evaluated exactly, since the table is cheap to build.
+	 */
+	private static final int EXACT_TRIALS_LIMIT = 1 << 16;
+
+	/**
+	 * The Berry-Esseen constant for identically distributed terms, bounding the error of the normal approximation.
+	 */
+	private static final double BERRY_ESSEEN = 0.4748;
+
+	/**
+	 * How the distribution is evaluated.
+	 */
+	private ApproximationMethod method;
+
+	/**
+	 * A bound on the largest error in any cdf value caused by the chosen method, 0 for exact evaluation.
+	 */
+	private double methodError;
+
+	/**
+	 * The Poisson or Normal distribution used in place of the exact values, or null when evaluated exactly.
+	 */
+	private Distribution approximation;
+
+	/**
+	 * The tables of the exact probabilities, built the first time they are needed. The tables are never changed
+	 * once built and are published together, so a thread sees either none of them or all of them.
+	 */
+	private volatile Support support;
 	
 	/**
 	 * Constructs a Binomial Distribution with the given number of trials 
@@ -30,6 +65,65 @@ public class Binomial extends DiscreteDistribution
 	{
 		trials = nTrials;
 		chance = probability;
+		method = ApproximationMethod.EXACT;
+		methodError = 0;
+	}
+
+	/**
+	 * Constructs a Binomial Distribution with the given number of trials and probability of the first outcome,
+	 * which may be evaluated by approximation. With many trials the Poisson approximation is used if its error,
+	 * bounded by p * (1 - e^(-np)), is within errorBound, or the normal approximation if its Berry-Esseen bound
+	 * 0.4748 * (p^2 + (1 - p)^2) / sqrt(np(1 - p)) is, whichever bound is smaller. Otherwise it is evaluated exactly.
+	 * @param nTrials
+	 * 		The number of times the "test" that creates the outcome will occur.
+	 * @param probability
+	 * 		The probability of the first outcome occurring.
+	 * @param errorBound
+	 * 		The largest acceptable error in any cdf value.
+	 */
+	public Binomial(int nTrials, double probability, double errorBound)
+	{
+		this(nTrials, probability);
+		if(nTrials <= EXACT_TRIALS_LIMIT || probability <= 0 || probability >= 1)
+		{
+			return;
+		}
+
+		double poissonError = probability * -Math.expm1(-nTrials * probability);
+		double normalError = BERRY_ESSEEN * (probability * probability + (1 - probability) * (1 - probability))
+				/ Math.sqrt(variance());
+		if(poissonError <= errorBound && poissonError <= normalError)
+		{
+			method = ApproximationMethod.POISSON;
+			methodError = poissonError;
+			approximation = new Poisson(expectedValue());
+		}
+		else if(normalError <= errorBound)
+		{
+			method = ApproximationMethod.NORMAL;
+			methodError = normalError;
+			approximation = new Normal(expectedValue(), Math.sqrt(variance()));
+		}
+	}
+
+	/**
+	 * Returns how the distribution is evaluated.
+	 * @return
+	 * 		EXACT, POISSON or NORMAL.
+	 */
+	public ApproximationMethod getMethod()
+	{
+		return method;
+	}
+
+	/**
+	 * Returns a bound on the largest error in any cdf value caused by how the distribution is evaluated.
+	 * @return
+	 * 		The error bound of the method used, 0 when evaluated exactly.
+	 */
+	public double getMethodError()
+	{
+		return methodError;
 	}
 	
 	
@@ -67,19 +161,355 @@ public class Binomial extends DiscreteDistribution
 		return trials * chance * (1 - chance);
 	}
 
-	
+	@Override
+	public double skewness()
+	{
+		return (1 - 2 * chance) / Math.sqrt(variance());
+	}
+
+	@Override
+	public double kurtosis()
+	{
+		return (1 - 6 * chance * (1 - chance)) / variance();
+	}
+
+	/**
+	 * The probability of exactly the given number of successes.
+	 * @param value
+	 * 		The number of successes.
+	 * @return
+	 * 		The probability of exactly value successes.
+	 */
 	public double pdf(int value) 
 	{
-		return SupplementalMath.nChooseK(trials, value) * Math.pow(chance, value) * Math.pow((1- chance), (trials - value));
+		if(value < 0 || value > trials)
+		{
+			return 0;
+		}
+		if(method == ApproximationMethod.POISSON)
+		{
+			return approximation.pdf(value);
+		}
+		else if(method == ApproximationMethod.NORMAL)
+		{
+			//Continuity correction: value stands for the interval from value - 0.5 to value + 0.5.
+			//Taken from whichever tail is smaller, so the difference keeps its precision.
+			if(value < expectedValue())
+			{
+				return approximation.cdf(value + 0.5) - approximation.cdf(value - 0.5);
+			}
+			return approximation.greaterThan(value - 0.5) - approximation.greaterThan(value + 0.5);
+		}
+		return buildSupport().mass[value];
 	}
 
+	/**
+	 * The probability of the given number of successes or fewer.
+	 * @param value
+	 * 		The number of successes.
+	 * @return
+	 * 		The probability of value or fewer successes.
+	 */
 	public double cdf(int value) 
 	{
-		double total = 0;
-		for(int i = 0; i <= value; i++)
+		if(value < 0)
+		{
+			return 0;
+		}
+		else if(value >= trials)
+		{
+			return 1;
+		}
+		if(method == ApproximationMethod.POISSON)
+		{
+			return approximation.cdf(value);
+		}
+		else if(method == ApproximationMethod.NORMAL)
+		{
+			return approximation.cdf(value + 0.5);
+		}
+		return buildSupport().cumulative[value];
+	}
+
+	/**
+	 * The probability of the given number of successes or more.
+	 * @param value
+	 * 		The number of successes.
+	 * @return
+	 * 		The probability of value or more successes.
+	 */
+	public double greaterOrEqual(int value)
+	{
+		if(value <= 0)
+		{
+			return 1;
+		}
+		else if(value > trials)
+		{
+			return 0;
+		}
+		if(method == ApproximationMethod.POISSON)
+		{
+			return approximation.greaterOrEqual(value);
+		}
+		else if(method == ApproximationMethod.NORMAL)
+		{
+			return approximation.greaterThan(value - 0.5);
+		}
+		return buildSupport().upperTail[value];
+	}
+
+	@Override
+	public double pdf(double value)
+	{
+		if(value != Math.floor(value))
+		{
+			return 0;
+		}
+		return pdf(clamp(value));
+	}
+
+	@Override
+	public double cdf(double value)
+	{
+		return cdf(clamp(Math.floor(value)));
+	}
+
+	@Override
+	public double lessThan(double value)
+	{
+		return cdf(clamp(Math.ceil(value) - 1));
+	}
+
+	@Override
+	public double greaterOrEqual(double value)
+	{
+		return greaterOrEqual(clamp(Math.ceil(value)));
+	}
+
+	@Override
+	public double greaterThan(double value)
+	{
+		return greaterOrEqual(clamp(Math.floor(value) + 1));
+	}
+
+	/**
+	 * Finds the smallest number of successes that the given chance of outcomes fall at or below,
+	 * by bisection on the cdf.
+	 * @param chance
+	 * 		The desired chance, from 0 to 1.
+	 * @return
+	 * 		The smallest number of successes whose cdf is at least chance.
+	 */
+	@Override
+	public double quantile(double chance)
+	{
+		//cdf(low) is always short of chance and cdf(high) never is.
+		int low = -1;
+		int high = trials;
+		while(high - low > 1)
+		{
+			int middle = (int) (((long) low + high) >>> 1);
+			if(cdf(middle) >= chance)
+			{
+				high = middle;
+			}
+			else
+			{
+				low = middle;
+			}
+		}
+		return high;
+	}
+
+	/**
+	 * The probability of each of the values occurring. When evaluated exactly the table is built once up front
+	 * and each value is a single lookup.
+	 */
+	@Override
+	public void pdf(double[] in, double[] out)
+	{
+		if(method != ApproximationMethod.EXACT)
+		{
+			for(int i = 0; i < in.length; i++)
+			{
+				out[i] = pdf(in[i]);
+			}
+			return;
+		}
+		double[] table = buildSupport().mass;
+		for(int i = 0; i < in.length; i++)
+		{
+			double value = in[i];
+			out[i] = (value >= 0 && value <= trials && value == Math.floor(value)) ? table[(int) value] : 0;
+		}
+	}
+
+	/**
+	 * The probability of a value less than or equal to each of the values occurring.
+	 * When evaluated exactly each value is a single lookup.
+	 */
+	@Override
+	public void cdf(double[] in, double[] out)
+	{
+		if(method != ApproximationMethod.EXACT)
+		{
+			for(int i = 0; i < in.length; i++)
+			{
+				out[i] = cdf(in[i]);
+			}
+			return;
+		}
+		double[] table = buildSupport().cumulative;
+		for(int i = 0; i < in.length; i++)
+		{
+			double value = Math.floor(in[i]);
+			out[i] = value < 0 ? 0 : (value >= trials ? 1 : table[(int) value]);
+		}
+	}
+
+	/**
+	 * The probability of a value greater than each of the values occurring.
+	 * When evaluated exactly each value is a single lookup in the upper tail table.
+	 */
+	@Override
+	public void greaterThan(double[] in, double[] out)
+	{
+		if(method != ApproximationMethod.EXACT)
+		{
+			for(int i = 0; i < in.length; i++)
+			{
+				out[i] = greaterThan(in[i]);
+			}
+			return;
+		}
+		double[] table = buildSupport().upperTail;
+		for(int i = 0; i < in.length; i++)
+		{
+			double value = Math.floor(in[i]) + 1;
+			out[i] = value <= 0 ? 1 : (value > trials ? 0 : table[(int) value]);
+		}
+	}
+
+	/**
+	 * Converts a whole number stored in a double to an int,
+	 * pinning it just outside the support so that it can not overflow.
+	 * @param value
+	 * 		The whole number to convert.
+	 * @return
+	 * 		The value as an int between -1 and trials + 1.
+	 */
+	private int clamp(double value)
+	{
+		if(value < 0)
+		{
+			return -1;
+		}
+		else if(value > trials)
+		{
+			return trials + 1;
+		}
+		return (int) value;
+	}
+
+	/**
+	 * Computes the probability of every number of successes from 0 to trials, along with the running totals from
+	 * both ends, in one linear pass, unless they have already been computed.
+	 * @return
+	 * 		The tables.
+	 */
+	private Support buildSupport()
+	{
+		Support built = support;
+		if(built != null)
+		{
+			return built;
+		}
+
+		double[] pmf = new double[trials + 1];
+		if(chance <= 0)
+		{
+			pmf[0] = 1;
+		}
+		else if(chance >= 1)
+		{
+			pmf[trials] = 1;
+		}
+		else
+		{
+			//Anchor at the mode, the largest term, using the log space choose, then walk outwards with
+			//P(k + 1) = P(k) * (n - k) / (k + 1) * p / (1 - p). The terms only shrink away from the mode,
+			//so the walk can only underflow harmlessly to 0 in the far tails.
+			int mode = (int) Math.min(Math.floor((trials + 1) * chance), trials);
+			double odds = chance / (1 - chance);
+			pmf[mode] = Math.exp(SupplementalMath.logChoose(trials, mode) + mode * Math.log(chance) + (trials - mode) * Math.log1p(-chance));
+			for(int k = mode; k < trials; k++)
+			{
+				pmf[k + 1] = pmf[k] * ((double) (trials - k) / (k + 1)) * odds;
+			}
+			for(int k = mode; k > 0; k--)
+			{
+				pmf[k - 1] = pmf[k] * ((double) k / (trials - k + 1)) / odds;
+			}
+
+			//Renormalize away the rounding in the anchor and the walk.
+			double total = 0;
+			for(int k = 0; k <= trials; k++)
+			{
+				total += pmf[k];
+			}
+			for(int k = 0; k <= trials; k++)
+			{
+				pmf[k] /= total;
+			}
+		}
+
+		double[] lower = new double[trials + 1];
+		double[] upper = new double[trials + 1];
+		double running = 0;
+		for(int k = 0; k <= trials; k++)
+		{
+			running += pmf[k];
+			lower[k] = Math.min(running, 1);
+		}
+		running = 0;
+		for(int k = trials; k >= 0; k--)
+		{
+			running += pmf[k];
+			upper[k] = Math.min(running, 1);
+		}
+
+		built = new Support(pmf, lower, upper);
+		support = built;
+		return built;
+	}
+
+	/**
+	 * The exact probability tables of a Binomial distribution, built together and never changed after.
+	 */
+	private static final class Support
+	{
+		/**
+		 * The probability of each number of successes from 0 to trials.
+		 */
+		final double[] mass;
+
+		/**
+		 * cumulative[k] holds the probability of k or fewer successes.
+		 */
+		final double[] cumulative;
+
+		/**
+		 * upperTail[k] holds the probability of k or more successes.
+		 * Summed from the top so that small tail probabilities keep their precision.
+		 */
+		final double[] upperTail;
+
+		Support(double[] pmf, double[] lower, double[] upper)
 		{
-			total += pdf(value);
+			mass = pmf;
+			cumulative = lower;
+			upperTail = upper;
 		}
-		return total;	
 	}
 }
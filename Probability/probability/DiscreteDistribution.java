@@ -1,30 +1,97 @@
 package probability;
 
-import java.util.ArrayList;
-import java.util.Collections;
+import java.util.Arrays;
+
+import supplementalMath.Summation;
 
 /**
  * Class representing a discrete probability distribution.
+ * Outcomes are stored sorted by value in parallel primitive arrays, with a running total of the chances
+ * built on demand so that pdf and cdf queries are binary searches.
  * @author Tim Schommer
  *
  */
 public class DiscreteDistribution implements Distribution 
 {
 	/**
-	 * List of possible outcomes in a discrete distribution.
+	 * Shared empty array used before any outcomes are added.
+	 */
+	private static final double[] EMPTY = new double[0];
+
+	/**
+	 * The values of the possible outcomes, sorted in increasing order. Only the first size entries are in use.
+	 */
+	private double[] values;
+
+	/**
+	 * The chance of each outcome, parallel to values.
+	 */
+	private double[] chances;
+
+	/**
+	 * The number of outcomes in the distribution.
 	 */
-	private ArrayList<Outcome> outcomes;
+	private int size;
+
+	/**
+	 * The running totals and moments of the outcomes. Set to null whenever the outcomes change and rebuilt
+	 * on the next query. The summary can not be changed once built, so a frozen distribution can be queried
+	 * from several threads at once: each sees either no summary or a whole one.
+	 */
+	private volatile Summary summary;
+	
+	/**
+	 * Whether the outcomes are fixed. A frozen distribution ignores addOutcome and removeOutcome.
+	 */
+	private boolean frozen;
 	
 	/**
 	 * Basic constructor for a discrete distribution. Constructs with an empty list of outcomes.
 	 */
 	public DiscreteDistribution()
 	{
-		outcomes = new ArrayList<>();
+		values = EMPTY;
+		chances = EMPTY;
+		size = 0;
+	}
+	
+	/**
+	 * Constructs a frozen distribution directly from outcomes that are already sorted by value.
+	 * The arrays are used as they are, not copied. Used by DiscreteDistributionBuilder.
+	 * @param sortedValues
+	 * 		The values of the outcomes, in increasing order.
+	 * @param sortedChances
+	 * 		The chance of each outcome, parallel to sortedValues.
+	 * @param count
+	 * 		The number of entries of the arrays that are in use.
+	 */
+	DiscreteDistribution(double[] sortedValues, double[] sortedChances, int count)
+	{
+		values = sortedValues;
+		chances = sortedChances;
+		size = count;
+		frozen = true;
+	}
+
+	/**
+	 * Builds a frozen distribution from arrays of values and their chances in one pass,
+	 * sorting once, merging duplicate values and normalizing the chances to sum to 1.
+	 * @param values
+	 * 		The values of the outcomes, in any order.
+	 * @param probabilities
+	 * 		The chance of each outcome, parallel to values.
+	 * @return
+	 * 		The frozen distribution.
+	 */
+	public static DiscreteDistribution fromArrays(double[] values, double[] probabilities)
+	{
+		return new DiscreteDistributionBuilder(values.length).addAll(values, probabilities).build();
 	}
 	
 	/**
 	 * Adds an outcome to the list of outcomes and places it in its sorted position.
+	 * Outcomes with equal values keep the order they were added in. Each insert shifts the outcomes after it,
+	 * so large distributions should be loaded through DiscreteDistributionBuilder instead.
 	 * @param value
 	 * 		The value of the outcome if it were to occur.
 	 * @param probability
@@ -32,9 +99,25 @@ public class DiscreteDistribution implements Distribution
 	 */
 	public void addOutcome(double value, double probability)
 	{
-		outcomes.add(new Outcome(value, probability));
+		if(frozen)
+		{
+			//The outcomes of a frozen distribution can not be changed.
+			return;
+		}
+		if(size == values.length)
+		{
+			int capacity = Math.max(4, size * 2);
+			values = Arrays.copyOf(values, capacity);
+			chances = Arrays.copyOf(chances, capacity);
+		}
 		
-		Collections.sort(outcomes, new SortByValue());
+		int index = upperBound(value);
+		System.arraycopy(values, index, values, index + 1, size - index);
+		System.arraycopy(chances, index, chances, index + 1, size - index);
+		values[index] = value;
+		chances[index] = probability;
+		size++;
+		summary = null;
 	}
 	
 	/**
@@ -44,46 +127,104 @@ public class DiscreteDistribution implements Distribution
 	 */
 	public void removeOutcome(int index)
 	{
-		if(index >= 0 && index < outcomes.size())
+		if(!frozen && index >= 0 && index < size)
 		{
-			outcomes.remove(index);
+			System.arraycopy(values, index + 1, values, index, size - index - 1);
+			System.arraycopy(chances, index + 1, chances, index, size - index - 1);
+			size--;
+			summary = null;
 		}
 	}
+
+	/**
+	 * Returns whether the distribution is frozen. The outcomes of a frozen distribution can not be added or removed.
+	 * @return
+	 * 		True if the distribution is frozen.
+	 */
+	public boolean isFrozen()
+	{
+		return frozen;
+	}
+
+	/**
+	 * Returns the number of outcomes in the distribution.
+	 * @return
+	 * 		The number of outcomes in the distribution.
+	 */
+	public int size()
+	{
+		return size;
+	}
+
+	/**
+	 * Returns the value of the outcome stored at the given index. Outcomes are sorted by value.
+	 * @param index
+	 * 		The index of the outcome.
+	 * @return
+	 * 		The value of the outcome.
+	 */
+	public double getValue(int index)
+	{
+		return values[index];
+	}
+
+	/**
+	 * Returns the chance of the outcome stored at the given index occurring.
+	 * @param index
+	 * 		The index of the outcome.
+	 * @return
+	 * 		The chance of the outcome occurring.
+	 */
+	public double getChance(int index)
+	{
+		return chances[index];
+	}
 	
 	@Override
 	public String toString()
 	{
-		String output = "";
+		StringBuilder output = new StringBuilder();
 		
-		for(int index = 0; index < outcomes.size(); index++)
+		for(int index = 0; index < size; index++)
 		{
-				output += index + ") value: " + outcomes.get(index).getValue() + " probability: " + outcomes.get(index).getChance() + "\n";
+				output.append(index).append(") value: ").append(values[index]).append(" probability: ").append(chances[index]).append("\n");
 		}
-		return output;
+		return output.toString();
 	}
 
 	@Override
 	public double expectedValue() 
 	{
-		double expected = 0;
-		for(Outcome outcome : outcomes)
-		{
-			//The expected value of an individual outcome is the value of the outcome multiplied by the chance of it occurring.
-			//The expected value of the discrete distribution is the sum of the expected values for each outcome.
-			expected += outcome.getValue() * outcome.getChance();
-		}
-		return expected;
+		//The expected value of an individual outcome is the value of the outcome multiplied by the chance of it occurring.
+		//The expected value of the discrete distribution is the sum of the expected values for each outcome.
+		return summarize().mean;
 	}
 
 	@Override
 	public double variance() 
 	{
-		double expected = 0;
-		for(Outcome outcome : outcomes)
-		{
-			expected += Math.pow(outcome.getValue(), 2) * outcome.getChance();
-		}
-		return expected - Math.pow(expectedValue(), 2);
+		return summarize().spread;
+	}
+
+	/**
+	 * Returns the skewness of the distribution, a measure of how lopsided it is.
+	 * Positive when there is a long tail of high values, such as a rare valuable drop.
+	 * @return
+	 * 		The skewness of the distribution.
+	 */
+	public double skewness()
+	{
+		return summarize().skew;
+	}
+
+	/**
+	 * Returns the excess kurtosis of the distribution, a measure of how heavy its tails are compared to a normal distribution.
+	 * @return
+	 * 		The excess kurtosis of the distribution, 0 for a normal distribution.
+	 */
+	public double kurtosis()
+	{
+		return summarize().excessKurtosis;
 	}
 
 	@Override
@@ -95,66 +236,313 @@ public class DiscreteDistribution implements Distribution
 	@Override
 	public double pdf(double value) 
 	{
-		for(int index = 0; index < outcomes.size(); index++)
+		int first = lowerBound(value);
+		if(first == size || values[first] != value)
 		{
-			if(outcomes.get(index).getValue() == value)
-			{
-				return outcomes.get(index).getChance();
-			}
+			return 0;
 		}
-		return 0;
+		double[] totals = cumulative();
+		return totals[upperBound(value)] - totals[first];
 	}
 
 	@Override
 	public double cdf(double value) 
 	{
-		if(value < outcomes.get(0).getValue())
+		return cumulative()[upperBound(value)];
+	}
+
+	@Override
+	public double lessThan(double value) {
+		return cumulative()[lowerBound(value)];
+	}
+
+	@Override
+	public double greaterOrEqual(double value) {
+		return 1 - lessThan(value);
+	}
+
+	@Override
+	public double greaterThan(double value) {
+		return 1 - cdf(value);
+	}
+
+	/**
+	 * The probability of each of the values occurring. When the values are in increasing order, as a sweep of thresholds
+	 * usually is, each search gallops on from where the last one ended instead of starting over.
+	 */
+	@Override
+	public void pdf(double[] in, double[] out)
+	{
+		double[] totals = cumulative();
+		int first = 0;
+		int last = 0;
+		for(int i = 0; i < in.length; i++)
 		{
-			return 0;
+			double value = in[i];
+			boolean ascending = i > 0 && value >= in[i - 1];
+			first = ascending ? gallop(first, value, false) : lowerBound(value);
+			last = ascending ? gallop(Math.max(last, first), value, true) : upperBound(value);
+			out[i] = totals[last] - totals[first];
+		}
+	}
+
+	/**
+	 * The probability of a value less than or equal to each of the values occurring. When the values are in increasing
+	 * order each search gallops on from where the last one ended instead of starting over.
+	 */
+	@Override
+	public void cdf(double[] in, double[] out)
+	{
+		double[] totals = cumulative();
+		int last = 0;
+		for(int i = 0; i < in.length; i++)
+		{
+			double value = in[i];
+			last = (i > 0 && value >= in[i - 1]) ? gallop(last, value, true) : upperBound(value);
+			out[i] = totals[last];
 		}
-		else if(value >= outcomes.get(outcomes.size() - 1).getValue())
+	}
+
+	/**
+	 * The probability of a value greater than each of the values occurring. When the values are in increasing
+	 * order each search gallops on from where the last one ended instead of starting over.
+	 */
+	@Override
+	public void greaterThan(double[] in, double[] out)
+	{
+		cdf(in, out);
+		for(int i = 0; i < in.length; i++)
 		{
-			return 1;
+			out[i] = 1 - out[i];
 		}
-		else
+	}
+
+	/**
+	 * Finds the smallest outcome that the given chance of outcomes fall at or below, for example the median for 0.5.
+	 * @param chance
+	 * 		The desired chance, from 0 to 1.
+	 * @return
+	 * 		The smallest value whose cdf is at least chance, or NaN if there are no outcomes.
+	 */
+	public double quantile(double chance)
+	{
+		if(size == 0)
 		{
-			int start = 0;
-			for(int index = 0; index < outcomes.size(); index++)
+			return Double.NaN;
+		}
+		double[] totals = cumulative();
+		//Find the first running total that reaches the chance. totals[i + 1] covers outcome i.
+		int low = 1;
+		int high = size;
+		while(low < high)
+		{
+			int middle = (low + high) >>> 1;
+			if(totals[middle] < chance)
 			{
-				if(value == outcomes.get(index).getValue())
-				{
-					start = index;
-				}
-				else if((value < outcomes.get(index).getValue()) && (value > outcomes.get(index - 1).getValue()))
-				{
-					start = index - 1;
-				}
+				low = middle + 1;
 			}
-			
-			double ret = 0;
-			for(int index = start; index >= 0; index--)
+			else
 			{
-				ret += outcomes.get(index).getChance();
+				high = middle;
 			}
-			
-			return ret;
 		}
-		
+		return values[low - 1];
 	}
 
-	@Override
-	public double lessThan(double value) {
-		return cdf(value) - pdf(value);
+	/**
+	 * Finds the outcome at each of the given chances, filling the output array.
+	 * @param chances
+	 * 		The desired chances, from 0 to 1.
+	 * @param out
+	 * 		Where the values are written, at least as long as chances.
+	 */
+	public void quantile(double[] chances, double[] out)
+	{
+		for(int i = 0; i < chances.length; i++)
+		{
+			out[i] = quantile(chances[i]);
+		}
 	}
 
-	@Override
-	public double greaterOrEqual(double value) {
-		return 1 - lessThan(value);
+	/**
+	 * Returns the running totals of the chances, rebuilding them if the outcomes have changed.
+	 * @return
+	 * 		The running totals of the chances.
+	 */
+	private double[] cumulative()
+	{
+		return summarize().cumulative;
 	}
 
-	@Override
-	public double greaterThan(double value) {
-		return 1 - cdf(value);
+	/**
+	 * Rebuilds the running totals of the chances and the mean, variance, skewness and kurtosis in one pass over the outcomes,
+	 * if the outcomes have changed since they were last built. Threads that ask at the same time may each build a summary,
+	 * but they are all the same and whichever is stored last is kept.
+	 * The powers are taken about a value from the middle of the outcomes rather than about 0, so that large gold values
+	 * do not swamp the differences between them, and every sum is compensated. Above Summation.PARALLEL_THRESHOLD
+	 * outcomes the pass is split across cores.
+	 * @return
+	 * 		The summary of the outcomes as they are now.
+	 */
+	private Summary summarize()
+	{
+		Summary built = summary;
+		if(built != null)
+		{
+			return built;
+		}
+		double[] totals = new double[size + 1];
+		double shift = size == 0 ? 0 : values[size / 2];
+		double[] sums = new double[5];
+		Summation.powerSums(values, chances, size, shift, sums, totals);
+		double sum0 = sums[0];
+		double sum1 = sums[1];
+		double sum2 = sums[2];
+		double sum3 = sums[3];
+		double sum4 = sums[4];
+
+		//Move the sums from being about the shift to being about the mean.
+		double c = sum1 - shift * (1 - sum0);
+		double c2 = c * c;
+		double second = sum2 - 2 * c * sum1 + c2 * sum0;
+		double third = sum3 - 3 * c * sum2 + 3 * c2 * sum1 - c2 * c * sum0;
+		double fourth = sum4 - 4 * c * sum3 + 6 * c2 * sum2 - 4 * c2 * c * sum1 + c2 * c2 * sum0;
+		double spread = Math.max(second, 0);
+		built = new Summary(totals, shift * sum0 + sum1, spread, spread > 0 ? third / Math.pow(spread, 1.5) : 0,
+				spread > 0 ? fourth / (spread * spread) - 3 : 0);
+		summary = built;
+		return built;
+	}
+
+	/**
+	 * Finds the index of the first outcome whose value is greater than or equal to the given value.
+	 * @param value
+	 * 		The value to search for.
+	 * @return
+	 * 		The index of the first outcome not less than value, or size if there is none.
+	 */
+	private int lowerBound(double value)
+	{
+		int low = 0;
+		int high = size;
+		while(low < high)
+		{
+			int middle = (low + high) >>> 1;
+			if(values[middle] < value)
+			{
+				low = middle + 1;
+			}
+			else
+			{
+				high = middle;
+			}
+		}
+		return low;
+	}
+
+	/**
+	 * Finds the first outcome at or after the given index whose value is greater than (or, if not strict, not less than)
+	 * the given value, by doubling the step from the start and then searching the last step.
+	 * @param from
+	 * 		The index to start from. Every outcome before it must be below the one searched for.
+	 * @param value
+	 * 		The value to search for.
+	 * @param strict
+	 * 		True to find the first value greater than value, false to find the first value not less than it.
+	 * @return
+	 * 		The index found, or size if there is none.
+	 */
+	private int gallop(int from, double value, boolean strict)
+	{
+		int low = from;
+		int step = 1;
+		int high = from;
+		while(high < size && (strict ? values[high] <= value : values[high] < value))
+		{
+			low = high + 1;
+			high = from + step;
+			step *= 2;
+		}
+		high = Math.min(high, size);
+		while(low < high)
+		{
+			int middle = (low + high) >>> 1;
+			if(strict ? values[middle] <= value : values[middle] < value)
+			{
+				low = middle + 1;
+			}
+			else
+			{
+				high = middle;
+			}
+		}
+		return low;
 	}
 
+	/**
+	 * Finds the index of the first outcome whose value is greater than the given value.
+	 * @param value
+	 * 		The value to search for.
+	 * @return
+	 * 		The index of the first outcome greater than value, or size if there is none.
+	 */
+	private int upperBound(double value)
+	{
+		int low = 0;
+		int high = size;
+		while(low < high)
+		{
+			int middle = (low + high) >>> 1;
+			if(values[middle] <= value)
+			{
+				low = middle + 1;
+			}
+			else
+			{
+				high = middle;
+			}
+		}
+		return low;
+	}
+
+	/**
+	 * The running totals of the chances and the moments of a distribution's outcomes, built together
+	 * and never changed after.
+	 */
+	private static final class Summary
+	{
+		/**
+		 * cumulative[i] holds the total chance of the first i outcomes, so it has size + 1 entries.
+		 */
+		final double[] cumulative;
+
+		/**
+		 * The expected value.
+		 */
+		final double mean;
+
+		/**
+		 * The variance.
+		 */
+		final double spread;
+
+		/**
+		 * The skewness.
+		 */
+		final double skew;
+
+		/**
+		 * The excess kurtosis.
+		 */
+		final double excessKurtosis;
+
+		Summary(double[] totals, double average, double variance, double skewness, double kurtosis)
+		{
+			cumulative = totals;
+			mean = average;
+			spread = variance;
+			skew = skewness;
+			excessKurtosis = kurtosis;
+		}
+	}
 }
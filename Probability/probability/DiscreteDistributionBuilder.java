@@ -0,0 +1,274 @@
+package probability;
+
+import java.util.Arrays;
+
+/**
+ * Collects outcomes in any order and builds them into a frozen DiscreteDistribution in one step.
+ * The outcomes are sorted once when built, outcomes sharing a value are merged into one,
+ * and the chances are normalized to sum to 1 unless the caller asks to keep them as they are.
+ */
+public class DiscreteDistributionBuilder
+{
+	/**
+	 * The values of the outcomes added so far, in the order they were added.
+	 */
+	private double[] values;
+
+	/**
+	 * The chance of each outcome added so far, parallel to values.
+	 */
+	private double[] chances;
+
+	/**
+	 * The number of outcomes added so far.
+	 */
+	private int size;
+
+	/**
+	 * Constructs an empty builder.
+	 */
+	public DiscreteDistributionBuilder()
+	{
+		this(16);
+	}
+
+	/**
+	 * Constructs an empty builder with room for the given number of outcomes before it needs to grow.
+	 * @param expectedSize
+	 * 		The number of outcomes expected to be added.
+	 */
+	public DiscreteDistributionBuilder(int expectedSize)
+	{
+		values = new double[Math.max(expectedSize, 1)];
+		chances = new double[values.length];
+		size = 0;
+	}
+
+	/**
+	 * Adds an outcome.
+	 * @param value
+	 * 		The value of the outcome if it were to occur.
+	 * @param probability
+	 * 		The chance of the outcome occurring.
+	 * @return
+	 * 		This builder.
+	 */
+	public DiscreteDistributionBuilder add(double value, double probability)
+	{
+		ensureCapacity(size + 1);
+		values[size] = value;
+		chances[size] = probability;
+		size++;
+		return this;
+	}
+
+	/**
+	 * Adds an outcome.
+	 * @param outcome
+	 * 		The outcome to add.
+	 * @return
+	 * 		This builder.
+	 */
+	public DiscreteDistributionBuilder add(Outcome outcome)
+	{
+		return add(outcome.getValue(), outcome.getChance());
+	}
+
+	/**
+	 * Adds every outcome in a pair of parallel arrays.
+	 * @param newValues
+	 * 		The values of the outcomes.
+	 * @param probabilities
+	 * 		The chance of each outcome, parallel to newValues.
+	 * @return
+	 * 		This builder.
+	 */
+	public DiscreteDistributionBuilder addAll(double[] newValues, double[] probabilities)
+	{
+		if(newValues.length != probabilities.length)
+		{
+			throw new IllegalArgumentException("Got " + newValues.length + " values but " + probabilities.length + " probabilities.");
+		}
+		ensureCapacity(size + newValues.length);
+		System.arraycopy(newValues, 0, values, size, newValues.length);
+		System.arraycopy(probabilities, 0, chances, size, probabilities.length);
+		size += newValues.length;
+		return this;
+	}
+
+	/**
+	 * Adds every outcome from the given source, such as a list or a stream's iterator.
+	 * @param outcomes
+	 * 		The outcomes to add.
+	 * @return
+	 * 		This builder.
+	 */
+	public DiscreteDistributionBuilder addAll(Iterable<Outcome> outcomes)
+	{
+		for(Outcome outcome : outcomes)
+		{
+			add(outcome);
+		}
+		return this;
+	}
+
+	/**
+	 * Returns the number of outcomes added so far, before duplicate values are merged.
+	 * @return
+	 * 		The number of outcomes added so far.
+	 */
+	public int size()
+	{
+		return size;
+	}
+
+	/**
+	 * Builds the outcomes added so far into a frozen distribution. The builder is left unchanged and can keep being used.
+	 * @return
+	 * 		The frozen distribution.
+	 */
+	public DiscreteDistribution build()
+	{
+		return build(true);
+	}
+
+	/**
+	 * Builds the outcomes added so far into a frozen distribution, optionally leaving the chances as they were added
+	 * rather than scaling them to sum to 1. The builder is left unchanged and can keep being used.
+	 * @param normalize
+	 * 		Whether to scale the chances to sum to 1.
+	 * @return
+	 * 		The frozen distribution.
+	 */
+	public DiscreteDistribution build(boolean normalize)
+	{
+		double[] sortedValues = Arrays.copyOf(values, size);
+		double[] sortedChances = Arrays.copyOf(chances, size);
+		if(!isSorted(sortedValues))
+		{
+			sort(sortedValues, sortedChances);
+		}
+
+		//Merge runs of equal values into their first entry.
+		int count = 0;
+		double total = 0;
+		for(int index = 0; index < size; index++)
+		{
+			if(count > 0 && sortedValues[count - 1] == sortedValues[index])
+			{
+				sortedChances[count - 1] += sortedChances[index];
+			}
+			else
+			{
+				sortedValues[count] = sortedValues[index];
+				sortedChances[count] = sortedChances[index];
+				count++;
+			}
+			total += sortedChances[index];
+		}
+
+		if(normalize && total > 0 && total != 1)
+		{
+			for(int index = 0; index < count; index++)
+			{
+				sortedChances[index] /= total;
+			}
+		}
+
+		if(count < size)
+		{
+			sortedValues = Arrays.copyOf(sortedValues, count);
+			sortedChances = Arrays.copyOf(sortedChances, count);
+		}
+		return new DiscreteDistribution(sortedValues, sortedChances, count);
+	}
+
+	/**
+	 * Grows the arrays so they can hold at least the given number of outcomes.
+	 * @param capacity
+	 * 		The number of outcomes that must fit.
+	 */
+	private void ensureCapacity(int capacity)
+	{
+		if(capacity > values.length)
+		{
+			int grown = Math.max(capacity, values.length * 2);
+			values = Arrays.copyOf(values, grown);
+			chances = Arrays.copyOf(chances, grown);
+		}
+	}
+
+	/**
+	 * Checks whether the given values are already in increasing order, as they often are for loaded tables.
+	 * @param sortedValues
+	 * 		The values to check.
+	 * @return
+	 * 		True if the values are in increasing order.
+	 */
+	private static boolean isSorted(double[] sortedValues)
+	{
+		for(int index = 1; index < sortedValues.length; index++)
+		{
+			if(sortedValues[index - 1] > sortedValues[index])
+			{
+				return false;
+			}
+		}
+		return true;
+	}
+
+	/**
+	 * Sorts the values into increasing order, moving the chances along with them.
+	 * A bottom up merge sort, so it is stable and does not box either array.
+	 * @param sortValues
+	 * 		The values to sort.
+	 * @param sortChances
+	 * 		The chances to reorder alongside the values.
+	 */
+	private static void sort(double[] sortValues, double[] sortChances)
+	{
+		int length = sortValues.length;
+		double[] sourceValues = sortValues;
+		double[] sourceChances = sortChances;
+		double[] targetValues = new double[length];
+		double[] targetChances = new double[length];
+
+		for(int width = 1; width < length; width *= 2)
+		{
+			for(int low = 0; low < length; low += 2 * width)
+			{
+				int middle = Math.min(low + width, length);
+				int high = Math.min(low + 2 * width, length);
+				int left = low;
+				int right = middle;
+				for(int out = low; out < high; out++)
+				{
+					if(left < middle && (right >= high || sourceValues[left] <= sourceValues[right]))
+					{
+						targetValues[out] = sourceValues[left];
+						targetChances[out] = sourceChances[left];
+						left++;
+					}
+					else
+					{
+						targetValues[out] = sourceValues[right];
+						targetChances[out] = sourceChances[right];
+						right++;
+					}
+				}
+			}
+			double[] swap = sourceValues;
+			sourceValues = targetValues;
+			targetValues = swap;
+			swap = sourceChances;
+			sourceChances = targetChances;
+			targetChances = swap;
+		}
+
+		if(sourceValues != sortValues)
+		{
+			System.arraycopy(sourceValues, 0, sortValues, 0, length);
+			System.arraycopy(sourceChances, 0, sortChances, 0, length);
+		}
+	}
+}
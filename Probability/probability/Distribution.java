@@ -73,5 +73,49 @@ public interface Distribution
 	 */
 	public double greaterThan(double value);
 	
+	/**
+	 * The probability of each of the values occurring, for plotting or scanning many values at once.
+	 * @param in
+	 * 		The values to determine the probabilities of.
+	 * @param out
+	 * 		Where the probabilities are written, at least as long as in.
+	 */
+	public default void pdf(double[] in, double[] out)
+	{
+		for(int i = 0; i < in.length; i++)
+		{
+			out[i] = pdf(in[i]);
+		}
+	}
+	
+	/**
+	 * The probability of a value less than or equal to each of the values occurring.
+	 * @param in
+	 * 		The values to find the cdf of.
+	 * @param out
+	 * 		Where the probabilities are written, at least as long as in.
+	 */
+	public default void cdf(double[] in, double[] out)
+	{
+		for(int i = 0; i < in.length; i++)
+		{
+			out[i] = cdf(in[i]);
+		}
+	}
+	
+	/**
+	 * The probability of a value greater than each of the values occurring, for instance to sweep gold thresholds.
+	 * @param in
+	 * 		The values to find the probability of an occurrence greater than.
+	 * @param out
+	 * 		Where the probabilities are written, at least as long as in.
+	 */
+	public default void greaterThan(double[] in, double[] out)
+	{
+		for(int i = 0; i < in.length; i++)
+		{
+			out[i] = greaterThan(in[i]);
+		}
+	}
 	
 }
@@ -3,6 +3,7 @@ package probability;
 
 /**
  * Represents a Geometric Distribution.
+ * Evaluated through log(1 - p) with log1p and expm1, so that very small probabilities keep their precision.
  * @author Tim Schommer
  *
  */
@@ -11,7 +12,12 @@ public class Geometric extends DiscreteDistribution
 	/**
 	 * The chance of the first of the two possible outcomes occurring.
 	 */
-	double probability;
+	final double probability;
+	
+	/**
+	 * log(1 - probability), computed once.
+	 */
+	private final double logFailure;
 	
 	/**
 	 * Constructs a Geometric Distribution with the given probability of the first event occurring.
@@ -21,6 +27,7 @@ public class Geometric extends DiscreteDistribution
 	public Geometric(double chance)
 	{
 		probability = chance;
+		logFailure = Math.log1p(-chance);
 	}
 	
 	@Override
@@ -53,21 +60,223 @@ public class Geometric extends DiscreteDistribution
 	@Override
 	public double variance() 
 	{
-		return (1.0 - probability) / (Math.pow(probability, 2));
+		return (1.0 - probability) / (probability * probability);
+	}
+
+	@Override
+	public double skewness()
+	{
+		return (2 - probability) / Math.sqrt(1 - probability);
+	}
+
+	@Override
+	public double kurtosis()
+	{
+		return 6 + probability * probability / (1 - probability);
 	}
 
 
 	@Override
 	public double pdf(double value) 
 	{
-		return (Math.pow((1 - probability), (value - 1)) * probability);
+		return failures(value - 1) * probability;
 	}
 
 	@Override
 	public double cdf(double value) 
 	{
-		return (1 - Math.pow((1 - probability), value));		
+		return value == 0 ? 0 : -Math.expm1(value * logFailure);
+	}
+
+	@Override
+	public double lessThan(double value)
+	{
+		return cdf(value) - pdf(value);
+	}
+
+	@Override
+	public double greaterOrEqual(double value)
+	{
+		return greaterThan(value) + pdf(value);
+	}
+
+	@Override
+	public double greaterThan(double value)
+	{
+		return failures(value);
+	}
+
+	/**
+	 * Calculates the number of attempts needed to have at least the given chance of the first outcome having occurred,
+	 * for example the number of kills needed for a 95% chance of seeing a drop.
+	 * @param chance
+	 * 		The desired chance, from 0 to 1.
+	 * @return
+	 * 		The smallest number of attempts whose cdf is at least chance, or infinity if chance can not be reached.
+	 */
+	@Override
+	public double quantile(double chance)
+	{
+		return quantile(probability, logFailure, chance);
+	}
+
+	/**
+	 * Calculates the probability of each value, filling the output array.
+	 * @param in
+	 * 		The values to find the probabilities of.
+	 * @param out
+	 * 		Where the probabilities are written, at least as long as in.
+	 */
+	@Override
+	public void pdf(double[] in, double[] out)
+	{
+		for(int i = 0; i < in.length; i++)
+		{
+			out[i] = pdf(in[i]);
+		}
+	}
+
+	/**
+	 * Calculates the cdf of each value, filling the output array.
+	 * @param in
+	 * 		The values to find the cdf of.
+	 * @param out
+	 * 		Where the cdf values are written, at least as long as in.
+	 */
+	@Override
+	public void cdf(double[] in, double[] out)
+	{
+		for(int i = 0; i < in.length; i++)
+		{
+			out[i] = cdf(in[i]);
+		}
 	}
 
+	/**
+	 * Calculates the chance of the first outcome not having occurred after each number of attempts, filling the output array.
+	 * @param in
+	 * 		The numbers of attempts.
+	 * @param out
+	 * 		Where the probabilities are written, at least as long as in.
+	 */
+	@Override
+	public void greaterThan(double[] in, double[] out)
+	{
+		for(int i = 0; i < in.length; i++)
+		{
+			out[i] = failures(in[i]);
+		}
+	}
+
+	/**
+	 * Calculates the number of attempts needed for each of the given chances, filling the output array.
+	 * @param chances
+	 * 		The desired chances, from 0 to 1.
+	 * @param out
+	 * 		Where the numbers of attempts are written, at least as long as chances.
+	 */
+	@Override
+	public void quantile(double[] chances, double[] out)
+	{
+		for(int i = 0; i < chances.length; i++)
+		{
+			out[i] = quantile(probability, logFailure, chances[i]);
+		}
+	}
+
+	/**
+	 * Calculates the number of attempts needed to have at least the given chance of an outcome with the given probability
+	 * having occurred, without constructing a distribution.
+	 * @param rate
+	 * 		The probability of the outcome on each attempt.
+	 * @param chance
+	 * 		The desired chance, from 0 to 1.
+	 * @return
+	 * 		The smallest number of attempts whose cdf is at least chance, or infinity if chance can not be reached.
+	 */
+	public static double quantile(double rate, double chance)
+	{
+		return quantile(rate, Math.log1p(-rate), chance);
+	}
+
+	/**
+	 * Calculates the number of attempts needed to reach the same chance for each of many outcome probabilities,
+	 * such as every drop in a route, filling the output array without constructing any distributions.
+	 * @param rates
+	 * 		The probability of each outcome on each attempt.
+	 * @param chance
+	 * 		The desired chance, from 0 to 1.
+	 * @param out
+	 * 		Where the numbers of attempts are written, at least as long as rates.
+	 */
+	public static void quantiles(double[] rates, double chance, double[] out)
+	{
+		double logChance = Math.log1p(-chance);
+		for(int i = 0; i < rates.length; i++)
+		{
+			out[i] = quantile(rates[i], Math.log1p(-rates[i]), chance, logChance);
+		}
+	}
+
+	/**
+	 * Finds the smallest number of attempts whose cdf is at least chance.
+	 * @param rate
+	 * 		The probability of the outcome on each attempt.
+	 * @param logMiss
+	 * 		log(1 - rate).
+	 * @param chance
+	 * 		The desired chance, from 0 to 1.
+	 * @return
+	 * 		The smallest number of attempts whose cdf is at least chance.
+	 */
+	private static double quantile(double rate, double logMiss, double chance)
+	{
+		return quantile(rate, logMiss, chance, Math.log1p(-chance));
+	}
+
+	/**
+	 * Finds the smallest number of attempts n with 1 - (1 - rate)^n at least chance,
+	 * which is n = ceil(log(1 - chance) / log(1 - rate)).
+	 * @param rate
+	 * 		The probability of the outcome on each attempt.
+	 * @param logMiss
+	 * 		log(1 - rate).
+	 * @param chance
+	 * 		The desired chance, from 0 to 1.
+	 * @param logChance
+	 * 		log(1 - chance).
+	 * @return
+	 * 		The smallest number of attempts whose cdf is at least chance.
+	 */
+	private static double quantile(double rate, double logMiss, double chance, double logChance)
+	{
+		if(chance <= 0 || rate >= 1)
+		{
+			return 1;
+		}
+		if(chance >= 1 || rate <= 0)
+		{
+			return Double.POSITIVE_INFINITY;
+		}
+		double attempts = Math.max(1, Math.ceil(logChance / logMiss));
+		//The division can round across a whole number, so check the attempt before.
+		if(attempts > 1 && -Math.expm1((attempts - 1) * logMiss) >= chance)
+		{
+			attempts--;
+		}
+		return attempts;
+	}
+
+	/**
+	 * Calculates (1 - probability)^count, the chance of the first outcome not occurring in count attempts.
+	 * @param count
+	 * 		The number of attempts.
+	 * @return
+	 * 		The chance of count attempts in a row without the first outcome.
+	 */
+	private double failures(double count)
+	{
+		return count == 0 ? 1 : Math.exp(count * logFailure);
+	}
 	
 }
@@ -0,0 +1,656 @@
+package probability;
+
+import java.util.Arrays;
+
+import supplementalMath.FastFourierTransform;
+
+/**
+ * Represents a distribution as a histogram of fixed-width bins, holding at most a fixed number of bins however long
+ * the farming session it describes. Bin i stands for the value i * binWidth and collects everything that rounds to it,
+ * so finding a value's bin is a division, and pdf and cdf are one lookup each in a running total built on demand.
+ * When a value falls outside a full set of bins the width is doubled, halving the number of bins, which keeps
+ * memory fixed at the cost of resolution. The exact mean and variance of everything added are tracked separately,
+ * so the rounding to bins never changes them.
+ */
+public class HistogramDistribution implements Distribution
+{
+	/**
+	 * The largest bin index held, in size. Any two bins within it are less than Long.MAX_VALUE apart, so the span
+	 * of the bins can be worked out without overflowing.
+	 */
+	private static final double MAX_INDEX = 0x1p61;
+
+	/**
+	 * The width of each bin.
+	 */
+	private double width;
+
+	/**
+	 * The most bins the histogram may hold.
+	 */
+	private int maxBins;
+
+	/**
+	 * weights[offset + i] holds the total weight of bin firstIndex + i for i below count. The entries either side
+	 * are 0, and are room for the bins to grow into in both directions without moving.
+	 */
+	private double[] weights;
+
+	/**
+	 * The index in weights of the first bin held.
+	 */
+	private int offset;
+
+	/**
+	 * The index of the first bin held, so the bins cover values from firstIndex * width onwards.
+	 */
+	private long firstIndex;
+
+	/**
+	 * The number of bins in use.
+	 */
+	private int count;
+
+	/**
+	 * The total weight added.
+	 */
+	private double total;
+
+	/**
+	 * The exact weighted mean of the values added.
+	 */
+	private double mean;
+
+	/**
+	 * The weighted sum of squared differences of the values added from the mean.
+	 */
+	private double squares;
+
+	/**
+	 * cumulative[i] holds the total weight of the first i bins. Set to null whenever the bins change.
+	 */
+	private double[] cumulative;
+
+	/**
+	 * Constructs an empty histogram.
+	 * @param binWidth
+	 * 		The starting width of each bin, such as a whole number of copper for gold.
+	 * @param binLimit
+	 * 		The most bins the histogram may hold, at least 4.
+	 */
+	public HistogramDistribution(double binWidth, int binLimit)
+	{
+		if(!(binWidth > 0) || binLimit < 4)
+		{
+			throw new IllegalArgumentException("A histogram needs a positive bin width and at least 4 bins.");
+		}
+		width = binWidth;
+		maxBins = binLimit;
+		weights = new double[Math.min(binLimit, 16)];
+	}
+
+	/**
+	 * Constructs a histogram of a discrete distribution, each outcome weighted by its chance.
+	 * @param distribution
+	 * 		The distribution to copy.
+	 * @param binWidth
+	 * 		The starting width of each bin.
+	 * @param binLimit
+	 * 		The most bins the histogram may hold, at least 4.
+	 * @return
+	 * 		The histogram of the distribution.
+	 */
+	public static HistogramDistribution fromDistribution(DiscreteDistribution distribution, double binWidth, int binLimit)
+	{
+		HistogramDistribution histogram = new HistogramDistribution(binWidth, binLimit);
+		for(int index = 0; index < distribution.size(); index++)
+		{
+			histogram.add(distribution.getValue(index), distribution.getChance(index));
+		}
+		return histogram;
+	}
+
+	/**
+	 * Adds a value with a weight of 1, such as the gold from one simulated session.
+	 * @param value
+	 * 		The value to add.
+	 */
+	public void add(double value)
+	{
+		add(value, 1);
+	}
+
+	/**
+	 * Adds each of the values with a weight of 1.
+	 * @param values
+	 * 		The values to add.
+	 */
+	public void add(double[] values)
+	{
+		for(double value : values)
+		{
+			add(value, 1);
+		}
+	}
+
+	/**
+	 * Adds a value with the given weight to the bin it rounds to, doubling the bin width if needed to fit it.
+	 * @param value
+	 * 		The value to add, which must be finite.
+	 * @param weight
+	 * 		The weight, or chance, of the value. Ignored unless greater than 0.
+	 */
+	public void add(double value, double weight)
+	{
+		if(!Double.isFinite(value))
+		{
+			throw new IllegalArgumentException("A histogram can only hold finite values, got " + value);
+		}
+		if(!(weight > 0))
+		{
+			return;
+		}
+		deposit(value, weight);
+		//Weighted form of Welford's update, which keeps the variance accurate for values far from 0.
+		total += weight;
+		double delta = value - mean;
+		mean += delta * weight / total;
+		squares += weight * delta * (value - mean);
+	}
+
+	/**
+	 * Adds everything in another histogram to this one. The other histogram's bins are split between the two nearest
+	 * bins of this one where the grids do not line up, so the average of the bins is kept.
+	 * @param other
+	 * 		The histogram to add.
+	 */
+	public void merge(HistogramDistribution other)
+	{
+		if(other.total <= 0)
+		{
+			return;
+		}
+		while(width < other.width)
+		{
+			coarsen();
+		}
+		for(int i = 0; i < other.count; i++)
+		{
+			split((other.firstIndex + i) * other.width, other.weights[other.offset + i]);
+		}
+		//Chan's combination of two sets of moments.
+		double combined = total + other.total;
+		double delta = other.mean - mean;
+		squares += other.squares + delta * delta * total * other.total / combined;
+		mean += delta * other.total / combined;
+		total = combined;
+	}
+
+	/**
+	 * Calculates the distribution of the sum of a value from this histogram and an independent value from the other,
+	 * such as the gold from two sessions, by convolving the bins with an FFT. Both are first put on the wider
+	 * of the two bin widths, and the result is coarsened until it fits within this histogram's bin limit.
+	 * @param other
+	 * 		The histogram of the other value.
+	 * @return
+	 * 		The histogram of the sum, with total weight equal to the product of the two.
+	 */
+	public HistogramDistribution convolve(HistogramDistribution other)
+	{
+		HistogramDistribution first = this;
+		HistogramDistribution second = other;
+		//Regridding can itself coarsen a histogram that would not fit, so repeat until the widths agree.
+		while(first.width != second.width)
+		{
+			double common = Math.max(first.width, second.width);
+			first = first.regrid(common);
+			second = second.regrid(common);
+		}
+
+		HistogramDistribution sum = new HistogramDistribution(first.width, maxBins);
+		if(first.count == 0 || second.count == 0)
+		{
+			return sum;
+		}
+		double[] bins = FastFourierTransform.convolve(
+				Arrays.copyOfRange(first.weights, first.offset, first.offset + first.count),
+				Arrays.copyOfRange(second.weights, second.offset, second.offset + second.count));
+		//Rounding in the transforms leaves noise around 1e-16 of the largest bin, including tiny negatives.
+		for(int i = 0; i < bins.length; i++)
+		{
+			bins[i] = Math.max(bins[i], 0);
+		}
+		sum.weights = bins;
+		sum.count = bins.length;
+		sum.firstIndex = first.firstIndex + second.firstIndex;
+		while(sum.count > maxBins)
+		{
+			sum.coarsen();
+		}
+
+		//Means and variances of independent values add.
+		sum.total = first.total * second.total;
+		sum.mean = first.mean + second.mean;
+		sum.squares = sum.total * (first.variance() + second.variance());
+		return sum;
+	}
+
+	/**
+	 * Calculates the distribution of the sum of the given number of independent values from this histogram,
+	 * such as the gold from running the same route many times, by repeated squaring in about log2(times) convolutions.
+	 * @param times
+	 * 		The number of values summed, at least 0.
+	 * @return
+	 * 		The histogram of the sum, with a total weight of 1.
+	 */
+	public HistogramDistribution power(int times)
+	{
+		HistogramDistribution result = new HistogramDistribution(width, maxBins);
+		if(total <= 0)
+		{
+			return result;
+		}
+		result.add(0, 1);
+		HistogramDistribution square = normalized();
+		for(int remaining = times; remaining > 0; remaining >>>= 1)
+		{
+			if((remaining & 1) != 0)
+			{
+				result = result.convolve(square);
+			}
+			if(remaining > 1)
+			{
+				square = square.convolve(square);
+			}
+		}
+		return result;
+	}
+
+	/**
+	 * Returns the current width of each bin.
+	 * @return
+	 * 		The bin width.
+	 */
+	public double getBinWidth()
+	{
+		return width;
+	}
+
+	/**
+	 * Returns the number of bins in use, from the lowest to the highest that has been reached.
+	 * @return
+	 * 		The number of bins.
+	 */
+	public int size()
+	{
+		return count;
+	}
+
+	/**
+	 * Returns the value that a bin stands for.
+	 * @param index
+	 * 		The bin, from 0 to size() - 1.
+	 * @return
+	 * 		The value of the bin.
+	 */
+	public double getValue(int index)
+	{
+		return (firstIndex + index) * width;
+	}
+
+	/**
+	 * Returns the chance of a bin, its weight as a fraction of the total.
+	 * @param index
+	 * 		The bin, from 0 to size() - 1.
+	 * @return
+	 * 		The chance of the bin.
+	 */
+	public double getChance(int index)
+	{
+		return total > 0 ? weights[offset + index] / total : 0;
+	}
+
+	/**
+	 * Returns the total weight added.
+	 * @return
+	 * 		The total weight.
+	 */
+	public double getTotalWeight()
+	{
+		return total;
+	}
+
+	@Override
+	public String toString()
+	{
+		return "Histogram distribution with " + count + " bins of width: " + width;
+	}
+
+	/**
+	 * The exact mean of the values added, unaffected by the binning.
+	 */
+	@Override
+	public double expectedValue()
+	{
+		return mean;
+	}
+
+	/**
+	 * The exact variance of the values added, unaffected by the binning.
+	 */
+	@Override
+	public double variance()
+	{
+		return total > 0 ? Math.max(squares / total, 0) : 0;
+	}
+
+	@Override
+	public double standardDeviation()
+	{
+		return Math.sqrt(variance());
+	}
+
+	/**
+	 * The chance of the bin that the value rounds to.
+	 */
+	@Override
+	public double pdf(double value)
+	{
+		long bin = Math.round(value / width) - firstIndex;
+		return (bin >= 0 && bin < count) ? getChance((int) bin) : 0;
+	}
+
+	/**
+	 * The chance of the bins up to and including the one that the value rounds to.
+	 */
+	@Override
+	public double cdf(double value)
+	{
+		return below(Math.round(value / width) + 1);
+	}
+
+	/**
+	 * The chance of the bins below the one that the value rounds to.
+	 */
+	@Override
+	public double lessThan(double value)
+	{
+		return below(Math.round(value / width));
+	}
+
+	@Override
+	public double greaterOrEqual(double value)
+	{
+		return total > 0 ? 1 - lessThan(value) : 0;
+	}
+
+	@Override
+	public double greaterThan(double value)
+	{
+		return total > 0 ? 1 - cdf(value) : 0;
+	}
+
+	/**
+	 * Finds the smallest bin value that the given chance of the weight falls at or below.
+	 * @param chance
+	 * 		The desired chance, from 0 to 1.
+	 * @return
+	 * 		The value of the first bin whose cdf is at least chance, or NaN if the histogram is empty.
+	 */
+	public double quantile(double chance)
+	{
+		if(count == 0 || total <= 0)
+		{
+			return Double.NaN;
+		}
+		double[] totals = cumulative();
+		double target = chance * total;
+		int low = 1;
+		int high = count;
+		while(low < high)
+		{
+			int middle = (low + high) >>> 1;
+			if(totals[middle] < target)
+			{
+				low = middle + 1;
+			}
+			else
+			{
+				high = middle;
+			}
+		}
+		return getValue(low - 1);
+	}
+
+	/**
+	 * Returns the chance of every bin below the given bin index.
+	 * @param bin
+	 * 		The bin index, on the same scale as firstIndex.
+	 * @return
+	 * 		The total chance of the bins below it.
+	 */
+	private double below(long bin)
+	{
+		if(total <= 0)
+		{
+			return 0;
+		}
+		long held = Math.max(0, Math.min(bin - firstIndex, count));
+		return cumulative()[(int) held] / total;
+	}
+
+	/**
+	 * Returns the running totals of the bin weights, rebuilding them if the bins have changed.
+	 * @return
+	 * 		The running totals.
+	 */
+	private double[] cumulative()
+	{
+		double[] totals = cumulative;
+		if(totals == null)
+		{
+			totals = new double[count + 1];
+			for(int i = 0; i < count; i++)
+			{
+				totals[i + 1] = totals[i] + weights[offset + i];
+			}
+			cumulative = totals;
+		}
+		return totals;
+	}
+
+	/**
+	 * Adds weight to the bin the value rounds to, without touching the moments.
+	 * @param value
+	 * 		The value.
+	 * @param weight
+	 * 		The weight to add.
+	 */
+	private void deposit(double value, double weight)
+	{
+		fit(value);
+		long bin = Math.round(value / width);
+		while(!reach(bin))
+		{
+			coarsen();
+			bin = Math.round(value / width);
+		}
+		weights[offset + (int) (bin - firstIndex)] += weight;
+		cumulative = null;
+	}
+
+	/**
+	 * Adds weight split between the two bins either side of the value, in proportion to how close it is to each,
+	 * so that the average of the bins is kept. Does not touch the moments.
+	 * @param value
+	 * 		The value.
+	 * @param weight
+	 * 		The weight to add.
+	 */
+	private void split(double value, double weight)
+	{
+		if(!Double.isFinite(value))
+		{
+			throw new IllegalArgumentException("A histogram can only hold finite values, got " + value);
+		}
+		fit(value);
+		double position = value / width;
+		long below = (long) Math.floor(position);
+		double above = position - below;
+		if(above < 1e-9 || above > 1 - 1e-9)
+		{
+			deposit(Math.round(position) * width, weight);
+		}
+		else
+		{
+			deposit(below * width, weight * (1 - above));
+			deposit((below + 1) * width, weight * above);
+		}
+	}
+
+	/**
+	 * Doubles the bin width until the bin index of the value is well within the range of a long, which rounding
+	 * would otherwise saturate.
+	 * @param value
+	 * 		The value, which must be finite.
+	 */
+	private void fit(double value)
+	{
+		while(!(Math.abs(value / width) < MAX_INDEX))
+		{
+			coarsen();
+		}
+	}
+
+	/**
+	 * Makes room for the given bin, if it can be done within the bin limit. A bin next to those held is usually
+	 * already free either side of them. Otherwise the bins are moved to the middle of the array, which is grown first
+	 * if they would fill more than half of it, so each move is paid for by at least half as many new bins
+	 * before the next, whichever direction the values come in.
+	 * @param bin
+	 * 		The bin index needed.
+	 * @return
+	 * 		Whether the bin is now held, false if the bins would have to span more than the limit.
+	 */
+	private boolean reach(long bin)
+	{
+		if(count == 0)
+		{
+			firstIndex = bin;
+			offset = weights.length / 2;
+			count = 1;
+			return true;
+		}
+		long low = Math.min(firstIndex, bin);
+		long high = Math.max(firstIndex + count - 1, bin);
+		long span = high - low + 1;
+		if(span > maxBins)
+		{
+			return false;
+		}
+		long start = offset - (firstIndex - low);
+		if(start >= 0 && start + span <= weights.length)
+		{
+			offset = (int) start;
+			firstIndex = low;
+			count = (int) span;
+			return true;
+		}
+		int length = (int) Math.max(2 * span, weights.length);
+		int moved = (int) ((length - span) / 2 + (firstIndex - low));
+		if(length == weights.length)
+		{
+			System.arraycopy(weights, offset, weights, moved, count);
+			Arrays.fill(weights, 0, moved, 0);
+			Arrays.fill(weights, moved + count, length, 0);
+		}
+		else
+		{
+			double[] grown = new double[length];
+			System.arraycopy(weights, offset, grown, moved, count);
+			weights = grown;
+		}
+		offset = (int) ((length - span) / 2);
+		firstIndex = low;
+		count = (int) span;
+		return true;
+	}
+
+	/**
+	 * Doubles the bin width. Even bins map onto a new bin exactly, and odd bins lie halfway between two new bins
+	 * so their weight is shared equally between them, which keeps the average of the bins.
+	 */
+	private void coarsen()
+	{
+		long newFirst = Math.floorDiv(firstIndex, 2);
+		long last = firstIndex + count - 1;
+		long newLast = Math.floorDiv(last + 1, 2);
+		int newCount = count == 0 ? 0 : (int) (newLast - newFirst + 1);
+		double[] coarse = new double[Math.max(newCount, 1)];
+		for(int i = 0; i < count; i++)
+		{
+			long bin = firstIndex + i;
+			long half = Math.floorDiv(bin, 2);
+			if((bin & 1) == 0)
+			{
+				coarse[(int) (half - newFirst)] += weights[offset + i];
+			}
+			else
+			{
+				coarse[(int) (half - newFirst)] += weights[offset + i] / 2;
+				coarse[(int) (half + 1 - newFirst)] += weights[offset + i] / 2;
+			}
+		}
+		weights = coarse;
+		offset = 0;
+		firstIndex = newFirst;
+		count = newCount;
+		width *= 2;
+		cumulative = null;
+	}
+
+	/**
+	 * Returns a copy of this histogram scaled to a total weight of 1.
+	 * @return
+	 * 		The scaled copy.
+	 */
+	private HistogramDistribution normalized()
+	{
+		HistogramDistribution copy = new HistogramDistribution(width, maxBins);
+		copy.weights = new double[count];
+		for(int i = 0; i < count; i++)
+		{
+			copy.weights[i] = weights[offset + i] / total;
+		}
+		copy.count = count;
+		copy.firstIndex = firstIndex;
+		copy.total = 1;
+		copy.mean = mean;
+		copy.squares = squares / total;
+		return copy;
+	}
+
+	/**
+	 * Returns a copy of this histogram with the given bin width, or this histogram itself if it already has that width.
+	 * @param targetWidth
+	 * 		The bin width wanted, at least the current width.
+	 * @return
+	 * 		A histogram with the same moments on the requested grid.
+	 */
+	private HistogramDistribution regrid(double targetWidth)
+	{
+		if(targetWidth == width)
+		{
+			return this;
+		}
+		HistogramDistribution copy = new HistogramDistribution(targetWidth, maxBins);
+		for(int i = 0; i < count; i++)
+		{
+			copy.split(getValue(i), weights[offset + i]);
+		}
+		copy.total = total;
+		copy.mean = mean;
+		copy.squares = squares;
+		return copy;
+	}
+}
@@ -0,0 +1,319 @@
+package probability;
+
+import supplementalMath.SupplementalMath;
+
+/**
+ * Represents a Negative Binomial Distribution, the number of attempts needed for the first of two outcomes to occur
+ * a given number of times, such as the number of kills needed to collect several copies of a drop.
+ * The pmf is evaluated in log space and the cdf through the regularized incomplete beta function,
+ * so neither costs time proportional to the number of attempts.
+ */
+public class NegativeBinomial extends DiscreteDistribution
+{
+	/**
+	 * The number of times the first outcome must occur.
+	 */
+	private final int successes;
+
+	/**
+	 * The chance of the first of the two possible outcomes occurring on each attempt.
+	 */
+	private final double probability;
+
+	/**
+	 * log(probability), computed once.
+	 */
+	private final double logSuccess;
+
+	/**
+	 * log(1 - probability), computed once.
+	 */
+	private final double logFailure;
+
+	/**
+	 * Constructs a Negative Binomial Distribution for the number of attempts needed for the first outcome
+	 * to occur the given number of times.
+	 * @param count
+	 * 		The number of times the first outcome must occur, at least 1.
+	 * @param chance
+	 * 		The probability of the first of the two possible outcomes occurring on each attempt, above 0 and at most 1.
+	 */
+	public NegativeBinomial(int count, double chance)
+	{
+		if(count < 1)
+		{
+			throw new IllegalArgumentException("The number of successes must be at least 1, got " + count);
+		}
+		if(!(chance > 0 && chance <= 1))
+		{
+			throw new IllegalArgumentException("The probability must be above 0 and at most 1, got " + chance);
+		}
+		successes = count;
+		probability = chance;
+		logSuccess = Math.log(chance);
+		logFailure = Math.log1p(-chance);
+	}
+
+	@Override
+	public void addOutcome(double value, double probability)
+	{
+		//While it is technically a Discrete distribution,
+		//the ability to add outcomes has been removed due to the outcomes being fixed by the count and probability.
+	}
+
+	@Override
+	public void removeOutcome(int index)
+	{
+		//While it is technically a Discrete distribution,
+		//the ability to remove outcomes has been removed due to the outcomes being fixed by the count and probability.
+	}
+
+	@Override
+	public String toString()
+	{
+		return "Negative Binomial distribution with " + successes + " successes and probability: " + probability;
+	}
+
+	@Override
+	public double expectedValue()
+	{
+		return successes / probability;
+	}
+
+	@Override
+	public double variance()
+	{
+		return successes * (1 - probability) / (probability * probability);
+	}
+
+	@Override
+	public double skewness()
+	{
+		return (2 - probability) / Math.sqrt(successes * (1 - probability));
+	}
+
+	@Override
+	public double kurtosis()
+	{
+		return 6.0 / successes + probability * probability / (successes * (1 - probability));
+	}
+
+	/**
+	 * The probability of the count-th occurrence happening on exactly the given attempt,
+	 * (value - 1 Choose count - 1) * p^count * (1 - p)^(value - count).
+	 */
+	@Override
+	public double pdf(double value)
+	{
+		if(value < successes || value != Math.floor(value))
+		{
+			return 0;
+		}
+		if(probability >= 1)
+		{
+			return value == successes ? 1 : 0;
+		}
+		if(value > Integer.MAX_VALUE)
+		{
+			return 0;
+		}
+		int attempts = (int) value;
+		return Math.exp(SupplementalMath.logChoose(attempts - 1, successes - 1) + successes * logSuccess
+				+ (attempts - successes) * logFailure);
+	}
+
+	/**
+	 * The probability of the first outcome having occurred count times by the given attempt,
+	 * which is I_p(count, value - count + 1).
+	 */
+	@Override
+	public double cdf(double value)
+	{
+		double attempts = Math.floor(value);
+		if(attempts < successes || probability <= 0)
+		{
+			return 0;
+		}
+		return SupplementalMath.regularizedBeta(probability, successes, attempts - successes + 1);
+	}
+
+	@Override
+	public double lessThan(double value)
+	{
+		return cdf(Math.ceil(value) - 1);
+	}
+
+	@Override
+	public double greaterOrEqual(double value)
+	{
+		return greaterThan(Math.ceil(value) - 1);
+	}
+
+	@Override
+	public double greaterThan(double value)
+	{
+		double attempts = Math.floor(value);
+		if(attempts < successes || probability <= 0)
+		{
+			return 1;
+		}
+		return SupplementalMath.upperRegularizedBeta(probability, successes, attempts - successes + 1);
+	}
+
+	/**
+	 * Calculates the number of attempts needed to have at least the given chance of the first outcome having occurred
+	 * count times, for example the number of kills needed for a 95% chance of seeing 5 copies of a drop.
+	 * @param chance
+	 * 		The desired chance, from 0 to 1.
+	 * @return
+	 * 		The smallest number of attempts whose cdf is at least chance, or infinity if chance can not be reached.
+	 */
+	@Override
+	public double quantile(double chance)
+	{
+		return quantile(successes, probability, chance);
+	}
+
+	/**
+	 * Calculates the number of attempts needed to have at least the given chance of an outcome with the given probability
+	 * having occurred count times, without constructing a distribution, so it can be called for every drop of a route.
+	 * Starts from a Cornish-Fisher estimate and then closes in on the exact answer by bisection.
+	 * @param count
+	 * 		The number of times the outcome must occur, at least 1.
+	 * @param rate
+	 * 		The probability of the outcome on each attempt.
+	 * @param chance
+	 * 		The desired chance, from 0 to 1.
+	 * @return
+	 * 		The smallest number of attempts whose cdf is at least chance, or infinity if chance can not be reached.
+	 */
+	public static double quantile(int count, double rate, double chance)
+	{
+		if(count < 1)
+		{
+			throw new IllegalArgumentException("The number of successes must be at least 1, got " + count);
+		}
+		if(chance <= 0 || rate >= 1)
+		{
+			return count;
+		}
+		if(chance >= 1 || !(rate > 0))
+		{
+			return Double.POSITIVE_INFINITY;
+		}
+
+		double z = Normal.standardQuantile(chance);
+		double deviation = Math.sqrt(count * (1 - rate)) / rate;
+		double skew = (2 - rate) / Math.sqrt(count * (1 - rate));
+		double estimate = Math.ceil(count / rate + deviation * (z + (z * z - 1) * skew / 6));
+		double step = Math.max(1, Math.ceil(0.05 * deviation));
+
+		//Bracket the answer between a low number of attempts that falls short and a high one that does not.
+		double low;
+		double high;
+		if(cdf(count, rate, Math.max(estimate, count)) >= chance)
+		{
+			high = Math.max(estimate, count);
+			low = high - step;
+			while(low >= count && cdf(count, rate, low) >= chance)
+			{
+				high = low;
+				step *= 2;
+				low = high - step;
+			}
+			low = Math.max(low, count - 1);
+		}
+		else
+		{
+			low = estimate;
+			high = low + step;
+			while(cdf(count, rate, high) < chance)
+			{
+				low = high;
+				step *= 2;
+				high = low + step;
+			}
+		}
+
+		while(high - low > 1)
+		{
+			double middle = Math.floor(low + (high - low) / 2);
+			if(cdf(count, rate, middle) >= chance)
+			{
+				high = middle;
+			}
+			else
+			{
+				low = middle;
+			}
+		}
+		return high;
+	}
+
+	/**
+	 * The probability of an outcome with the given probability having occurred count times by the given attempt.
+	 * @param count
+	 * 		The number of times the outcome must occur.
+	 * @param rate
+	 * 		The probability of the outcome on each attempt, above 0 and below 1.
+	 * @param attempts
+	 * 		The number of attempts, a whole number.
+	 * @return
+	 * 		I_rate(count, attempts - count + 1), or 0 if there are fewer attempts than count.
+	 */
+	private static double cdf(int count, double rate, double attempts)
+	{
+		if(attempts < count)
+		{
+			return 0;
+		}
+		return SupplementalMath.regularizedBeta(rate, count, attempts - count + 1);
+	}
+
+	/**
+	 * Evaluated value by value, since a Negative Binomial distribution does not fill the outcome arrays
+	 * that DiscreteDistribution's batch methods search.
+	 */
+	@Override
+	public void pdf(double[] in, double[] out)
+	{
+		for(int i = 0; i < in.length; i++)
+		{
+			out[i] = pdf(in[i]);
+		}
+	}
+
+	@Override
+	public void cdf(double[] in, double[] out)
+	{
+		for(int i = 0; i < in.length; i++)
+		{
+			out[i] = cdf(in[i]);
+		}
+	}
+
+	@Override
+	public void greaterThan(double[] in, double[] out)
+	{
+		for(int i = 0; i < in.length; i++)
+		{
+			out[i] = greaterThan(in[i]);
+		}
+	}
+
+	/**
+	 * Calculates the number of attempts needed for each of the given chances, filling the output array.
+	 * @param chances
+	 * 		The desired chances, from 0 to 1.
+	 * @param out
+	 * 		Where the numbers of attempts are written, at least as long as chances.
+	 */
+	@Override
+	public void quantile(double[] chances, double[] out)
+	{
+		for(int i = 0; i < chances.length; i++)
+		{
+			out[i] = quantile(chances[i]);
+		}
+	}
+}
@@ -0,0 +1,167 @@
+package probability;
+
+import supplementalMath.SupplementalMath;
+
+/**
+ * Represents a Normal Distribution, a continuous distribution described by its mean and standard deviation.
+ * Since it is continuous, the chance of any single value is 0 and pdf returns the density instead.
+ */
+public class Normal implements Distribution
+{
+	/**
+	 * The average value.
+	 */
+	private double mean;
+
+	/**
+	 * The standard deviation.
+	 */
+	private double deviation;
+
+	/**
+	 * Coefficients of Acklam's rational approximation to the standard normal quantile, accurate to about 1.15e-9.
+	 * A and B are for the central region, C and D for the tails.
+	 */
+	private static final double[] A = {-3.969683028665376e+01, 2.209460984245205e+02, -2.759285104469687e+02,
+			1.383577518672690e+02, -3.066479806614716e+01, 2.506628277459239e+00};
+	private static final double[] B = {-5.447609879822406e+01, 1.615858368580409e+02, -1.556989798598866e+02,
+			6.680131188771972e+01, -1.328068155288572e+01};
+	private static final double[] C = {-7.784894002430293e-03, -3.223964580411365e-01, -2.400758277161838e+00,
+			-2.549732539343734e+00, 4.374664141464968e+00, 2.938163982698783e+00};
+	private static final double[] D = {7.784695709041462e-03, 3.224671290700398e-01, 2.445134137142996e+00,
+			3.754408661907416e+00};
+
+	/**
+	 * Below this chance, and above 1 minus it, the tail form of the approximation is used.
+	 */
+	private static final double TAIL = 0.02425;
+
+	/**
+	 * Constructs a Normal Distribution with the given mean and standard deviation.
+	 * @param average
+	 * 		The average value.
+	 * @param standardDeviation
+	 * 		The standard deviation. Must be greater than 0.
+	 */
+	public Normal(double average, double standardDeviation)
+	{
+		mean = average;
+		deviation = standardDeviation;
+	}
+
+	@Override
+	public String toString()
+	{
+		return "Normal distribution with mean: " + mean + " and standard deviation: " + deviation;
+	}
+
+	@Override
+	public double expectedValue()
+	{
+		return mean;
+	}
+
+	@Override
+	public double variance()
+	{
+		return deviation * deviation;
+	}
+
+	@Override
+	public double standardDeviation()
+	{
+		return deviation;
+	}
+
+	/**
+	 * The probability density at the value.
+	 */
+	@Override
+	public double pdf(double value)
+	{
+		double z = (value - mean) / deviation;
+		return Math.exp(-0.5 * z * z) / (deviation * Math.sqrt(2 * Math.PI));
+	}
+
+	@Override
+	public double cdf(double value)
+	{
+		return 0.5 * SupplementalMath.erfc((mean - value) / (deviation * Math.sqrt(2)));
+	}
+
+	@Override
+	public double lessThan(double value)
+	{
+		return cdf(value);
+	}
+
+	@Override
+	public double greaterOrEqual(double value)
+	{
+		return greaterThan(value);
+	}
+
+	@Override
+	public double greaterThan(double value)
+	{
+		return 0.5 * SupplementalMath.erfc((value - mean) / (deviation * Math.sqrt(2)));
+	}
+
+	/**
+	 * Calculates the value that the given chance of outcomes fall at or below.
+	 * @param chance
+	 * 		The desired chance, from 0 to 1.
+	 * @return
+	 * 		The value whose cdf is chance.
+	 */
+	public double quantile(double chance)
+	{
+		return mean + deviation * standardQuantile(chance);
+	}
+
+	/**
+	 * Calculates the quantile of the standard normal distribution, with mean 0 and standard deviation 1,
+	 * using Acklam's rational approximation.
+	 * @param chance
+	 * 		The desired chance, from 0 to 1.
+	 * @return
+	 * 		The number of standard deviations from the mean whose cdf is chance,
+	 * 		or negative or positive infinity for a chance of 0 or 1.
+	 */
+	public static double standardQuantile(double chance)
+	{
+		if(chance <= 0)
+		{
+			return Double.NEGATIVE_INFINITY;
+		}
+		else if(chance >= 1)
+		{
+			return Double.POSITIVE_INFINITY;
+		}
+		else if(chance < TAIL)
+		{
+			return tail(Math.sqrt(-2 * Math.log(chance)));
+		}
+		else if(chance > 1 - TAIL)
+		{
+			return -tail(Math.sqrt(-2 * Math.log1p(-chance)));
+		}
+		double q = chance - 0.5;
+		double r = q * q;
+		return (((((A[0] * r + A[1]) * r + A[2]) * r + A[3]) * r + A[4]) * r + A[5]) * q
+				/ (((((B[0] * r + B[1]) * r + B[2]) * r + B[3]) * r + B[4]) * r + 1);
+	}
+
+	/**
+	 * Evaluates the lower tail form of the quantile approximation.
+	 * @param q
+	 * 		sqrt(-2 log(chance)).
+	 * @return
+	 * 		The quantile of the lower tail chance.
+	 */
+	private static double tail(double q)
+	{
+		return (((((C[0] * q + C[1]) * q + C[2]) * q + C[3]) * q + C[4]) * q + C[5])
+				/ ((((D[0] * q + D[1]) * q + D[2]) * q + D[3]) * q + 1);
+	}
+}
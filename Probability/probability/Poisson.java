@@ -0,0 +1,238 @@
+package probability;
+
+import supplementalMath.SupplementalMath;
+
+/**
+ * Represents a Poisson Distribution, the number of events that occur when they happen independently at a fixed average rate.
+ * The cdf and tails are summed outwards from the requested value only until the terms become negligible,
+ * so queries cost about the square root of the mean rather than the mean.
+ */
+public class Poisson extends DiscreteDistribution
+{
+	/**
+	 * Terms smaller than this fraction of the running total are no longer added.
+	 */
+	private static final double NEGLIGIBLE = 1e-17;
+
+	/**
+	 * The average number of events.
+	 */
+	private double mean;
+
+	/**
+	 * Constructs a Poisson Distribution with the given average number of events.
+	 * @param average
+	 * 		The average number of events.
+	 */
+	public Poisson(double average)
+	{
+		mean = average;
+	}
+
+	@Override
+	public void addOutcome(double value, double probability)
+	{
+		//While it is technically a Discrete distribution,
+		//the ability to add outcomes has been removed due to the outcomes being fixed by the mean.
+	}
+
+	@Override
+	public void removeOutcome(int index)
+	{
+		//While it is technically a Discrete distribution,
+		//the ability to remove outcomes has been removed due to the outcomes being fixed by the mean.
+	}
+
+	@Override
+	public String toString()
+	{
+		return "Poisson distribution with mean: " + mean;
+	}
+
+	@Override
+	public double expectedValue()
+	{
+		return mean;
+	}
+
+	@Override
+	public double variance()
+	{
+		return mean;
+	}
+
+	@Override
+	public double skewness()
+	{
+		return 1 / Math.sqrt(mean);
+	}
+
+	@Override
+	public double kurtosis()
+	{
+		return 1 / mean;
+	}
+
+	@Override
+	public double pdf(double value)
+	{
+		if(value < 0 || value != Math.floor(value))
+		{
+			return 0;
+		}
+		if(mean <= 0)
+		{
+			return value == 0 ? 1 : 0;
+		}
+		return Math.exp(value * Math.log(mean) - mean - SupplementalMath.logGamma(value + 1));
+	}
+
+	@Override
+	public double cdf(double value)
+	{
+		double count = Math.floor(value);
+		if(count < 0)
+		{
+			return 0;
+		}
+		if(count > mean)
+		{
+			return 1 - greaterOrEqual(count + 1);
+		}
+		//Sum downwards from count, each term being the one above times i / mean.
+		double term = pdf(count);
+		double total = term;
+		for(double i = count; i > 0 && term > total * NEGLIGIBLE; i--)
+		{
+			term *= i / mean;
+			total += term;
+		}
+		return Math.min(total, 1);
+	}
+
+	@Override
+	public double lessThan(double value)
+	{
+		return cdf(Math.ceil(value) - 1);
+	}
+
+	@Override
+	public double greaterOrEqual(double value)
+	{
+		double count = Math.ceil(value);
+		if(count <= 0)
+		{
+			return 1;
+		}
+		if(count <= mean)
+		{
+			return 1 - cdf(count - 1);
+		}
+		//Sum upwards from count, each term being the one below times mean / (i + 1).
+		double term = pdf(count);
+		double total = term;
+		for(double i = count; term > total * NEGLIGIBLE; i++)
+		{
+			term *= mean / (i + 1);
+			total += term;
+		}
+		return Math.min(total, 1);
+	}
+
+	@Override
+	public double greaterThan(double value)
+	{
+		return greaterOrEqual(Math.floor(value) + 1);
+	}
+
+	/**
+	 * Finds the smallest number of events that the given chance of outcomes fall at or below,
+	 * by stepping out from the mean until the answer is bracketed and then bisecting.
+	 * @param chance
+	 * 		The desired chance, from 0 to 1.
+	 * @return
+	 * 		The smallest number of events whose cdf is at least chance, or infinity if chance can not be reached.
+	 */
+	@Override
+	public double quantile(double chance)
+	{
+		if(chance <= 0 || mean <= 0)
+		{
+			return 0;
+		}
+		if(chance >= 1)
+		{
+			return Double.POSITIVE_INFINITY;
+		}
+		//cdf(low) is always short of chance and cdf(high) never is.
+		double step = Math.max(1, Math.ceil(Math.sqrt(mean)));
+		double low = Math.floor(mean);
+		double high;
+		if(cdf(low) >= chance)
+		{
+			high = low;
+			low = high - step;
+			while(low >= 0 && cdf(low) >= chance)
+			{
+				high = low;
+				step *= 2;
+				low = high - step;
+			}
+			low = Math.max(low, -1);
+		}
+		else
+		{
+			high = low + step;
+			while(cdf(high) < chance)
+			{
+				low = high;
+				step *= 2;
+				high = low + step;
+			}
+		}
+		while(high - low > 1)
+		{
+			double middle = Math.floor(low + (high - low) / 2);
+			if(cdf(middle) >= chance)
+			{
+				high = middle;
+			}
+			else
+			{
+				low = middle;
+			}
+		}
+		return high;
+	}
+
+	/**
+	 * Evaluated value by value, since a Poisson distribution does not fill the outcome arrays
+	 * that DiscreteDistribution's batch methods search.
+	 */
+	@Override
+	public void pdf(double[] in, double[] out)
+	{
+		for(int i = 0; i < in.length; i++)
+		{
+			out[i] = pdf(in[i]);
+		}
+	}
+
+	@Override
+	public void cdf(double[] in, double[] out)
+	{
+		for(int i = 0; i < in.length; i++)
+		{
+			out[i] = cdf(in[i]);
+		}
+	}
+
+	@Override
+	public void greaterThan(double[] in, double[] out)
+	{
+		for(int i = 0; i < in.length; i++)
+		{
+			out[i] = greaterThan(in[i]);
+		}
+	}
+}
@@ -0,0 +1,98 @@
+package supplementalMath;
+
+/**
+ * A running total that keeps the rounding error of each addition and adds it back at the end, using Neumaier's
+ * improvement of Kahan summation. The result is as accurate as if the total were kept in twice the precision,
+ * whatever the order or sizes of the terms, so adding up many small amounts of gold onto a large total
+ * does not lose copper along the way.
+ */
+public class CompensatedSum
+{
+	/**
+	 * The rounded running total.
+	 */
+	private double sum;
+
+	/**
+	 * The total rounding error of the additions so far.
+	 */
+	private double compensation;
+
+	/**
+	 * Constructs a total of 0.
+	 */
+	public CompensatedSum()
+	{
+		sum = 0;
+		compensation = 0;
+	}
+
+	/**
+	 * Adds a term to the total.
+	 * @param value
+	 * 		The term to add.
+	 */
+	public void add(double value)
+	{
+		double total = sum + value;
+		//Whichever of the two is larger in magnitude is kept exactly, so the error is the part of the other that was lost.
+		if(Math.abs(sum) >= Math.abs(value))
+		{
+			compensation += (sum - total) + value;
+		}
+		else
+		{
+			compensation += (value - total) + sum;
+		}
+		sum = total;
+	}
+
+	/**
+	 * Adds the product of two numbers to the total, including the rounding error of the multiplication itself.
+	 * @param a
+	 * 		The first factor.
+	 * @param b
+	 * 		The second factor.
+	 */
+	public void addProduct(double a, double b)
+	{
+		double product = a * b;
+		add(product);
+		compensation += Math.fma(a, b, -product);
+	}
+
+	/**
+	 * Adds another total, and its rounding error, to this one.
+	 * @param other
+	 * 		The total to add.
+	 */
+	public void add(CompensatedSum other)
+	{
+		add(other.sum);
+		compensation += other.compensation;
+	}
+
+	/**
+	 * Resets the total to 0.
+	 */
+	public void clear()
+	{
+		sum = 0;
+		compensation = 0;
+	}
+
+	/**
+	 * Returns the total with the rounding errors added back. An infinite total is returned as it is,
+	 * since its rounding error is undefined.
+	 * @return
+	 * 		The total.
+	 */
+	public double value()
+	{
+		if(Double.isInfinite(sum))
+		{
+			return sum;
+		}
+		return sum + compensation;
+	}
+}
@@ -0,0 +1,196 @@
+package supplementalMath;
+
+/**
+ * An in place radix 2 fast Fourier transform of a fixed power of two size.
+ * The twiddle factors and bit reversal order are computed once when constructed,
+ * so repeated transforms of the same size only pay for the butterflies.
+ */
+public class FastFourierTransform
+{
+	/**
+	 * The number of points transformed, a power of two.
+	 */
+	private int size;
+
+	/**
+	 * cos(2 * pi * k / size) for k from 0 to size / 2.
+	 */
+	private double[] cosines;
+
+	/**
+	 * sin(2 * pi * k / size) for k from 0 to size / 2.
+	 */
+	private double[] sines;
+
+	/**
+	 * reversed[i] is i with its bits reversed, used to put the input in butterfly order.
+	 */
+	private int[] reversed;
+
+	/**
+	 * Constructs a transform of the given size.
+	 * @param points
+	 * 		The number of points to transform. Must be a power of two.
+	 */
+	public FastFourierTransform(int points)
+	{
+		if(points <= 0 || Integer.bitCount(points) != 1)
+		{
+			throw new IllegalArgumentException("Transform size must be a power of two, got " + points);
+		}
+		size = points;
+		cosines = new double[size / 2 + 1];
+		sines = new double[size / 2 + 1];
+		for(int k = 0; k <= size / 2; k++)
+		{
+			double angle = 2 * Math.PI * k / size;
+			cosines[k] = Math.cos(angle);
+			sines[k] = Math.sin(angle);
+		}
+		reversed = new int[size];
+		int bits = Integer.numberOfTrailingZeros(size);
+		for(int i = 0; i < size; i++)
+		{
+			reversed[i] = bits == 0 ? 0 : Integer.reverse(i) >>> (32 - bits);
+		}
+	}
+
+	/**
+	 * Returns the smallest power of two that is at least the given number.
+	 * @param n
+	 * 		The number to round up. Must be at most 2^30.
+	 * @return
+	 * 		The smallest power of two greater than or equal to n.
+	 */
+	public static int nextPowerOfTwo(int n)
+	{
+		return n <= 1 ? 1 : Integer.highestOneBit(n - 1) << 1;
+	}
+
+	/**
+	 * Returns the number of points this transform works on.
+	 * @return
+	 * 		The number of points this transform works on.
+	 */
+	public int getSize()
+	{
+		return size;
+	}
+
+	/**
+	 * Replaces the given sequence with its discrete Fourier transform, using the e^(-2 pi i k n / size) convention.
+	 * @param real
+	 * 		The real parts of the sequence, of length size.
+	 * @param imaginary
+	 * 		The imaginary parts of the sequence, of length size.
+	 */
+	public void transform(double[] real, double[] imaginary)
+	{
+		butterflies(real, imaginary, -1);
+	}
+
+	/**
+	 * Replaces the given spectrum with its inverse discrete Fourier transform, including the 1 / size scaling,
+	 * so that inverse(transform(x)) returns x.
+	 * @param real
+	 * 		The real parts of the spectrum, of length size.
+	 * @param imaginary
+	 * 		The imaginary parts of the spectrum, of length size.
+	 */
+	public void inverse(double[] real, double[] imaginary)
+	{
+		butterflies(real, imaginary, 1);
+		double scale = 1.0 / size;
+		for(int i = 0; i < size; i++)
+		{
+			real[i] *= scale;
+			imaginary[i] *= scale;
+		}
+	}
+
+	/**
+	 * Calculates the linear convolution of two real sequences, such as the probabilities of two independent
+	 * amounts, giving the probabilities of their sum.
+	 * @param first
+	 * 		The first sequence.
+	 * @param second
+	 * 		The second sequence.
+	 * @return
+	 * 		The convolution, of length first.length + second.length - 1.
+	 */
+	public static double[] convolve(double[] first, double[] second)
+	{
+		if(first.length == 0 || second.length == 0)
+		{
+			return new double[0];
+		}
+		int length = first.length + second.length - 1;
+		FastFourierTransform fft = new FastFourierTransform(nextPowerOfTwo(length));
+		int points = fft.getSize();
+		double[] firstReal = new double[points];
+		double[] firstImaginary = new double[points];
+		double[] secondReal = new double[points];
+		double[] secondImaginary = new double[points];
+		System.arraycopy(first, 0, firstReal, 0, first.length);
+		System.arraycopy(second, 0, secondReal, 0, second.length);
+		fft.transform(firstReal, firstImaginary);
+		fft.transform(secondReal, secondImaginary);
+		for(int i = 0; i < points; i++)
+		{
+			double real = firstReal[i] * secondReal[i] - firstImaginary[i] * secondImaginary[i];
+			firstImaginary[i] = firstReal[i] * secondImaginary[i] + firstImaginary[i] * secondReal[i];
+			firstReal[i] = real;
+		}
+		fft.inverse(firstReal, firstImaginary);
+		double[] result = new double[length];
+		System.arraycopy(firstReal, 0, result, 0, length);
+		return result;
+	}
+
+	/**
+	 * Runs the iterative Cooley-Tukey butterflies in place.
+	 * @param real
+	 * 		The real parts.
+	 * @param imaginary
+	 * 		The imaginary parts.
+	 * @param sign
+	 * 		-1 for the forward transform, 1 for the inverse.
+	 */
+	private void butterflies(double[] real, double[] imaginary, int sign)
+	{
+		for(int i = 0; i < size; i++)
+		{
+			int j = reversed[i];
+			if(i < j)
+			{
+				double swap = real[i];
+				real[i] = real[j];
+				real[j] = swap;
+				swap = imaginary[i];
+				imaginary[i] = imaginary[j];
+				imaginary[j] = swap;
+			}
+		}
+
+		for(int half = 1; half < size; half *= 2)
+		{
+			int stride = size / (2 * half);
+			for(int start = 0; start < size; start += 2 * half)
+			{
+				for(int k = 0; k < half; k++)
+				{
+					double cos = cosines[k * stride];
+					double sin = sign * sines[k * stride];
+					int top = start + k;
+					int bottom = top + half;
+					double real2 = real[bottom] * cos - imaginary[bottom] * sin;
+					double imaginary2 = real[bottom] * sin + imaginary[bottom] * cos;
+					real[bottom] = real[top] - real2;
+					imaginary[bottom] = imaginary[top] - imaginary2;
+					real[top] += real2;
+					imaginary[top] += imaginary2;
+				}
+			}
+		}
+	}
+}
@@ -0,0 +1,200 @@
+package supplementalMath;
+
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+
+/**
+ * Compensated sums of large numbers of terms. Below PARALLEL_THRESHOLD terms the sum is taken in order with
+ * CompensatedSum, and above it the terms are split in halves across the common fork/join pool, with each half's total
+ * and rounding error combined afterwards. Since each half is compensated the result is accurate either way, and the
+ * halves are always split at the same points, so a sum gives the same answer however many threads run it.
+ */
+public class Summation
+{
+	/**
+	 * Sums of fewer terms than this are taken on the calling thread. Larger sums are split until the pieces are this small.
+	 */
+	public static final int PARALLEL_THRESHOLD = 1 << 13;
+
+	/**
+	 * Adds up a range of terms into one or more compensated totals.
+	 */
+	private interface Accumulator
+	{
+		/**
+		 * Adds the terms from first up to last into the totals.
+		 * @param first
+		 * 		The first term.
+		 * @param last
+		 * 		One past the last term.
+		 * @param totals
+		 * 		The totals to add to.
+		 */
+		void accumulate(int first, int last, CompensatedSum[] totals);
+	}
+
+	/**
+	 * Computes the weighted power sums of values about a shift, sum of weights[i] * (values[i] - shift)^p for p from
+	 * 0 to 4, from which the mean, variance, skewness and kurtosis follow, and the running totals of the weights,
+	 * all in one pass over the values. Above PARALLEL_THRESHOLD values each piece keeps its running totals from its
+	 * own start, and a sweep afterwards adds on the total of the pieces before it.
+	 * @param values
+	 * 		The values.
+	 * @param weights
+	 * 		The weight, or chance, of each value.
+	 * @param count
+	 * 		The number of values to use, from the start of the arrays.
+	 * @param shift
+	 * 		The point the powers are taken about.
+	 * @param sums
+	 * 		Where the five sums are written, in order of increasing power.
+	 * @param cumulative
+	 * 		Where the running totals are written, count + 1 of them: entry i is the total of the first i weights.
+	 */
+	public static void powerSums(double[] values, double[] weights, int count, double shift, double[] sums,
+			double[] cumulative)
+	{
+		cumulative[0] = 0;
+		CompensatedSum[] totals = reduce(0, count, 5, (from, to, partial) ->
+		{
+			for(int i = from; i < to; i++)
+			{
+				double offset = values[i] - shift;
+				double weighted = weights[i];
+				partial[0].add(weighted);
+				cumulative[i + 1] = partial[0].value();
+				weighted *= offset;
+				partial[1].add(weighted);
+				weighted *= offset;
+				partial[2].add(weighted);
+				weighted *= offset;
+				partial[3].add(weighted);
+				partial[4].add(weighted * offset);
+			}
+		});
+		if(count > PARALLEL_THRESHOLD)
+		{
+			carry(cumulative, 0, count, new CompensatedSum());
+		}
+		for(int p = 0; p < 5; p++)
+		{
+			sums[p] = totals[p].value();
+		}
+	}
+
+	/**
+	 * Turns running totals kept from the start of each piece of a reduction into totals from the start of the range,
+	 * splitting the range at the same points the reduction did. The total carried between pieces is compensated,
+	 * so it does not drift however many pieces there are.
+	 * @param cumulative
+	 * 		The running totals, where entry i + 1 follows term i.
+	 * @param first
+	 * 		The first term.
+	 * @param last
+	 * 		One past the last term.
+	 * @param base
+	 * 		The total of every term before first, which is advanced to the total of every term before last.
+	 */
+	private static void carry(double[] cumulative, int first, int last, CompensatedSum base)
+	{
+		if(last - first <= PARALLEL_THRESHOLD)
+		{
+			double offset = base.value();
+			base.add(cumulative[last]);
+			for(int i = first + 1; i <= last; i++)
+			{
+				cumulative[i] += offset;
+			}
+			return;
+		}
+		int middle = (first + last) >>> 1;
+		carry(cumulative, first, middle, base);
+		carry(cumulative, middle, last, base);
+	}
+
+	/**
+	 * Runs the accumulator over the range, on the calling thread if it is small and on the fork/join pool if not.
+	 * @param first
+	 * 		The first term.
+	 * @param last
+	 * 		One past the last term.
+	 * @param width
+	 * 		The number of totals the accumulator fills.
+	 * @param accumulator
+	 * 		Adds up a range of terms.
+	 * @return
+	 * 		The totals over the whole range.
+	 */
+	private static CompensatedSum[] reduce(int first, int last, int width, Accumulator accumulator)
+	{
+		Reduction task = new Reduction(first, last, width, accumulator);
+		if(last - first < PARALLEL_THRESHOLD)
+		{
+			return task.compute();
+		}
+		return ForkJoinPool.commonPool().invoke(task);
+	}
+
+	/**
+	 * A range of terms, split in half until it is small enough to add up directly.
+	 */
+	private static class Reduction extends RecursiveTask<CompensatedSum[]>
+	{
+		private static final long serialVersionUID = 1L;
+
+		/**
+		 * The first term in the range.
+		 */
+		private final int first;
+
+		/**
+		 * One past the last term in the range.
+		 */
+		private final int last;
+
+		/**
+		 * The number of totals.
+		 */
+		private final int width;
+
+		/**
+		 * Adds up a range of terms.
+		 */
+		private final Accumulator accumulator;
+
+		Reduction(int first, int last, int width, Accumulator accumulator)
+		{
+			this.first = first;
+			this.last = last;
+			this.width = width;
+			this.accumulator = accumulator;
+		}
+
+		@Override
+		protected CompensatedSum[] compute()
+		{
+			if(last - first <= PARALLEL_THRESHOLD)
+			{
+				CompensatedSum[] totals = new CompensatedSum[width];
+				for(int i = 0; i < width; i++)
+				{
+					totals[i] = new CompensatedSum();
+				}
+				accumulator.accumulate(first, last, totals);
+				return totals;
+			}
+			int middle = (first + last) >>> 1;
+			Reduction left = new Reduction(first, middle, width, accumulator);
+			Reduction right = new Reduction(middle, last, width, accumulator);
+			left.fork();
+			CompensatedSum[] totals = right.compute();
+			CompensatedSum[] leftTotals = left.join();
+			//Add the right half onto the left half, so the combined order does not depend on which finished first.
+			for(int i = 0; i < width; i++)
+			{
+				leftTotals[i].add(totals[i]);
+			}
+			return leftTotals;
+		}
+	}
+}
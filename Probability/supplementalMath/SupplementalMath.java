@@ -9,6 +9,69 @@ import java.math.BigInteger;
  */
 public class SupplementalMath 
 {
+	/**
+	 * The largest n whose log factorial is kept in the lookup table. Beyond this the Stirling series is used directly.
+	 */
+	private static final int MAX_TABLE_SIZE = 1 << 16;
+
+	/**
+	 * Below this n table entries are built by summing logs, at or above it they come from the Stirling series,
+	 * which is accurate to double precision there and keeps rounding from building up along the table.
+	 */
+	private static final int STIRLING_CUTOFF = 256;
+
+	/**
+	 * When the smaller of k and n - k is below this, n Choose k is built up term by term instead of
+	 * from the difference of three large log factorials, which would lose digits to cancellation.
+	 */
+	private static final int DIRECT_CHOOSE_LIMIT = 32;
+
+	/**
+	 * 0.5 * log(2 * pi), used by the Stirling series.
+	 */
+	private static final double HALF_LOG_TWO_PI = 0.5 * Math.log(2 * Math.PI);
+
+	/**
+	 * The g parameter of the Lanczos approximation.
+	 */
+	private static final double LANCZOS_G = 7;
+
+	/**
+	 * Coefficients of the Lanczos approximation for g = 7, n = 9.
+	 */
+	private static final double[] LANCZOS_COEFFICIENTS = {
+		0.99999999999980993,
+		676.5203681218851,
+		-1259.1392167224028,
+		771.32342877765313,
+		-176.61502916214059,
+		12.507343278686905,
+		-0.13857109526572012,
+		9.9843695780195716e-6,
+		1.5056327351493116e-7
+	};
+
+	/**
+	 * logFactorials[n] holds log(n!). Grown on demand and replaced rather than modified,
+	 * so readers never need to lock.
+	 */
+	private static volatile double[] logFactorials = {0, 0};
+
+	/**
+	 * The continued fraction of the incomplete beta function stops once a step changes it by less than this fraction.
+	 */
+	private static final double FRACTION_TOLERANCE = 1e-15;
+
+	/**
+	 * Stands in for 0 in the continued fraction, so that no step divides by 0.
+	 */
+	private static final double FRACTION_TINY = 1e-300;
+
+	/**
+	 * A cap on the steps of the continued fraction. It needs only about the square root of the larger parameter.
+	 */
+	private static final int MAX_FRACTION_STEPS = 1 << 20;
+
 	/**
 	 * Returns a BigInteger object holding the value <n> factorial.
 	 * @param n
@@ -18,14 +81,12 @@ public class SupplementalMath
 	 */
 	public static BigInteger factorial(int n)
 	{
-		
-		  BigInteger fact = new BigInteger("1");
-		  for (int i = 1; i <= n; i++) 
-		  {
-		       fact = fact.multiply(new BigInteger(i + ""));
-		  }
-		  fact = new BigInteger(fact.toString());
-		  return fact;
+		BigInteger fact = BigInteger.ONE;
+		for (int i = 2; i <= n; i++)
+		{
+			fact = fact.multiply(BigInteger.valueOf(i));
+		}
+		return fact;
 	}
 	
 	/**
@@ -35,16 +96,312 @@ public class SupplementalMath
 	 * @param k
 	 * 		The number of options to choose.
 	 * @return
-	 * 		The number of combinations for n Choose k.
+	 * 		The number of combinations for n Choose k, or Integer.MAX_VALUE if it does not fit in an int.
 	 */
 	public static int nChooseK(int n, int k)
 	{
-		BigInteger numerator = factorial(n);
-		BigInteger denom1 = factorial(k);
-		BigInteger denom2 = factorial(n - k);
-		BigInteger denom = new BigInteger(denom1.multiply(denom2).toString());
-		BigInteger answer = new BigInteger(numerator.divide(denom).toString());
-		return answer.intValue();
+		return (int) Math.min(choose(n, k), Integer.MAX_VALUE);
+	}
+
+	/**
+	 * Calculates n Choose k as a double. Results small enough to be represented exactly are rounded to the whole number,
+	 * larger results carry a small relative error and overflow to infinity only past roughly 1e308.
+	 * @param n
+	 * 		The number of options to choose from.
+	 * @param k
+	 * 		The number of options to choose.
+	 * @return
+	 * 		The number of combinations for n Choose k, or 0 if k is not between 0 and n.
+	 */
+	public static double choose(int n, int k)
+	{
+		if(k < 0 || k > n)
+		{
+			return 0;
+		}
+		int smaller = Math.min(k, n - k);
+		double combinations;
+		if(smaller < DIRECT_CHOOSE_LIMIT)
+		{
+			combinations = 1;
+			for(int i = 1; i <= smaller; i++)
+			{
+				combinations = combinations * (n - smaller + i) / i;
+			}
+		}
+		else
+		{
+			combinations = Math.exp(logChoose(n, k));
+		}
+		if(combinations < 0x1p53)
+		{
+			return Math.rint(combinations);
+		}
+		return combinations;
+	}
+
+	/**
+	 * Calculates the natural log of n Choose k.
+	 * @param n
+	 * 		The number of options to choose from.
+	 * @param k
+	 * 		The number of options to choose.
+	 * @return
+	 * 		The natural log of n Choose k, or negative infinity if k is not between 0 and n.
+	 */
+	public static double logChoose(int n, int k)
+	{
+		if(k < 0 || k > n)
+		{
+			return Double.NEGATIVE_INFINITY;
+		}
+		int smaller = Math.min(k, n - k);
+		if(smaller < DIRECT_CHOOSE_LIMIT)
+		{
+			double total = 0;
+			for(int i = 1; i <= smaller; i++)
+			{
+				total += Math.log((double) (n - smaller + i) / i);
+			}
+			return total;
+		}
+		return logFactorial(n) - logFactorial(k) - logFactorial(n - k);
+	}
+
+	/**
+	 * Calculates the natural log of n factorial. Values up to MAX_TABLE_SIZE are read from a table that grows as needed,
+	 * larger values come from the Stirling series.
+	 * @param n
+	 * 		The number to find the log factorial of. Must not be negative.
+	 * @return
+	 * 		The natural log of n factorial.
+	 */
+	public static double logFactorial(int n)
+	{
+		if(n < 0)
+		{
+			return Double.NaN;
+		}
+		double[] table = logFactorials;
+		if(n < table.length)
+		{
+			return table[n];
+		}
+		if(n > MAX_TABLE_SIZE)
+		{
+			return stirling(n + 1.0);
+		}
+		return growTable(n)[n];
+	}
+
+	/**
+	 * Calculates the natural log of the gamma function, log(Gamma(x)), for x greater than 0.
+	 * Uses the Lanczos approximation for small x and the Stirling series for large x.
+	 * @param x
+	 * 		The point to evaluate at.
+	 * @return
+	 * 		The natural log of Gamma(x), or NaN if x is not positive.
+	 */
+	public static double logGamma(double x)
+	{
+		if(!(x > 0))
+		{
+			return Double.NaN;
+		}
+		if(x == Math.rint(x) && x <= MAX_TABLE_SIZE + 1)
+		{
+			return logFactorial((int) x - 1);
+		}
+		if(x >= STIRLING_CUTOFF)
+		{
+			return stirling(x);
+		}
+		if(x < 0.5)
+		{
+			//Reflection formula: Gamma(x) * Gamma(1 - x) = pi / sin(pi * x)
+			return Math.log(Math.PI / Math.abs(Math.sin(Math.PI * x))) - logGamma(1 - x);
+		}
+		double shifted = x - 1;
+		double series = LANCZOS_COEFFICIENTS[0];
+		for(int i = 1; i < LANCZOS_COEFFICIENTS.length; i++)
+		{
+			series += LANCZOS_COEFFICIENTS[i] / (shifted + i);
+		}
+		double t = shifted + LANCZOS_G + 0.5;
+		return HALF_LOG_TWO_PI + (shifted + 0.5) * Math.log(t) - t + Math.log(series);
+	}
+
+	/**
+	 * Calculates the complementary error function, erfc(x) = 1 - erf(x), with a fractional error below 1.2e-7 everywhere.
+	 * Computed directly rather than as 1 - erf(x), so it stays accurate far into the tail.
+	 * @param x
+	 * 		The point to evaluate at.
+	 * @return
+	 * 		erfc(x).
+	 */
+	public static double erfc(double x)
+	{
+		double z = Math.abs(x);
+		double t = 1 / (1 + 0.5 * z);
+		double polynomial = -1.26551223 + t * (1.00002368 + t * (0.37409196 + t * (0.09678418 + t * (-0.18628806
+				+ t * (0.27886807 + t * (-1.13520398 + t * (1.48851587 + t * (-0.82215223 + t * 0.17087277))))))));
+		double tail = t * Math.exp(-z * z + polynomial);
+		return x >= 0 ? tail : 2 - tail;
+	}
+
+	/**
+	 * Calculates the regularized incomplete beta function I_x(a, b), the chance that a Beta(a, b) value is at most x.
+	 * It also gives the chance of at least a successes in a + b - 1 trials that each succeed with chance x.
+	 * Evaluated with a continued fraction, on whichever side of the peak it converges quickly.
+	 * @param x
+	 * 		The point to evaluate at, from 0 to 1.
+	 * @param a
+	 * 		The first parameter, greater than 0.
+	 * @param b
+	 * 		The second parameter, greater than 0.
+	 * @return
+	 * 		I_x(a, b).
+	 */
+	public static double regularizedBeta(double x, double a, double b)
+	{
+		return regularizedBeta(x, 1 - x, a, b);
+	}
+
+	/**
+	 * Calculates 1 - I_x(a, b) without the cancellation of the subtraction, so small upper tails keep their precision.
+	 * @param x
+	 * 		The point to evaluate at, from 0 to 1.
+	 * @param a
+	 * 		The first parameter, greater than 0.
+	 * @param b
+	 * 		The second parameter, greater than 0.
+	 * @return
+	 * 		1 - I_x(a, b), which equals I_(1 - x)(b, a).
+	 */
+	public static double upperRegularizedBeta(double x, double a, double b)
+	{
+		return regularizedBeta(1 - x, x, b, a);
+	}
+
+	/**
+	 * Calculates I_x(a, b) with 1 - x given separately, so that a chance close to 1 passed as 1 - x loses no precision.
+	 * @param x
+	 * 		The point to evaluate at, from 0 to 1.
+	 * @param complement
+	 * 		1 - x.
+	 * @param a
+	 * 		The first parameter, greater than 0.
+	 * @param b
+	 * 		The second parameter, greater than 0.
+	 * @return
+	 * 		I_x(a, b).
+	 */
+	private static double regularizedBeta(double x, double complement, double a, double b)
+	{
+		if(x <= 0)
+		{
+			return 0;
+		}
+		else if(complement <= 0)
+		{
+			return 1;
+		}
+		double front = Math.exp(a * Math.log(x) + b * Math.log(complement) - logGamma(a) - logGamma(b) + logGamma(a + b));
+		if(x < (a + 1) / (a + b + 2))
+		{
+			return front * betaFraction(x, a, b) / a;
+		}
+		return 1 - front * betaFraction(complement, b, a) / b;
+	}
+
+	/**
+	 * Evaluates the continued fraction of the incomplete beta function with the modified Lentz method.
+	 * @param x
+	 * 		The point to evaluate at, below (a + 1) / (a + b + 2) so that it converges quickly.
+	 * @param a
+	 * 		The first parameter.
+	 * @param b
+	 * 		The second parameter.
+	 * @return
+	 * 		The value of the continued fraction.
+	 */
+	private static double betaFraction(double x, double a, double b)
+	{
+		double c = 1;
+		double d = 1 - (a + b) * x / (a + 1);
+		d = 1 / (Math.abs(d) < FRACTION_TINY ? FRACTION_TINY : d);
+		double fraction = d;
+		for(int m = 1; m <= MAX_FRACTION_STEPS; m++)
+		{
+			int twice = 2 * m;
+			//Even step
+			double term = m * (b - m) * x / ((a - 1 + twice) * (a + twice));
+			d = 1 + term * d;
+			d = 1 / (Math.abs(d) < FRACTION_TINY ? FRACTION_TINY : d);
+			c = 1 + term / c;
+			c = Math.abs(c) < FRACTION_TINY ? FRACTION_TINY : c;
+			fraction *= d * c;
+			//Odd step
+			term = -(a + m) * (a + b + m) * x / ((a + twice) * (a + 1 + twice));
+			d = 1 + term * d;
+			d = 1 / (Math.abs(d) < FRACTION_TINY ? FRACTION_TINY : d);
+			c = 1 + term / c;
+			c = Math.abs(c) < FRACTION_TINY ? FRACTION_TINY : c;
+			double change = d * c;
+			fraction *= change;
+			if(Math.abs(change - 1) < FRACTION_TOLERANCE)
+			{
+				break;
+			}
+		}
+		return fraction;
+	}
+
+	/**
+	 * The Stirling series for log(Gamma(x)), accurate to double precision for x of a few hundred or more.
+	 * @param x
+	 * 		The point to evaluate at.
+	 * @return
+	 * 		The natural log of Gamma(x).
+	 */
+	private static double stirling(double x)
+	{
+		double inverse = 1 / x;
+		double inverseSquared = inverse * inverse;
+		double correction = inverse * (1.0 / 12 - inverseSquared * (1.0 / 360 - inverseSquared * (1.0 / 1260)));
+		return (x - 0.5) * Math.log(x) - x + HALF_LOG_TWO_PI + correction;
+	}
+
+	/**
+	 * Grows the log factorial table so that it holds at least n, doubling its size to keep growth amortized.
+	 * @param n
+	 * 		The largest n that must be present in the table.
+	 * @return
+	 * 		The grown table.
+	 */
+	private static synchronized double[] growTable(int n)
+	{
+		double[] table = logFactorials;
+		if(n < table.length)
+		{
+			return table;
+		}
+		int size = (int) Math.min(Math.max(n + 1L, 2L * table.length), MAX_TABLE_SIZE + 1L);
+		double[] grown = new double[size];
+		System.arraycopy(table, 0, grown, 0, table.length);
+		for(int i = table.length; i < size; i++)
+		{
+			if(i < STIRLING_CUTOFF)
+			{
+				grown[i] = grown[i - 1] + Math.log(i);
+			}
+			else
+			{
+				grown[i] = stirling(i + 1.0);
+			}
+		}
+		logFactorials = grown;
+		return grown;
 	}
 	
 }